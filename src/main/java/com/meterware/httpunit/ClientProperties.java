@@ -390,6 +390,98 @@ public class ClientProperties {
         _sendReferer = referer;
     }
 
+    /**
+     * Returns the maximum number of bytes which will be read from the body of a response.
+     *
+     * @return the maximum body size, or -1 if there is no limit (the default)
+     */
+    public int getMaxResponseBodySize() {
+        return _maxResponseBodySize;
+    }
+
+    /**
+     * Specifies the maximum number of bytes which will be read from the body of a response. A response with a longer
+     * body will be rejected with an IOException.
+     *
+     * @param maxResponseBodySize
+     *            the maximum body size, or -1 for no limit
+     */
+    public void setMaxResponseBodySize(int maxResponseBodySize) {
+        _maxResponseBodySize = maxResponseBodySize;
+    }
+
+    /**
+     * Returns the time allowed for reading the body of a response.
+     *
+     * @return the timeout in milliseconds, or 0 if there is no limit (the default)
+     */
+    public int getResponseBodyTimeout() {
+        return _responseBodyTimeout;
+    }
+
+    /**
+     * Specifies the time allowed for reading the body of a response. If the body has not been read completely when
+     * the time runs out, the response is rejected with an IOException. Note that this is checked between reads; use
+     * a read timeout on the connection to limit the time spent waiting for any one read.
+     *
+     * @param responseBodyTimeout
+     *            the timeout in milliseconds, or 0 for no limit
+     */
+    public void setResponseBodyTimeout(int responseBodyTimeout) {
+        _responseBodyTimeout = responseBodyTimeout;
+    }
+
+    /**
+     * Returns true if the bodies of text responses are only read when first needed.
+     *
+     * @return true, if the body is read on demand
+     */
+    public boolean isReadBodyOnDemand() {
+        return _readBodyOnDemand;
+    }
+
+    /**
+     * Specifies whether the bodies of text responses should only be read when first needed. If true, the body is not
+     * read, scanned for meta and base tags or decoded until the text, bytes, input stream, DOM or page contents of the
+     * response are requested, so that checks of the status and headers never touch it. Until then, the content type
+     * is taken from the header alone, and any failure to read the body is reported by the first method which needs it
+     * rather than when the response is received. HTML pages received by a window are still read at once, since their
+     * frames and scripts must be processed; other text responses, and any response obtained with
+     * {@link WebClient#getResource(WebRequest)}, are not.
+     *
+     * @param readBodyOnDemand
+     *            true to read bodies on demand, false to read them as soon as the response is received (the default)
+     */
+    public void setReadBodyOnDemand(boolean readBodyOnDemand) {
+        _readBodyOnDemand = readBodyOnDemand;
+    }
+
+    /**
+     * Returns the maximum number of frame requests sent at once when a frameset or a page with iframes is loaded.
+     *
+     * @return the maximum number of concurrent frame requests
+     */
+    public int getMaxConcurrentFrameRequests() {
+        return _maxConcurrentFrameRequests;
+    }
+
+    /**
+     * Specifies the maximum number of frame requests sent at once when a frameset or a page with iframes is loaded. If
+     * greater than one, the contents of the frames are requested concurrently, and then installed in document order,
+     * one at a time, just as if they had been requested in turn. Since all requests are sent before any response is
+     * processed, cookies set by one frame are not sent with the requests for its sibling frames.
+     *
+     * @param maxConcurrentFrameRequests
+     *            the maximum number of concurrent frame requests; 1 (the default) requests the frames one at a time
+     */
+    public void setMaxConcurrentFrameRequests(int maxConcurrentFrameRequests) {
+        if (maxConcurrentFrameRequests < 1) {
+            throw new IllegalArgumentException(
+                    "maxConcurrentFrameRequests must be at least 1: " + maxConcurrentFrameRequests);
+        }
+        _maxConcurrentFrameRequests = maxConcurrentFrameRequests;
+    }
+
     /**
      * Clone properties.
      *
@@ -447,6 +539,18 @@ public class ClientProperties {
     /** The send referer. */
     private boolean _sendReferer;
 
+    /** The max response body size. */
+    private int _maxResponseBodySize = -1;
+
+    /** The response body timeout. */
+    private int _responseBodyTimeout = 0;
+
+    /** The read body on demand. */
+    private boolean _readBodyOnDemand;
+
+    /** The max concurrent frame requests. */
+    private int _maxConcurrentFrameRequests = 1;
+
     /** The default properties. */
     private static ClientProperties _defaultProperties = new ClientProperties();
 
@@ -477,6 +581,10 @@ public class ClientProperties {
         _autoRefresh = source._autoRefresh;
         _sendReferer = source._sendReferer;
         _maxRedirects = source._maxRedirects;
+        _maxResponseBodySize = source._maxResponseBodySize;
+        _responseBodyTimeout = source._responseBodyTimeout;
+        _readBodyOnDemand = source._readBodyOnDemand;
+        _maxConcurrentFrameRequests = source._maxConcurrentFrameRequests;
     }
 
 }
@@ -295,11 +295,13 @@ class FrameHolder {
             WebRequest[] requests = response.getFrameRequests();
             if (requests.length > 0) {
                 createSubFrames(frame, response.getFrameSelectors());
+                List<WebRequest> subframeRequests = new ArrayList<>();
                 for (WebRequest request : requests) {
                     if (request.getURLString().length() != 0) {
-                        response.getWindow().getSubframeResponse(request, requestContext);
+                        subframeRequests.add(request);
                     }
                 }
+                response.getWindow().getSubframeResponses(subframeRequests, requestContext);
             }
         }
     }
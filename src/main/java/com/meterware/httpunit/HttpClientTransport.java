@@ -0,0 +1,417 @@
+/*
+ * SPDX-License-Identifier: MIT
+ * See LICENSE file for details.
+ *
+ * Copyright 2000-2026 Russell Gold
+ * Copyright 2021-2026 hazendaz
+ */
+package com.meterware.httpunit;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+
+import javax.net.ssl.SSLContext;
+
+/**
+ * A transport built on {@link HttpClient}, which keeps connections alive between requests and reuses them, and which
+ * can negotiate HTTP/2. A single instance may be shared by several conversations so that they draw on the same pool.
+ * <p>
+ * The number of exchanges in progress at once, and thus the number of connections the transport will open, may be
+ * limited. Response bodies are read completely before {@link #send} returns, so that each connection goes back to the
+ * pool as soon as possible.
+ * <p>
+ * Requests for protocols other than http and https, and requests routed through a SOCKS proxy, are passed to a
+ * {@link URLConnectionTransport}. Note that
+ * {@link HttpClient} does not report the reason phrase sent by the server, so responses carry the standard phrase for
+ * their status code instead.
+ */
+public class HttpClientTransport implements HttpTransport {
+
+    /** Header fields which HttpClient will not let the caller set. HttpURLConnection ignores them as well. */
+    private static final Set<String> RESTRICTED_HEADERS = new HashSet<>(
+            Arrays.asList("connection", "content-length", "expect", "host", "upgrade"));
+
+    /** The HTTP version to request. */
+    private final HttpClient.Version _version;
+
+    /** Limits the number of exchanges in progress; null if unlimited. */
+    private final Semaphore _connectionPermits;
+
+    /** The transport to use for non-http protocols. */
+    private final HttpTransport _fallbackTransport = new URLConnectionTransport();
+
+    /** The SSL context, or null to use the default. */
+    private SSLContext _sslContext;
+
+    /** The clients in use, keyed by their connect timeout and proxy. */
+    private final Map<List<Object>, HttpClient> _clients = new HashMap<>();
+
+    /**
+     * Creates a transport which uses HTTP/1.1 and does not limit the number of connections.
+     */
+    public HttpClientTransport() {
+        this(HttpClient.Version.HTTP_1_1, 0);
+    }
+
+    /**
+     * Creates a transport which uses HTTP/1.1 and opens at most the specified number of connections.
+     *
+     * @param maxConnections
+     *            the maximum number of exchanges in progress at once, or 0 for no limit
+     */
+    public HttpClientTransport(int maxConnections) {
+        this(HttpClient.Version.HTTP_1_1, maxConnections);
+    }
+
+    /**
+     * Creates a transport which prefers the specified HTTP version and opens at most the specified number of
+     * connections.
+     *
+     * @param version
+     *            the preferred version. With {@link HttpClient.Version#HTTP_2} the transport will fall back to HTTP/1.1
+     *            for servers which do not support it.
+     * @param maxConnections
+     *            the maximum number of exchanges in progress at once, or 0 for no limit
+     */
+    public HttpClientTransport(HttpClient.Version version, int maxConnections) {
+        if (maxConnections < 0) {
+            throw new IllegalArgumentException("maxConnections may not be negative: " + maxConnections);
+        }
+        _version = version;
+        _connectionPermits = maxConnections == 0 ? null : new Semaphore(maxConnections, true);
+    }
+
+    /**
+     * Specifies the SSL context to use for https requests. If not set, the default context is used.
+     *
+     * @param sslContext
+     *            the SSL context
+     */
+    public synchronized void setSSLContext(SSLContext sslContext) {
+        _sslContext = sslContext;
+        _clients.clear();
+    }
+
+    @Override
+    public HttpTransportResponse send(HttpTransportRequest request) throws IOException {
+        String protocol = request.getURL().getProtocol();
+        if (!protocol.equalsIgnoreCase("http") && !protocol.equalsIgnoreCase("https")
+                || request.getProxy() != null && request.getProxy().type() == Proxy.Type.SOCKS) {
+            return _fallbackTransport.send(request);
+        }
+
+        HttpRequest httpRequest = toHttpRequest(request);
+        HttpClient client = getClient(request.getConnectTimeout(), request.getProxy());
+        acquirePermit();
+        try {
+            return new ClientResponse(client.send(httpRequest, HttpResponse.BodyHandlers.ofByteArray()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + request.getURL());
+        } finally {
+            releasePermit();
+        }
+    }
+
+    /**
+     * Converts the transport request into one which HttpClient can send.
+     *
+     * @param request
+     *            the request
+     *
+     * @return the http request
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private HttpRequest toHttpRequest(HttpTransportRequest request) throws IOException {
+        HttpRequest.Builder builder;
+        try {
+            builder = HttpRequest.newBuilder(request.getURL().toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException("Unable to send request to " + request.getURL() + ": " + e.getMessage(), e);
+        }
+        if (request.getReadTimeout() > 0) {
+            builder.timeout(Duration.ofMillis(request.getReadTimeout()));
+        }
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            if (!RESTRICTED_HEADERS.contains(header.getKey().toLowerCase())) {
+                builder.header(header.getKey(), header.getValue());
+            }
+        }
+        return builder.method(request.getMethod(), getBodyPublisher(request)).build();
+    }
+
+    /**
+     * Returns a publisher for the message body of the specified request.
+     *
+     * @param request
+     *            the request
+     *
+     * @return the body publisher
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private HttpRequest.BodyPublisher getBodyPublisher(HttpTransportRequest request) throws IOException {
+        if (!request.hasMessageBody()) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        request.writeMessageBody(body);
+        return HttpRequest.BodyPublishers.ofByteArray(body.toByteArray());
+    }
+
+    /**
+     * Returns the client to use for a request with the specified connect timeout and proxy. HttpClient only supports
+     * these settings per client, so each combination in use gets its own client and connection pool.
+     *
+     * @param connectTimeout
+     *            the connect timeout in milliseconds, or -1 if not set
+     * @param proxy
+     *            the proxy, or null to use the JVM-wide proxy settings
+     *
+     * @return the client
+     */
+    private synchronized HttpClient getClient(int connectTimeout, Proxy proxy) {
+        List<Object> key = Arrays.asList(connectTimeout, proxy);
+        HttpClient client = _clients.get(key);
+        if (client == null) {
+            HttpClient.Builder builder = HttpClient.newBuilder().version(_version)
+                    .followRedirects(HttpClient.Redirect.NEVER);
+            if (connectTimeout > 0) {
+                builder.connectTimeout(Duration.ofMillis(connectTimeout));
+            }
+            if (proxy != null) {
+                builder.proxy(toProxySelector(proxy));
+            }
+            if (_sslContext != null) {
+                builder.sslContext(_sslContext);
+            }
+            client = builder.build();
+            _clients.put(key, client);
+        }
+        return client;
+    }
+
+    /**
+     * Returns a proxy selector which always selects the specified proxy.
+     *
+     * @param proxy
+     *            the proxy
+     *
+     * @return the proxy selector
+     */
+    private static ProxySelector toProxySelector(Proxy proxy) {
+        if (proxy.type() == Proxy.Type.DIRECT) {
+            return HttpClient.Builder.NO_PROXY;
+        }
+        InetSocketAddress address = (InetSocketAddress) proxy.address();
+        if (address.isUnresolved()) {
+            address = new InetSocketAddress(address.getHostString(), address.getPort());
+        }
+        return ProxySelector.of(address);
+    }
+
+    /**
+     * Waits until another exchange may be started.
+     *
+     * @throws InterruptedIOException
+     *             if interrupted while waiting
+     */
+    private void acquirePermit() throws InterruptedIOException {
+        if (_connectionPermits == null) {
+            return;
+        }
+        try {
+            _connectionPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection");
+        }
+    }
+
+    /**
+     * Marks an exchange as completed.
+     */
+    private void releasePermit() {
+        if (_connectionPermits != null) {
+            _connectionPermits.release();
+        }
+    }
+
+    // ============================= class ClientResponse ======================================
+
+    /**
+     * A transport response received by HttpClient.
+     */
+    static class ClientResponse implements HttpTransportResponse {
+
+        /** The response. */
+        private final HttpResponse<byte[]> _response;
+
+        /**
+         * Instantiates a new client response.
+         *
+         * @param response
+         *            the response
+         */
+        ClientResponse(HttpResponse<byte[]> response) {
+            _response = response;
+        }
+
+        @Override
+        public int getResponseCode() {
+            return _response.statusCode();
+        }
+
+        @Override
+        public String getResponseMessage() {
+            return getReasonPhrase(_response.statusCode());
+        }
+
+        /**
+         * Returns the header fields of the response, sorted by name, since {@link java.net.http.HttpHeaders} does not
+         * keep the order in which they were received. The values for each name are in the order received.
+         *
+         * @return the header fields
+         */
+        @Override
+        public Map<String, List<String>> getHeaderFields() {
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (Map.Entry<String, List<String>> entry : _response.headers().map().entrySet()) {
+                if (!entry.getKey().startsWith(":")) {
+                    headers.put(entry.getKey(), entry.getValue());
+                }
+            }
+            return headers;
+        }
+
+        @Override
+        public String getContentType() {
+            return _response.headers().firstValue("Content-Type").orElse(null);
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(_response.body());
+        }
+    }
+
+    /**
+     * Returns the standard reason phrase for the specified status code.
+     *
+     * @param code
+     *            the status code
+     *
+     * @return the reason phrase, or null if the code is not a standard one
+     */
+    static String getReasonPhrase(int code) {
+        switch (code) {
+            case 100:
+                return "Continue";
+            case 101:
+                return "Switching Protocols";
+            case 200:
+                return "OK";
+            case 201:
+                return "Created";
+            case 202:
+                return "Accepted";
+            case 203:
+                return "Non-Authoritative Information";
+            case 204:
+                return "No Content";
+            case 205:
+                return "Reset Content";
+            case 206:
+                return "Partial Content";
+            case 300:
+                return "Multiple Choices";
+            case 301:
+                return "Moved Permanently";
+            case 302:
+                return "Found";
+            case 303:
+                return "See Other";
+            case 304:
+                return "Not Modified";
+            case 305:
+                return "Use Proxy";
+            case 307:
+                return "Temporary Redirect";
+            case 308:
+                return "Permanent Redirect";
+            case 400:
+                return "Bad Request";
+            case 401:
+                return "Unauthorized";
+            case 402:
+                return "Payment Required";
+            case 403:
+                return "Forbidden";
+            case 404:
+                return "Not Found";
+            case 405:
+                return "Method Not Allowed";
+            case 406:
+                return "Not Acceptable";
+            case 407:
+                return "Proxy Authentication Required";
+            case 408:
+                return "Request Timeout";
+            case 409:
+                return "Conflict";
+            case 410:
+                return "Gone";
+            case 411:
+                return "Length Required";
+            case 412:
+                return "Precondition Failed";
+            case 413:
+                return "Payload Too Large";
+            case 414:
+                return "URI Too Long";
+            case 415:
+                return "Unsupported Media Type";
+            case 416:
+                return "Range Not Satisfiable";
+            case 417:
+                return "Expectation Failed";
+            case 500:
+                return "Internal Server Error";
+            case 501:
+                return "Not Implemented";
+            case 502:
+                return "Bad Gateway";
+            case 503:
+                return "Service Unavailable";
+            case 504:
+                return "Gateway Timeout";
+            case 505:
+                return "HTTP Version Not Supported";
+            default:
+                return null;
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+/*
+ * SPDX-License-Identifier: MIT
+ * See LICENSE file for details.
+ *
+ * Copyright 2000-2026 Russell Gold
+ * Copyright 2021-2026 hazendaz
+ */
+package com.meterware.httpunit;
+
+import java.io.IOException;
+
+/**
+ * The mechanism used by a {@link WebConversation} to send requests over the network. Implementations are responsible
+ * only for the wire exchange; the conversation assembles the headers beforehand and builds the {@link WebResponse}
+ * from the result, so that header and body handling is the same regardless of the transport in use.
+ *
+ * @see URLConnectionTransport
+ * @see HttpClientTransport
+ */
+public interface HttpTransport {
+
+    /**
+     * Sends the specified request and returns the raw response received from the server.
+     *
+     * @param request
+     *            the request to send, including all header fields to be transmitted
+     *
+     * @return the response received
+     *
+     * @throws IOException
+     *             if the request could not be sent or the response could not be read
+     */
+    HttpTransportResponse send(HttpTransportRequest request) throws IOException;
+
+}
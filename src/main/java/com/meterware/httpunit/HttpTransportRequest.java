@@ -0,0 +1,184 @@
+/*
+ * SPDX-License-Identifier: MIT
+ * See LICENSE file for details.
+ *
+ * Copyright 2000-2026 Russell Gold
+ * Copyright 2021-2026 hazendaz
+ */
+package com.meterware.httpunit;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.Proxy;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A request as handed to an {@link HttpTransport}: the target URL, the method, the complete set of header fields to
+ * send and access to the message body, if any.
+ */
+public final class HttpTransportRequest {
+
+    /** The web request being sent. */
+    private final WebRequest _request;
+
+    /** The URL to which the request is actually sent. */
+    private final URL _url;
+
+    /** The header fields to send, in the order in which they should be sent. */
+    private final Map<String, String> _headers;
+
+    /** The proxy through which to send the request, or null if the JVM-wide settings apply. */
+    private final Proxy _proxy;
+
+    /** The connect timeout in milliseconds, or -1 if not set. */
+    private final int _connectTimeout;
+
+    /** The read timeout in milliseconds, or -1 if not set. */
+    private final int _readTimeout;
+
+    /**
+     * Instantiates a new transport request.
+     *
+     * @param request
+     *            the web request being sent
+     * @param url
+     *            the URL to which the request should be sent. May differ from the request URL if a DNS listener is
+     *            active.
+     * @param headers
+     *            the header fields to send
+     * @param proxy
+     *            the proxy through which to send the request, or null if the JVM-wide settings apply
+     * @param connectTimeout
+     *            the connect timeout in milliseconds, or -1 if not set
+     * @param readTimeout
+     *            the read timeout in milliseconds, or -1 if not set
+     */
+    HttpTransportRequest(WebRequest request, URL url, Map<String, String> headers, Proxy proxy, int connectTimeout,
+            int readTimeout) {
+        _request = request;
+        _url = url;
+        _headers = Collections.unmodifiableMap(headers);
+        _proxy = proxy;
+        _connectTimeout = connectTimeout;
+        _readTimeout = readTimeout;
+    }
+
+    /**
+     * Returns the HTTP method of this request.
+     *
+     * @return the method
+     */
+    public String getMethod() {
+        return _request.getMethod();
+    }
+
+    /**
+     * Returns the URL to which this request should be sent.
+     *
+     * @return the URL
+     */
+    public URL getURL() {
+        return _url;
+    }
+
+    /**
+     * Returns the URL of the request as the client specified it. This differs from {@link #getURL} when a DNS listener
+     * has rerouted the request to another address.
+     *
+     * @return the requested URL
+     *
+     * @throws MalformedURLException
+     *             if the URL cannot be formed
+     */
+    URL getRequestedURL() throws MalformedURLException {
+        return _request.getURL();
+    }
+
+    /**
+     * Returns the header fields to send with this request, in the order in which they should be sent.
+     *
+     * @return an unmodifiable map of header names to values
+     */
+    public Map<String, String> getHeaders() {
+        return _headers;
+    }
+
+    /**
+     * Returns the proxy through which this request should be sent.
+     *
+     * @return the proxy, or null if the JVM-wide proxy settings apply
+     */
+    public Proxy getProxy() {
+        return _proxy;
+    }
+
+    /**
+     * Returns the connect timeout.
+     *
+     * @return the connect timeout in milliseconds, or -1 if not set
+     */
+    public int getConnectTimeout() {
+        return _connectTimeout;
+    }
+
+    /**
+     * Returns the read timeout.
+     *
+     * @return the read timeout in milliseconds, or -1 if not set
+     */
+    public int getReadTimeout() {
+        return _readTimeout;
+    }
+
+    /**
+     * Returns true if this request carries a message body.
+     *
+     * @return true, if a message body should be sent
+     */
+    public boolean hasMessageBody() {
+        return _request instanceof MessageBodyWebRequest;
+    }
+
+    /**
+     * Writes the message body of this request to the specified stream.
+     *
+     * @param stream
+     *            the stream to which the body should be written
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public void writeMessageBody(OutputStream stream) throws IOException {
+        _request.writeMessageBody(stream);
+    }
+
+    /**
+     * Returns a copy of this request which sends the specified header fields instead.
+     *
+     * @param headers
+     *            the header fields to send
+     *
+     * @return the new request
+     */
+    HttpTransportRequest withHeaders(Map<String, String> headers) {
+        return new HttpTransportRequest(_request, _url, headers, _proxy, _connectTimeout, _readTimeout);
+    }
+
+    /**
+     * Lets the web request complete a URL connection, setting the method and sending the body.
+     *
+     * @param connection
+     *            the connection
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    void completeRequest(URLConnection connection) throws IOException {
+        _request.completeRequest(connection);
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * SPDX-License-Identifier: MIT
+ * See LICENSE file for details.
+ *
+ * Copyright 2000-2026 Russell Gold
+ * Copyright 2021-2026 hazendaz
+ */
+package com.meterware.httpunit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The raw response returned by an {@link HttpTransport}.
+ */
+public interface HttpTransportResponse {
+
+    /**
+     * Returns the status code of the response.
+     *
+     * @return the response code
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    int getResponseCode() throws IOException;
+
+    /**
+     * Returns the reason phrase sent with the status code.
+     *
+     * @return the response message
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    String getResponseMessage() throws IOException;
+
+    /**
+     * Returns the header fields of the response. Each name maps to all the values received for it, in order. The order
+     * of the names depends on the transport: it may be the order received, or another order such as by name. The status
+     * line is not included.
+     *
+     * @return the header fields
+     */
+    Map<String, List<String>> getHeaderFields();
+
+    /**
+     * Returns the content type of the response, or null if not known.
+     *
+     * @return the content type
+     */
+    String getContentType();
+
+    /**
+     * Returns a stream from which the body of the response may be read. For error responses this is the error body,
+     * or an empty stream if the server sent none.
+     *
+     * @return the input stream
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    InputStream getInputStream() throws IOException;
+
+}
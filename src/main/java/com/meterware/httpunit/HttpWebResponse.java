@@ -8,19 +8,15 @@
 package com.meterware.httpunit;
 
 import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
-import java.net.UnknownHostException;
-import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.Hashtable;
 import java.util.List;
-import java.util.StringTokenizer;
+import java.util.Map;
 
 /**
  * A response from a web server to an Http request.
@@ -31,7 +27,7 @@ class HttpWebResponse extends WebResponse {
     private String _referer;
 
     /**
-     * Constructs a response object from an input stream.
+     * Constructs a response object from a URL connection.
      *
      * @param client
      *            the client
@@ -49,19 +45,40 @@ class HttpWebResponse extends WebResponse {
      */
     HttpWebResponse(WebConversation client, FrameSelector frame, URL url, URLConnection connection,
             boolean throwExceptionOnError) throws IOException {
+        this(client, frame, url, new URLConnectionTransport.ConnectionResponse(connection), throwExceptionOnError);
+    }
+
+    /**
+     * Constructs a response object from the response received by a transport.
+     *
+     * @param client
+     *            the client
+     * @param frame
+     *            the target window or frame to which the request should be directed
+     * @param url
+     *            the url from which the response was received
+     * @param response
+     *            the transport response from which the headers and body can be read
+     * @param throwExceptionOnError
+     *            the throw exception on error
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    HttpWebResponse(WebConversation client, FrameSelector frame, URL url, HttpTransportResponse response,
+            boolean throwExceptionOnError) throws IOException {
         super(client, frame, url);
         if (HttpUnitOptions.isLoggingHttpHeaders()) {
             System.out.println("\nReceived from " + url);
         }
-        readHeaders(connection);
+        readHeaders(response);
 
         /** make sure that any IO exception for HTML received page happens here, not later. **/
         if (_responseCode < HttpURLConnection.HTTP_BAD_REQUEST || !throwExceptionOnError) {
-            InputStream inputStream = getInputStream(connection);
-            defineRawInputStream(new BufferedInputStream(inputStream));
+            defineRawInputStream(new BufferedInputStream(response.getInputStream()));
             String contentType = getContentType();
             if (contentType.startsWith("text")) {
-                loadResponseText();
+                prepareResponseText();
             }
         }
     }
@@ -75,79 +92,21 @@ class HttpWebResponse extends WebResponse {
      *            the frame
      * @param request
      *            the request
-     * @param connection
-     *            the connection
+     * @param response
+     *            the transport response
      * @param throwExceptionOnError
      *            the throw exception on error
      *
      * @throws IOException
      *             Signals that an I/O exception has occurred.
      */
-    HttpWebResponse(WebConversation client, FrameSelector frame, WebRequest request, URLConnection connection,
+    HttpWebResponse(WebConversation client, FrameSelector frame, WebRequest request, HttpTransportResponse response,
             boolean throwExceptionOnError) throws IOException {
-        this(client, frame, request.getURL(), connection, throwExceptionOnError);
+        this(client, frame, request.getURL(), response, throwExceptionOnError);
         super.setWithParse(!request.getMethod().equals("HEAD"));
         _referer = request.getReferer();
     }
 
-    /**
-     * get the input stream for the given connection.
-     *
-     * @param connection
-     *            the connection
-     *
-     * @return the input stream
-     *
-     * @throws IOException
-     *             Signals that an I/O exception has occurred.
-     */
-    private InputStream getInputStream(URLConnection connection) throws IOException {
-        InputStream result = null;
-        // check whether there is an error stream
-        if (isResponseOnErrorStream(connection)) {
-            result = ((HttpURLConnection) connection).getErrorStream();
-        } else {
-            // if there is no error stream it depends on the response code
-            try {
-                result = connection.getInputStream();
-            } catch (java.io.FileNotFoundException fnfe) {
-                // as of JDK 1.5 a null inputstream might have been returned here
-                // see bug report [ 1283878 ] FileNotFoundException using Sun JDK 1.5 on empty error pages
-                // by Roger Lindsj?
-                if (!isErrorResponse(connection)) {
-                    throw fnfe;
-                }
-                // fake an empty error stream
-                result = new ByteArrayInputStream(new byte[0]);
-            }
-        }
-        return result;
-    }
-
-    /**
-     * check whether a response code >=400 was received.
-     *
-     * @param connection
-     *            the connection
-     *
-     * @return true, if is error response
-     */
-    private boolean isErrorResponse(URLConnection connection) {
-        return _responseCode >= HttpURLConnection.HTTP_BAD_REQUEST;
-    }
-
-    /**
-     * check whether the response is on the error stream.
-     *
-     * @param connection
-     *            the connection
-     *
-     * @return true, if is response on error stream
-     */
-    private boolean isResponseOnErrorStream(URLConnection connection) {
-        return isErrorResponse(connection) && ((HttpURLConnection) connection).getErrorStream() != null;
-    }
-
     /**
      * Returns the response code associated with this response.
      **/
@@ -210,9 +169,6 @@ class HttpWebResponse extends WebResponse {
 
     // ------------------------------------- private members -------------------------------------
 
-    /** The Constant FILE_ENCODING. */
-    private static final String FILE_ENCODING = Charset.defaultCharset().displayName();
-
     /** The response code. */
     private int _responseCode = HttpURLConnection.HTTP_OK;
 
@@ -236,107 +192,30 @@ class HttpWebResponse extends WebResponse {
     private Hashtable _headers = new WebClient.HeaderDictionary();
 
     /**
-     * read the response Header for the given connection and set the response code and message accordingly.
+     * Read the status and headers of the given response.
      *
-     * @param connection
-     *            the connection
+     * @param response
+     *            the response
      *
      * @throws IOException
      *             Signals that an I/O exception has occurred.
      */
-    private void readResponseHeader(HttpURLConnection connection) throws IOException {
-        if (!needStatusWorkaround()) {
-            setResponseCode(connection.getResponseCode(), connection.getResponseMessage());
-        } else {
-            if (connection.getHeaderField(0) == null) {
-                throw new UnknownHostException(connection.getURL().toExternalForm());
-            }
-
-            StringTokenizer st = new StringTokenizer(connection.getHeaderField(0));
-            st.nextToken();
-            if (!st.hasMoreTokens()) {
-                setResponseCode(HttpURLConnection.HTTP_OK, "OK");
-            } else {
-                try {
-                    setResponseCode(Integer.parseInt(st.nextToken()), getRemainingTokens(st));
-                } catch (NumberFormatException e) {
-                    setResponseCode(HttpURLConnection.HTTP_INTERNAL_ERROR, "Cannot parse response header");
-                }
-            }
-        }
-    }
-
-    /**
-     * Need status workaround.
-     *
-     * @return true, if successful
-     */
-    private boolean needStatusWorkaround() {
-        final String jdkVersion = System.getProperty("java.version");
-        return jdkVersion.startsWith("1.2") || jdkVersion.startsWith("1.3");
-    }
-
-    /**
-     * Gets the remaining tokens.
-     *
-     * @param st
-     *            the st
-     *
-     * @return the remaining tokens
-     */
-    private String getRemainingTokens(StringTokenizer st) {
-        StringBuilder messageBuffer = new StringBuilder(st.hasMoreTokens() ? st.nextToken() : "");
-        while (st.hasMoreTokens()) {
-            messageBuffer.append(' ').append(st.nextToken());
-        }
-        return messageBuffer.toString();
-    }
-
-    /**
-     * Read headers.
-     *
-     * @param connection
-     *            the connection
-     *
-     * @throws IOException
-     *             Signals that an I/O exception has occurred.
-     */
-    private void readHeaders(URLConnection connection) throws IOException {
-        loadHeaders(connection);
-        if (connection instanceof HttpURLConnection) {
-            readResponseHeader((HttpURLConnection) connection);
-        } else {
-            setResponseCode(HttpURLConnection.HTTP_OK, "OK");
-            if (connection.getContentType().startsWith("text")) {
-                setContentTypeHeader(connection.getContentType() + "; charset=" + FILE_ENCODING);
-            }
-        }
-    }
-
-    /**
-     * Load headers.
-     *
-     * @param connection
-     *            the connection
-     */
-    private void loadHeaders(URLConnection connection) {
+    private void readHeaders(HttpTransportResponse response) throws IOException {
+        setResponseCode(response.getResponseCode(), response.getResponseMessage());
         if (HttpUnitOptions.isLoggingHttpHeaders()) {
-            System.out.println("Header:: " + connection.getHeaderField(0));
+            System.out.println("Header:: " + _responseCode + " " + _responseMessage);
         }
-        for (int i = 1; true; i++) {
-            String headerFieldKey = connection.getHeaderFieldKey(i);
-            String headerField = connection.getHeaderField(i);
-            if (headerFieldKey == null || headerField == null) {
-                break;
-            }
-            if (HttpUnitOptions.isLoggingHttpHeaders()) {
-                System.out.println("Header:: " + headerFieldKey + ": " + headerField);
+        for (Map.Entry<String, List<String>> entry : response.getHeaderFields().entrySet()) {
+            for (String headerField : entry.getValue()) {
+                if (HttpUnitOptions.isLoggingHttpHeaders()) {
+                    System.out.println("Header:: " + entry.getKey() + ": " + headerField);
+                }
+                addHeader(entry.getKey().toUpperCase(), headerField);
             }
-            addHeader(headerFieldKey.toUpperCase(), headerField);
         }
 
-        if (connection.getContentType() != null) {
-            setContentTypeHeader(connection.getContentType());
+        if (response.getContentType() != null) {
+            setContentTypeHeader(response.getContentType());
         }
     }
 
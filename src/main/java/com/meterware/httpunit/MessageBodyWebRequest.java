@@ -13,6 +13,7 @@ import com.meterware.httpunit.protocol.ParameterCollection;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
 
@@ -121,13 +122,22 @@ public abstract class MessageBodyWebRequest extends WebRequest {
     }
 
     /**
-     * Performs any additional processing necessary to complete the request.
+     * Performs any additional processing necessary to complete the request. A body which uploads files is streamed to
+     * the server: with a fixed length if that can be determined in advance, and in chunks otherwise.
      **/
     @Override
     protected void completeRequest(URLConnection connection) throws IOException {
         super.completeRequest(connection);
         connection.setDoInput(true);
         connection.setDoOutput(true);
+        if (connection instanceof HttpURLConnection && getMessageBody().isStreamed(getParameterHolder())) {
+            long length = getMessageBody().getContentLength(getParameterHolder());
+            if (length >= 0) {
+                ((HttpURLConnection) connection).setFixedLengthStreamingMode(length);
+            } else {
+                ((HttpURLConnection) connection).setChunkedStreamingMode(0);
+            }
+        }
 
         OutputStream stream = connection.getOutputStream();
         writeMessageBody(stream);
@@ -7,6 +7,7 @@
  */
 package com.meterware.httpunit;
 
+import com.meterware.httpunit.dom.DocumentImpl;
 import com.meterware.httpunit.dom.HTMLContainerElement;
 import com.meterware.httpunit.dom.HTMLControl;
 import com.meterware.httpunit.dom.HTMLDocumentImpl;
@@ -17,10 +18,13 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.StringTokenizer;
 
 import org.w3c.dom.Document;
@@ -98,6 +102,30 @@ public class ParsedHTML {
     /** The frames. */
     private WebFrame[] _frames;
 
+    /** The document modification count for which the text indexes were built. */
+    private long _indexedModificationCount = -1;
+
+    /** Whether images were treated as their alt text when the text indexes were built. */
+    private boolean _indexedImagesAsAltText;
+
+    /** The links, indexed by their text. */
+    private TextIndex<WebLink> _linkTextIndex;
+
+    /** The links, indexed by their names. */
+    private TextIndex<WebLink> _linkNameIndex;
+
+    /** The images, indexed by their names. */
+    private TextIndex<WebImage> _imageNameIndex;
+
+    /** The images, indexed by their sources. */
+    private TextIndex<WebImage> _imageSourceIndex;
+
+    /** The images, indexed by their alt text. */
+    private TextIndex<WebImage> _imageAltTextIndex;
+
+    /** The tables and nested tables, indexed by the text of their cells. */
+    private TextIndex<WebTable> _tableCellIndex;
+
     /**
      * Instantiates a new parsed HTML.
      *
@@ -348,6 +376,45 @@ public class ParsedHTML {
         return getElementsFromList(((Document) dom).getElementsByTagName(name));
     }
 
+    /**
+     * Returns the elements matched by the XPath of the specified predicate, in document order. Nodes other than
+     * elements are ignored.
+     *
+     * @param predicate
+     *            the predicate
+     *
+     * @return the matching elements
+     */
+    HTMLElement[] getElementsByXPath(XPathPredicate predicate) {
+        loadElements();
+        Node root = getRootNode();
+        Document document = root instanceof Document ? (Document) root : root.getOwnerDocument();
+        List<HTMLElement> elements = new ArrayList<>();
+        for (Node node : predicate.getMatchingNodeList(document)) {
+            if (node instanceof Element) {
+                elements.add(getElementForNode((Element) node));
+            }
+        }
+        return elements.toArray(new HTMLElement[elements.size()]);
+    }
+
+    /**
+     * Returns the registered element for the specified node, creating and registering a default one if there is none.
+     *
+     * @param node
+     *            the node
+     *
+     * @return the element
+     */
+    private HTMLElement getElementForNode(Element node) {
+        HTMLElement element = (HTMLElement) _registry.getRegisteredElement(node);
+        if (element == null) {
+            element = toDefaultElement(node);
+            _registry.registerElement(node, element);
+        }
+        return element;
+    }
+
     /**
      * Gets the elements from list.
      *
@@ -359,12 +426,7 @@ public class ParsedHTML {
     private HTMLElement[] getElementsFromList(NodeList nl) {
         HTMLElement[] elements = new HTMLElement[nl.getLength()];
         for (int i = 0; i < elements.length; i++) {
-            Node node = nl.item(i);
-            elements[i] = (HTMLElement) _registry.getRegisteredElement(node);
-            if (elements[i] == null) {
-                elements[i] = toDefaultElement((Element) node);
-                _registry.registerElement(node, elements[i]);
-            }
+            elements[i] = getElementForNode((Element) nl.item(i));
         }
         return elements;
     }
@@ -1484,6 +1546,11 @@ public class ParsedHTML {
      * @return the first matching link
      */
     public WebLink getFirstMatchingLink(HTMLElementPredicate predicate, Object criteria) {
+        TextIndex<WebLink> index = getLinkIndex(predicate, criteria);
+        if (index != null) {
+            return predicate == WebLink.MATCH_CONTAINED_TEXT ? index.getFirstContaining((String) criteria)
+                    : index.getFirstMatching((String) criteria);
+        }
         WebLink[] links = getLinks();
         for (WebLink link : links) {
             if (predicate.matchesCriteria(link, criteria)) {
@@ -1504,6 +1571,12 @@ public class ParsedHTML {
      * @return the matching links
      */
     public WebLink[] getMatchingLinks(HTMLElementPredicate predicate, Object criteria) {
+        TextIndex<WebLink> index = getLinkIndex(predicate, criteria);
+        if (index != null) {
+            List<WebLink> matches = predicate == WebLink.MATCH_CONTAINED_TEXT
+                    ? index.getAllContaining((String) criteria) : index.getAllMatching((String) criteria);
+            return matches.toArray(new WebLink[matches.size()]);
+        }
         ArrayList matches = new ArrayList<>();
         WebLink[] links = getLinks();
         for (WebLink link : links) {
@@ -1523,6 +1596,10 @@ public class ParsedHTML {
      * @return the image with name
      */
     public WebImage getImageWithName(String name) {
+        TextIndex<WebImage> index = getImageIndex("Name");
+        if (index != null) {
+            return index.getFirstMatching(name);
+        }
         WebImage[] images = getImages();
         for (WebImage image : images) {
             if (HttpUnitUtils.matches(name, image.getName())) {
@@ -1541,6 +1618,10 @@ public class ParsedHTML {
      * @return the image with source
      */
     public WebImage getImageWithSource(String source) {
+        TextIndex<WebImage> index = getImageIndex("Source");
+        if (index != null) {
+            return index.getFirstMatching(source);
+        }
         WebImage[] images = getImages();
         for (WebImage image : images) {
             if (HttpUnitUtils.matches(source, image.getSource())) {
@@ -1559,6 +1640,10 @@ public class ParsedHTML {
      * @return the image with alt text
      */
     public WebImage getImageWithAltText(String altText) {
+        TextIndex<WebImage> index = getImageIndex("AltText");
+        if (index != null) {
+            return index.getFirstMatching(altText);
+        }
         WebImage[] images = getImages();
         for (WebImage image : images) {
             if (HttpUnitUtils.matches(altText, image.getAltText())) {
@@ -1580,6 +1665,16 @@ public class ParsedHTML {
      * @return the selected table, or null if none is found
      */
     public WebTable getFirstMatchingTable(HTMLElementPredicate predicate, Object criteria) {
+        if ((predicate == WebTable.MATCH_FIRST_NONBLANK_CELL || predicate == WebTable.MATCH_FIRST_NONBLANK_CELL_PREFIX)
+                && criteria instanceof String && !((String) criteria).isEmpty() && isIndexable()) {
+            if (_tableCellIndex == null) {
+                _tableCellIndex = new TextIndex<>();
+                addToTableCellIndex(getTables());
+            }
+            return predicate == WebTable.MATCH_FIRST_NONBLANK_CELL
+                    ? _tableCellIndex.getFirstMatching((String) criteria)
+                    : _tableCellIndex.getFirstWithPrefix((String) criteria);
+        }
         return getTableSatisfyingPredicate(getTables(), predicate, criteria);
     }
 
@@ -1691,12 +1786,134 @@ public class ParsedHTML {
      * Clear caches.
      */
     private void clearCaches() {
+        clearTextIndexes();
         _tables = null;
         _frames = null;
         _blocks = null;
         _updateElements = true;
     }
 
+    /**
+     * Discards the text indexes, which will be rebuilt when next needed.
+     */
+    private void clearTextIndexes() {
+        _indexedModificationCount = -1;
+        _linkTextIndex = null;
+        _linkNameIndex = null;
+        _imageNameIndex = null;
+        _imageSourceIndex = null;
+        _imageAltTextIndex = null;
+        _tableCellIndex = null;
+    }
+
+    /**
+     * Returns true if the text indexes may be used, discarding them first if the document, or the way in which its text
+     * is extracted, has changed since they were built. Indexes are only used for pages whose document reports its
+     * modifications.
+     *
+     * @return true, if the text indexes may be used
+     */
+    private boolean isIndexable() {
+        loadElements();
+        Node root = getRootNode();
+        Document document = root instanceof Document ? (Document) root : root.getOwnerDocument();
+        if (!(document instanceof DocumentImpl)) {
+            return false;
+        }
+        long modificationCount = ((DocumentImpl) document).getModificationCount();
+        if (modificationCount != _indexedModificationCount
+                || HttpUnitOptions.getImagesTreatedAsAltText() != _indexedImagesAsAltText) {
+            clearTextIndexes();
+            _indexedModificationCount = modificationCount;
+            _indexedImagesAsAltText = HttpUnitOptions.getImagesTreatedAsAltText();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index which answers the specified link predicate, building it if necessary.
+     *
+     * @param predicate
+     *            the predicate
+     * @param criteria
+     *            the criteria
+     *
+     * @return the index, or null if the predicate must be tested against each link
+     */
+    private TextIndex<WebLink> getLinkIndex(HTMLElementPredicate predicate, Object criteria) {
+        boolean byText = predicate == WebLink.MATCH_TEXT || predicate == WebLink.MATCH_CONTAINED_TEXT;
+        if (!byText && predicate != WebLink.MATCH_NAME || !(criteria instanceof String) || !isIndexable()) {
+            return null;
+        }
+        if (byText && _linkTextIndex == null) {
+            _linkTextIndex = new TextIndex<>();
+            for (WebLink link : getLinks()) {
+                _linkTextIndex.add(link, link.getText());
+            }
+        } else if (!byText && _linkNameIndex == null) {
+            _linkNameIndex = new TextIndex<>();
+            for (WebLink link : getLinks()) {
+                _linkNameIndex.add(link, link.getName());
+            }
+        }
+        return byText ? _linkTextIndex : _linkNameIndex;
+    }
+
+    /**
+     * Returns the index of images by the specified attribute, building it if necessary.
+     *
+     * @param attribute
+     *            one of "Name", "Source" or "AltText"
+     *
+     * @return the index, or null if each image must be examined
+     */
+    private TextIndex<WebImage> getImageIndex(String attribute) {
+        if (!isIndexable()) {
+            return null;
+        }
+        if (_imageNameIndex == null) {
+            _imageNameIndex = new TextIndex<>();
+            _imageSourceIndex = new TextIndex<>();
+            _imageAltTextIndex = new TextIndex<>();
+            for (WebImage image : getImages()) {
+                _imageNameIndex.add(image, image.getName());
+                _imageSourceIndex.add(image, image.getSource());
+                _imageAltTextIndex.add(image, image.getAltText());
+            }
+        }
+        if (attribute.equals("Name")) {
+            return _imageNameIndex;
+        }
+        return attribute.equals("Source") ? _imageSourceIndex : _imageAltTextIndex;
+    }
+
+    /**
+     * Adds the text of each cell of the specified tables to the table cell index, visiting nested tables in the same
+     * order as {@link #getTableSatisfyingPredicate}. A nested table in a cell which spans several rows or columns is
+     * only added once.
+     *
+     * @param tables
+     *            the tables
+     */
+    private void addToTableCellIndex(WebTable[] tables) {
+        for (WebTable table : tables) {
+            for (int row = 0; row < table.getRowCount(); row++) {
+                for (int col = 0; col < table.getColumnCount(); col++) {
+                    _tableCellIndex.add(table, table.getCellAsText(row, col).trim());
+                }
+            }
+            Set<TableCell> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int row = 0; row < table.getRowCount(); row++) {
+                for (int col = 0; col < table.getColumnCount(); col++) {
+                    TableCell cell = table.getTableCell(row, col);
+                    if (cell != null && visited.add(cell)) {
+                        addToTableCellIndex(cell.getTables());
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Returns the base URL for this HTML segment.
      *
@@ -0,0 +1,752 @@
+/*
+ * SPDX-License-Identifier: MIT
+ * See LICENSE file for details.
+ *
+ * Copyright 2000-2026 Russell Gold
+ * Copyright 2021-2026 hazendaz
+ */
+package com.meterware.httpunit;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.HttpURLConnection;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A cache of responses to GET requests, which lets a {@link WebConversation} avoid downloading the same pages, scripts
+ * and frames again and again. A single cache may be shared by several conversations.
+ * <p>
+ * Only successful responses which the server marks as cacheable are kept: those with a <code>Cache-Control</code>
+ * max-age or an <code>Expires</code> header, or with an <code>ETag</code> or <code>Last-Modified</code> header by which
+ * they can be revalidated. A response which is still fresh is returned without contacting the server; a stale one is
+ * revalidated with a conditional request, and reused if the server answers <code>304 Not Modified</code>. Responses
+ * marked <code>no-store</code> or <code>private</code>, or requested with an <code>Authorization</code> header, are never
+ * kept, and cookies are never replayed from the cache.
+ * <p>
+ * The cache holds at most a fixed number of bytes of response bodies, discarding the least recently used responses
+ * when it is full.
+ */
+public class ResponseCache {
+
+    /** The default maximum size of the cache, in bytes. */
+    public static final long DEFAULT_MAX_SIZE = 16 * 1024 * 1024;
+
+    /** The header fields which are not kept with cached responses. */
+    private static final String[] UNCACHED_HEADERS = { "Set-Cookie", "Set-Cookie2" };
+
+    /** The maximum number of bytes of response bodies to keep. */
+    private final long _maxSize;
+
+    /** The number of bytes of response bodies currently kept. */
+    private long _size;
+
+    /** The number of requests answered from the cache, with or without revalidation. */
+    private long _hits;
+
+    /** The number of cacheable requests which had to be sent to the server. */
+    private long _misses;
+
+    /** The cached responses, keyed by URL, in order of use. */
+    private final LinkedHashMap<String, Entry> _entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Creates a cache which holds up to {@link #DEFAULT_MAX_SIZE} bytes.
+     */
+    public ResponseCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a cache which holds up to the specified number of bytes of response bodies.
+     *
+     * @param maxSize
+     *            the maximum size of the cache, in bytes
+     */
+    public ResponseCache(long maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize may not be negative: " + maxSize);
+        }
+        _maxSize = maxSize;
+    }
+
+    /**
+     * Returns the maximum number of bytes of response bodies this cache will hold.
+     *
+     * @return the maximum size
+     */
+    public long getMaxSize() {
+        return _maxSize;
+    }
+
+    /**
+     * Returns the number of bytes of response bodies currently held.
+     *
+     * @return the size
+     */
+    public synchronized long getSize() {
+        return _size;
+    }
+
+    /**
+     * Returns the number of responses currently held.
+     *
+     * @return the entry count
+     */
+    public synchronized int getEntryCount() {
+        return _entries.size();
+    }
+
+    /**
+     * Returns the number of requests answered from the cache, including those revalidated with the server.
+     *
+     * @return the hit count
+     */
+    public synchronized long getHits() {
+        return _hits;
+    }
+
+    /**
+     * Returns the number of cacheable requests for which no usable response was held.
+     *
+     * @return the miss count
+     */
+    public synchronized long getMisses() {
+        return _misses;
+    }
+
+    /**
+     * Discards all responses and resets the counters.
+     */
+    public synchronized void clear() {
+        _entries.clear();
+        _size = 0;
+        _hits = 0;
+        _misses = 0;
+    }
+
+    /**
+     * Returns the response to the specified request, from the cache if possible, and otherwise by sending it with the
+     * specified transport.
+     *
+     * @param transport
+     *            the transport with which to send requests
+     * @param request
+     *            the request
+     *
+     * @return the response
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    HttpTransportResponse send(HttpTransport transport, HttpTransportRequest request) throws IOException {
+        if (!isCacheable(request)) {
+            return transport.send(request);
+        }
+        // the requested URL, rather than any rerouted address, so that virtual hosts sharing an address stay apart
+        String key = request.getRequestedURL().toExternalForm();
+        Entry entry = getEntry(key, request);
+        if (entry == null) {
+            return store(key, request, transport.send(request));
+        }
+        if (entry.isFresh(System.currentTimeMillis())) {
+            return entry.toResponse();
+        }
+
+        long requestTime = System.currentTimeMillis();
+        HttpTransportResponse response = transport.send(entry.addConditions(request));
+        if (response.getResponseCode() != HttpURLConnection.HTTP_NOT_MODIFIED) {
+            recordLookup(false);
+            return store(key, request, response);
+        }
+        recordLookup(true);
+        response.getInputStream().close();
+        entry.update(response.getHeaderFields(), requestTime);
+        return entry.toResponse(response.getHeaderFields());
+    }
+
+    /**
+     * Returns true if the response to the specified request may be taken from, or kept in, the cache.
+     *
+     * @param request
+     *            the request
+     *
+     * @return true, if cacheable
+     */
+    private static boolean isCacheable(HttpTransportRequest request) {
+        if (!request.getMethod().equals("GET")) {
+            return false;
+        }
+        for (String name : request.getHeaders().keySet()) {
+            String lower = name.toLowerCase(Locale.ENGLISH);
+            if (lower.startsWith("if-") || lower.equals("range")) {
+                return false;
+            }
+        }
+        String requestControl = getHeader(request.getHeaders(), "Cache-Control");
+        String pragma = getHeader(request.getHeaders(), "Pragma");
+        return !hasDirective(requestControl, "no-cache") && !hasDirective(requestControl, "no-store")
+                && !hasDirective(pragma, "no-cache");
+    }
+
+    /**
+     * Returns the cached response for the specified request, if any. A fresh response is counted as a hit, and a
+     * missing one as a miss; a stale response is counted once the server has been asked whether it is still current.
+     *
+     * @param key
+     *            the cache key
+     * @param request
+     *            the request
+     *
+     * @return the entry, or null if none matches the request
+     */
+    private synchronized Entry getEntry(String key, HttpTransportRequest request) {
+        Entry entry = _entries.get(key);
+        if (entry == null || !entry.matches(request)) {
+            _misses++;
+            return null;
+        }
+        if (entry.isFresh(System.currentTimeMillis())) {
+            _hits++;
+        } else if (!entry.hasValidators()) {
+            _misses++;
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Counts a request for which a stale response was revalidated with the server.
+     *
+     * @param reused
+     *            true if the server reported that the response was still current
+     */
+    private synchronized void recordLookup(boolean reused) {
+        if (reused) {
+            _hits++;
+        } else {
+            _misses++;
+        }
+    }
+
+    /**
+     * Keeps the specified response if it may be cached, and returns a response which may be read in its place.
+     *
+     * @param key
+     *            the cache key
+     * @param request
+     *            the request
+     * @param response
+     *            the response received from the server
+     *
+     * @return the response to use
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private HttpTransportResponse store(String key, HttpTransportRequest request, HttpTransportResponse response)
+            throws IOException {
+        long responseTime = System.currentTimeMillis();
+        Map<String, List<String>> headers = response.getHeaderFields();
+        if (response.getResponseCode() != HttpURLConnection.HTTP_OK || !isStorable(request, headers)) {
+            remove(key);
+            return response;
+        }
+
+        InputStream body = response.getInputStream();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8 * 1024];
+        int count;
+        while (buffer.size() <= _maxSize && (count = body.read(chunk)) != -1) {
+            buffer.write(chunk, 0, count);
+        }
+        byte[] contents = buffer.toByteArray();
+        if (contents.length > _maxSize) {
+            remove(key);
+            return new CachedResponse(response.getResponseCode(), response.getResponseMessage(), headers,
+                    response.getContentType(), new SequenceInputStream(new ByteArrayInputStream(contents), body));
+        }
+        body.close();
+
+        Entry entry = new Entry(request, response.getResponseMessage(), headers, response.getContentType(), contents,
+                responseTime);
+        put(key, entry);
+        return new CachedResponse(response.getResponseCode(), response.getResponseMessage(), headers,
+                response.getContentType(), new ByteArrayInputStream(contents));
+    }
+
+    /**
+     * Returns true if a response with the specified headers may be kept.
+     *
+     * @param request
+     *            the request
+     * @param headers
+     *            the response headers
+     *
+     * @return true, if storable
+     */
+    private static boolean isStorable(HttpTransportRequest request, Map<String, List<String>> headers) {
+        String cacheControl = getHeader(headers, "Cache-Control");
+        if (hasDirective(cacheControl, "no-store") || hasDirective(cacheControl, "private")
+                || "*".equals(getHeader(headers, "Vary"))) {
+            return false;
+        }
+        if (getHeader(request.getHeaders(), "Authorization") != null && !hasDirective(cacheControl, "public")) {
+            return false;
+        }
+        return getHeader(headers, "ETag") != null || getHeader(headers, "Last-Modified") != null
+                || getDirectiveValue(cacheControl, "max-age") != null || getHeader(headers, "Expires") != null;
+    }
+
+    /**
+     * Adds an entry, discarding the least recently used ones if the cache would otherwise be too large.
+     *
+     * @param key
+     *            the cache key
+     * @param entry
+     *            the entry
+     */
+    private synchronized void put(String key, Entry entry) {
+        remove(key);
+        _entries.put(key, entry);
+        _size += entry.getSize();
+        for (Iterator<Entry> i = _entries.values().iterator(); _size > _maxSize && i.hasNext();) {
+            _size -= i.next().getSize();
+            i.remove();
+        }
+    }
+
+    /**
+     * Removes the entry with the specified key, if any.
+     *
+     * @param key
+     *            the cache key
+     */
+    private synchronized void remove(String key) {
+        Entry entry = _entries.remove(key);
+        if (entry != null) {
+            _size -= entry.getSize();
+        }
+    }
+
+    /**
+     * Returns the value of the specified header field, ignoring the case of its name. Multiple values are joined with
+     * commas.
+     *
+     * @param headers
+     *            the header fields
+     * @param name
+     *            the name of the field
+     *
+     * @return the value, or null if the field is not present
+     */
+    private static String getHeader(Map<String, ?> headers, String name) {
+        String result = null;
+        for (Map.Entry<String, ?> header : headers.entrySet()) {
+            if (!name.equalsIgnoreCase(header.getKey())) {
+                continue;
+            }
+            List<?> values = header.getValue() instanceof List ? (List<?>) header.getValue()
+                    : List.of(header.getValue());
+            for (Object value : values) {
+                result = result == null ? value.toString() : result + ", " + value;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if the specified header value contains the specified directive.
+     *
+     * @param value
+     *            the header value, or null
+     * @param directive
+     *            the directive
+     *
+     * @return true, if the directive is present
+     */
+    private static boolean hasDirective(String value, String directive) {
+        if (value == null) {
+            return false;
+        }
+        for (String element : value.split(",")) {
+            String name = element.trim();
+            int equals = name.indexOf('=');
+            if ((equals < 0 ? name : name.substring(0, equals).trim()).equalsIgnoreCase(directive)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the value of the specified directive in a header value.
+     *
+     * @param value
+     *            the header value, or null
+     * @param directive
+     *            the directive
+     *
+     * @return the directive value, or null if the directive is not present with a value
+     */
+    private static String getDirectiveValue(String value, String directive) {
+        if (value == null) {
+            return null;
+        }
+        for (String element : value.split(",")) {
+            int equals = element.indexOf('=');
+            if (equals > 0 && element.substring(0, equals).trim().equalsIgnoreCase(directive)) {
+                return element.substring(equals + 1).trim().replace("\"", "");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses an HTTP date.
+     *
+     * @param value
+     *            the header value
+     *
+     * @return the time in milliseconds, or -1 if the value is not a valid date
+     */
+    private static long parseDate(String value) {
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    // ============================= class Entry ======================================
+
+    /**
+     * A cached response.
+     */
+    private static class Entry {
+
+        /** The reason phrase. */
+        private final String _message;
+
+        /** The header fields, without those which may not be replayed. */
+        private final Map<String, List<String>> _headers = new LinkedHashMap<>();
+
+        /** The content type. */
+        private final String _contentType;
+
+        /** The body. */
+        private final byte[] _contents;
+
+        /** The values of the request header fields named by the Vary header, keyed by lower-case name. */
+        private final Map<String, String> _varyValues = new HashMap<>();
+
+        /** The time at which the response becomes stale, in milliseconds. */
+        private long _expirationTime;
+
+        /**
+         * Instantiates a new entry.
+         *
+         * @param request
+         *            the request
+         * @param message
+         *            the reason phrase
+         * @param headers
+         *            the header fields
+         * @param contentType
+         *            the content type
+         * @param contents
+         *            the body
+         * @param responseTime
+         *            the time at which the response was received
+         */
+        Entry(HttpTransportRequest request, String message, Map<String, List<String>> headers, String contentType,
+                byte[] contents, long responseTime) {
+            _message = message;
+            _contentType = contentType;
+            _contents = contents;
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                if (isReplayable(header.getKey())) {
+                    _headers.put(header.getKey(), new ArrayList<>(header.getValue()));
+                }
+            }
+            _expirationTime = computeExpirationTime(responseTime);
+            String vary = getHeader(headers, "Vary");
+            if (vary != null) {
+                for (String name : vary.split(",")) {
+                    _varyValues.put(name.trim().toLowerCase(Locale.ENGLISH),
+                            getHeader(request.getHeaders(), name.trim()));
+                }
+            }
+        }
+
+        /**
+         * Merges the header fields of a response to a conditional request, and recomputes the expiration time. Any
+         * content length sent with the newer response does not describe this body, and is ignored.
+         *
+         * @param headers
+         *            the header fields received
+         * @param responseTime
+         *            the time at which they were received
+         */
+        synchronized void update(Map<String, List<String>> headers, long responseTime) {
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                if (isReplayable(header.getKey()) && !header.getKey().equalsIgnoreCase("Content-Length")) {
+                    _headers.keySet().removeIf(name -> name.equalsIgnoreCase(header.getKey()));
+                    _headers.put(header.getKey(), new ArrayList<>(header.getValue()));
+                }
+            }
+            _expirationTime = computeExpirationTime(responseTime);
+        }
+
+        /**
+         * Returns true if the specified header field may be kept with the response.
+         *
+         * @param name
+         *            the field name
+         *
+         * @return true, if replayable
+         */
+        private static boolean isReplayable(String name) {
+            if (name == null) {
+                return false;
+            }
+            for (String uncached : UNCACHED_HEADERS) {
+                if (uncached.equalsIgnoreCase(name)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Computes the time at which this response becomes stale.
+         *
+         * @param responseTime
+         *            the time at which the response was received
+         *
+         * @return the expiration time
+         */
+        private long computeExpirationTime(long responseTime) {
+            String cacheControl = getHeader(_headers, "Cache-Control");
+            if (hasDirective(cacheControl, "no-cache")) {
+                return 0;
+            }
+            String maxAge = getDirectiveValue(cacheControl, "max-age");
+            if (maxAge != null) {
+                try {
+                    return responseTime + 1000 * (Long.parseLong(maxAge) - getAge());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+            String expires = getHeader(_headers, "Expires");
+            if (expires == null) {
+                return 0;
+            }
+            long expiresTime = parseDate(expires);
+            if (expiresTime < 0) {
+                return 0;
+            }
+            String date = getHeader(_headers, "Date");
+            long dateTime = date == null ? -1 : parseDate(date);
+            return dateTime < 0 ? expiresTime : responseTime + expiresTime - dateTime;
+        }
+
+        /**
+         * Returns the age of the response reported by the server, in seconds.
+         *
+         * @return the age
+         */
+        private long getAge() {
+            String age = getHeader(_headers, "Age");
+            try {
+                return age == null ? 0 : Long.parseLong(age.trim());
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        /**
+         * Returns true if this response may be used without revalidation.
+         *
+         * @param now
+         *            the current time
+         *
+         * @return true, if fresh
+         */
+        synchronized boolean isFresh(long now) {
+            return now < _expirationTime;
+        }
+
+        /**
+         * Returns true if this response may be revalidated with a conditional request.
+         *
+         * @return true, if the response has an entity tag or a modification date
+         */
+        synchronized boolean hasValidators() {
+            return getHeader(_headers, "ETag") != null || getHeader(_headers, "Last-Modified") != null;
+        }
+
+        /**
+         * Returns true if this response was received for a request with the same values for the header fields named by
+         * the Vary header.
+         *
+         * @param request
+         *            the request
+         *
+         * @return true, if matching
+         */
+        boolean matches(HttpTransportRequest request) {
+            for (Map.Entry<String, String> vary : _varyValues.entrySet()) {
+                String value = getHeader(request.getHeaders(), vary.getKey());
+                if (value == null ? vary.getValue() != null : !value.equals(vary.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns a conditional request which asks the server whether this response is still current.
+         *
+         * @param request
+         *            the request
+         *
+         * @return the conditional request
+         */
+        synchronized HttpTransportRequest addConditions(HttpTransportRequest request) {
+            Map<String, String> headers = new LinkedHashMap<>(request.getHeaders());
+            String etag = getHeader(_headers, "ETag");
+            if (etag != null) {
+                headers.put("If-None-Match", etag);
+            }
+            String lastModified = getHeader(_headers, "Last-Modified");
+            if (lastModified != null) {
+                headers.put("If-Modified-Since", lastModified);
+            }
+            return request.withHeaders(headers);
+        }
+
+        /**
+         * Returns the size of this entry, as counted against the size of the cache.
+         *
+         * @return the size in bytes
+         */
+        long getSize() {
+            return _contents.length;
+        }
+
+        /**
+         * Returns a response which replays this entry.
+         *
+         * @return the response
+         */
+        synchronized HttpTransportResponse toResponse() {
+            return toResponse(Collections.emptyMap());
+        }
+
+        /**
+         * Returns a response which replays this entry, together with those header fields of a response to a
+         * conditional request which are never kept, such as cookies.
+         *
+         * @param received
+         *            the header fields received with the conditional response
+         *
+         * @return the response
+         */
+        synchronized HttpTransportResponse toResponse(Map<String, List<String>> received) {
+            Map<String, List<String>> headers = new LinkedHashMap<>(_headers);
+            for (Map.Entry<String, List<String>> header : received.entrySet()) {
+                if (header.getKey() != null && !isReplayable(header.getKey())) {
+                    headers.put(header.getKey(), new ArrayList<>(header.getValue()));
+                }
+            }
+            return new CachedResponse(HttpURLConnection.HTTP_OK, _message, headers, _contentType,
+                    new ByteArrayInputStream(_contents));
+        }
+    }
+
+    // ============================= class CachedResponse ======================================
+
+    /**
+     * A response whose body has already been read, in whole or in part.
+     */
+    private static class CachedResponse implements HttpTransportResponse {
+
+        /** The status code. */
+        private final int _code;
+
+        /** The reason phrase. */
+        private final String _message;
+
+        /** The header fields. */
+        private final Map<String, List<String>> _headers;
+
+        /** The content type. */
+        private final String _contentType;
+
+        /** The body. */
+        private final InputStream _body;
+
+        /**
+         * Instantiates a new cached response.
+         *
+         * @param code
+         *            the status code
+         * @param message
+         *            the reason phrase
+         * @param headers
+         *            the header fields
+         * @param contentType
+         *            the content type
+         * @param body
+         *            the body
+         */
+        CachedResponse(int code, String message, Map<String, List<String>> headers, String contentType,
+                InputStream body) {
+            _code = code;
+            _message = message;
+            _headers = headers;
+            _contentType = contentType;
+            _body = body;
+        }
+
+        @Override
+        public int getResponseCode() {
+            return _code;
+        }
+
+        @Override
+        public String getResponseMessage() {
+            return _message;
+        }
+
+        @Override
+        public Map<String, List<String>> getHeaderFields() {
+            return _headers;
+        }
+
+        @Override
+        public String getContentType() {
+            return _contentType;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return _body;
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * SPDX-License-Identifier: MIT
+ * See LICENSE file for details.
+ *
+ * Copyright 2000-2026 Russell Gold
+ * Copyright 2021-2026 hazendaz
+ */
+package com.meterware.httpunit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.xml.sax.SAXException;
+
+/**
+ * A form found by scanning a page, without building its document. Only the attributes and controls which appear in
+ * the page source are known; changes which scripts would make are not seen. The corresponding {@link WebForm}, which
+ * requires a full parse of the page, may be obtained with {@link #getForm}.
+ */
+public class ScannedForm {
+
+    /** The page in which the form was found. */
+    private final ScannedPage _page;
+
+    /** The attributes of the form. */
+    private final Map<String, String> _attributes;
+
+    /** The number of earlier forms in the page with the same action, name and ID. */
+    private final int _ordinal;
+
+    /** The names of the controls in the form, in order of first appearance. */
+    private final List<String> _parameterNames = new ArrayList<>();
+
+    /**
+     * Instantiates a new scanned form.
+     *
+     * @param page
+     *            the page in which the form was found
+     * @param attributes
+     *            the attributes of the form
+     * @param ordinal
+     *            the number of earlier forms in the page with the same action, name and ID
+     */
+    ScannedForm(ScannedPage page, Map<String, String> attributes, int ordinal) {
+        _page = page;
+        _attributes = attributes;
+        _ordinal = ordinal;
+    }
+
+    /**
+     * Returns the action defined for this form.
+     *
+     * @return the action
+     */
+    public String getAction() {
+        return getAttribute("action");
+    }
+
+    /**
+     * Returns the method defined for this form.
+     *
+     * @return the method
+     */
+    public String getMethod() {
+        String method = getAttribute("method");
+        return method.isEmpty() ? "GET" : method;
+    }
+
+    /**
+     * Returns the name of this form.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return getAttribute("name");
+    }
+
+    /**
+     * Returns the ID of this form.
+     *
+     * @return the id
+     */
+    public String getID() {
+        return getAttribute("id");
+    }
+
+    /**
+     * Returns the names of the controls in this form, in the order in which they first appear.
+     *
+     * @return the parameter names
+     */
+    public String[] getParameterNames() {
+        return _parameterNames.toArray(new String[_parameterNames.size()]);
+    }
+
+    /**
+     * Returns the value of the specified attribute, as it appears in the page source.
+     *
+     * @param name
+     *            the name of the attribute, in lower case
+     *
+     * @return the value, or the empty string if the attribute is not present
+     */
+    public String getAttribute(String name) {
+        String value = _attributes.get(name);
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Returns the form which this describes, parsing the page if it has not already been parsed.
+     *
+     * @return the form, or null if scripts have removed or changed it
+     *
+     * @throws SAXException
+     *             if the page cannot be parsed
+     */
+    public WebForm getForm() throws SAXException {
+        int remaining = _ordinal;
+        for (WebForm form : _page.getResponse().getForms()) {
+            if (form.getAction().equals(getAction()) && form.getName().equals(getName())
+                    && form.getID().equals(getID()) && remaining-- == 0) {
+                return form;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Records a control found in this form.
+     *
+     * @param name
+     *            the name of the control
+     */
+    void addParameterName(String name) {
+        if (!name.isEmpty() && !_parameterNames.contains(name)) {
+            _parameterNames.add(name);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ScannedForm[" + getMethod() + " " + getAction() + "]";
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * SPDX-License-Identifier: MIT
+ * See LICENSE file for details.
+ *
+ * Copyright 2000-2026 Russell Gold
+ * Copyright 2021-2026 hazendaz
+ */
+package com.meterware.httpunit;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Map;
+
+import org.xml.sax.SAXException;
+
+/**
+ * A link found by scanning a page, without building its document. Only the attributes and text which appear in the
+ * page source are known; changes which scripts would make are not seen. The corresponding {@link WebLink}, which
+ * requires a full parse of the page, may be obtained with {@link #getLink}.
+ */
+public class ScannedLink {
+
+    /** The page in which the link was found. */
+    private final ScannedPage _page;
+
+    /** The attributes of the link. */
+    private final Map<String, String> _attributes;
+
+    /** The number of earlier links in the page with the same destination and text. */
+    private final int _ordinal;
+
+    /** The text of the link. */
+    private final String _text;
+
+    /**
+     * Instantiates a new scanned link.
+     *
+     * @param page
+     *            the page in which the link was found
+     * @param attributes
+     *            the attributes of the link
+     * @param text
+     *            the text of the link
+     * @param ordinal
+     *            the number of earlier links in the page with the same destination and text
+     */
+    ScannedLink(ScannedPage page, Map<String, String> attributes, String text, int ordinal) {
+        _page = page;
+        _attributes = attributes;
+        _text = text;
+        _ordinal = ordinal;
+    }
+
+    /**
+     * Returns the destination of this link, as {@link WebLink#getURLString} would report it.
+     *
+     * @return the URL string
+     */
+    public String getURLString() {
+        String result = HttpUnitUtils.encodeSpaces(HttpUnitUtils.trimFragment(getAttribute("href")));
+        if (result.trim().isEmpty()) {
+            result = _page.getBaseURL().getFile();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the destination of this link, resolved against the base URL of the page.
+     *
+     * @return the URL
+     *
+     * @throws MalformedURLException
+     *             if the destination is not a valid URL
+     */
+    public URL getURL() throws MalformedURLException {
+        return new URL(_page.getBaseURL(), getURLString());
+    }
+
+    /**
+     * Returns the text of this link. For an area, this is its alt attribute.
+     *
+     * @return the text
+     */
+    public String getText() {
+        return _text;
+    }
+
+    /**
+     * Returns the name of this link.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return getAttribute("name");
+    }
+
+    /**
+     * Returns the ID of this link.
+     *
+     * @return the id
+     */
+    public String getID() {
+        return getAttribute("id");
+    }
+
+    /**
+     * Returns the target of this link, or the base target of the page if none is specified.
+     *
+     * @return the target
+     */
+    public String getTarget() {
+        String target = getAttribute("target");
+        return target.isEmpty() ? _page.getBaseTarget() : target;
+    }
+
+    /**
+     * Returns the value of the specified attribute, as it appears in the page source.
+     *
+     * @param name
+     *            the name of the attribute, in lower case
+     *
+     * @return the value, or the empty string if the attribute is not present
+     */
+    public String getAttribute(String name) {
+        String value = _attributes.get(name);
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Returns the link which this describes, parsing the page if it has not already been parsed.
+     *
+     * @return the link, or null if scripts have removed or changed it
+     *
+     * @throws SAXException
+     *             if the page cannot be parsed
+     */
+    public WebLink getLink() throws SAXException {
+        int remaining = _ordinal;
+        for (WebLink link : _page.getResponse().getLinks()) {
+            if (link.getAttribute("href").equals(getAttribute("href")) && link.getText().equals(_text)
+                    && remaining-- == 0) {
+                return link;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "ScannedLink[" + getAttribute("href") + ", " + _text + "]";
+    }
+
+}
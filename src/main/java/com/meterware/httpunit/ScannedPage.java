@@ -0,0 +1,287 @@
+/*
+ * SPDX-License-Identifier: MIT
+ * See LICENSE file for details.
+ *
+ * Copyright 2000-2026 Russell Gold
+ * Copyright 2021-2026 hazendaz
+ */
+package com.meterware.httpunit;
+
+import com.meterware.httpunit.parsing.HTMLParserFactory;
+import com.meterware.httpunit.parsing.HTMLScanListener;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.xml.sax.SAXException;
+
+/**
+ * The title, links and forms of a page, found by scanning its source rather than by building its document. Scanning
+ * is much cheaper than a full parse, but runs no scripts, so it sees the page only as it was sent. When scripting is
+ * enabled, the contents of noscript elements are ignored, as they would be by a full parse.
+ * <p>
+ * Obtain a scanned page with {@link WebResponse#getScannedPage}. The page is only parsed if one of the scanned links
+ * or forms is asked for its full counterpart, or if one of the document-based methods of the response is called.
+ */
+public class ScannedPage {
+
+    /** The non-breaking space character, which the scanner reports for &amp;nbsp;. */
+    private static final char NBSP = (char) 160;
+
+    /** The response which was scanned. */
+    private final WebResponse _response;
+
+    /** The base URL of the page. */
+    private final URL _baseURL;
+
+    /** The base target of the page. */
+    private final String _baseTarget;
+
+    /** The title of the page. */
+    private String _title = "";
+
+    /** The links found. */
+    private final List<ScannedLink> _links = new ArrayList<>();
+
+    /** The forms found. */
+    private final List<ScannedForm> _forms = new ArrayList<>();
+
+    /**
+     * Instantiates a new scanned page.
+     *
+     * @param response
+     *            the response which was scanned
+     * @param baseURL
+     *            the base URL of the page
+     * @param baseTarget
+     *            the base target of the page
+     */
+    ScannedPage(WebResponse response, URL baseURL, String baseTarget) {
+        _response = response;
+        _baseURL = baseURL;
+        _baseTarget = baseTarget;
+    }
+
+    /**
+     * Returns the title of the page.
+     *
+     * @return the title, or the empty string if there is none
+     */
+    public String getTitle() {
+        return _title;
+    }
+
+    /**
+     * Returns the links in the page, in the order in which they appear.
+     *
+     * @return the links
+     */
+    public ScannedLink[] getLinks() {
+        return _links.toArray(new ScannedLink[_links.size()]);
+    }
+
+    /**
+     * Returns the forms in the page, in the order in which they appear.
+     *
+     * @return the forms
+     */
+    public ScannedForm[] getForms() {
+        return _forms.toArray(new ScannedForm[_forms.size()]);
+    }
+
+    /**
+     * Returns the response which was scanned.
+     *
+     * @return the response
+     */
+    public WebResponse getResponse() {
+        return _response;
+    }
+
+    /**
+     * Returns the base URL of the page.
+     *
+     * @return the base URL
+     */
+    URL getBaseURL() {
+        return _baseURL;
+    }
+
+    /**
+     * Returns the base target of the page.
+     *
+     * @return the base target
+     */
+    String getBaseTarget() {
+        return _baseTarget;
+    }
+
+    /**
+     * Scans the specified page text, recording its title, links and forms.
+     *
+     * @param pageText
+     *            the page text
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @throws SAXException
+     *             if the page cannot be scanned
+     */
+    void scan(String pageText) throws IOException, SAXException {
+        HTMLParserFactory.scan(_response.getURL(), pageText, new Scanner());
+    }
+
+    // ============================= class Scanner ======================================
+
+    /**
+     * Records the elements of interest as they are scanned.
+     */
+    private class Scanner implements HTMLScanListener {
+
+        /** The number of links and forms seen so far with each combination of identifying values. */
+        private final Map<List<String>, Integer> _counts = new HashMap<>();
+
+        /** The depth of the noscript elements being skipped. */
+        private int _concealedDepth;
+
+        /** True while within the first title element. */
+        private boolean _inTitle;
+
+        /** True once a title has been seen. */
+        private boolean _titleSeen;
+
+        /** The text collected for the current title. */
+        private StringBuilder _titleText;
+
+        /** The attributes of the current link, if any. */
+        private Map<String, String> _linkAttributes;
+
+        /** The text collected for the current link. */
+        private StringBuilder _linkText;
+
+        /** The current form, if any. */
+        private ScannedForm _form;
+
+        @Override
+        public void startElement(String name, Map<String, String> attributes) {
+            if (_concealedDepth > 0 || name.equals("noscript") && HttpUnitOptions.isScriptingEnabled()) {
+                _concealedDepth++;
+                return;
+            }
+            if (name.equals("title") && !_titleSeen) {
+                _inTitle = true;
+                _titleText = new StringBuilder();
+            } else if ((name.equals("a") || name.equals("area")) && attributes.containsKey("href")) {
+                if (name.equals("area")) {
+                    addLink(attributes, attributes.getOrDefault("alt", ""));
+                } else {
+                    _linkAttributes = attributes;
+                    _linkText = new StringBuilder();
+                }
+            } else if (name.equals("form")) {
+                _form = new ScannedForm(ScannedPage.this, attributes,
+                        nextOrdinal(Arrays.asList("form", attributes.getOrDefault("action", ""),
+                                attributes.getOrDefault("name", ""), attributes.getOrDefault("id", ""))));
+                _forms.add(_form);
+            } else if (_linkText != null) {
+                appendMarkup(name, attributes);
+            }
+            if (_form != null && isControl(name) && attributes.containsKey("name")) {
+                _form.addParameterName(attributes.get("name"));
+            }
+        }
+
+        @Override
+        public void endElement(String name) {
+            if (_concealedDepth > 0) {
+                _concealedDepth--;
+            } else if (name.equals("title") && _inTitle) {
+                _title = _titleText.toString();
+                _inTitle = false;
+                _titleSeen = true;
+            } else if (name.equals("a") && _linkText != null) {
+                addLink(_linkAttributes, _linkText.toString().replace(NBSP, ' ').trim());
+                _linkAttributes = null;
+                _linkText = null;
+            } else if (name.equals("form")) {
+                _form = null;
+            }
+        }
+
+        @Override
+        public void characters(String text) {
+            if (_concealedDepth > 0) {
+                return;
+            }
+            if (_inTitle) {
+                _titleText.append(text);
+            }
+            if (_linkText != null) {
+                _linkText.append(text);
+            }
+        }
+
+        /**
+         * Appends the text which {@link WebLink#getText} reports for an element nested within a link.
+         *
+         * @param name
+         *            the name of the element
+         * @param attributes
+         *            the attributes of the element
+         */
+        private void appendMarkup(String name, Map<String, String> attributes) {
+            if (name.equals("p") || name.equals("br") || name.equals("tr")) {
+                _linkText.append("\n");
+            } else if (name.equals("td") || name.equals("th")) {
+                _linkText.append(" | ");
+            } else if (name.equals("img") && HttpUnitOptions.getImagesTreatedAsAltText()) {
+                _linkText.append(attributes.getOrDefault("alt", ""));
+            }
+        }
+
+        /**
+         * Records a link.
+         *
+         * @param attributes
+         *            the attributes of the link
+         * @param text
+         *            the text of the link
+         */
+        private void addLink(Map<String, String> attributes, String text) {
+            _links.add(new ScannedLink(ScannedPage.this, attributes, text,
+                    nextOrdinal(Arrays.asList("link", attributes.get("href"), text))));
+        }
+
+        /**
+         * Returns the number of earlier links or forms with the specified identifying values, and counts this one.
+         *
+         * @param key
+         *            the identifying values
+         *
+         * @return the number of earlier occurrences
+         */
+        private int nextOrdinal(List<String> key) {
+            int ordinal = _counts.getOrDefault(key, 0);
+            _counts.put(key, ordinal + 1);
+            return ordinal;
+        }
+
+        /**
+         * Returns true if the named element is a form control.
+         *
+         * @param name
+         *            the name of the element
+         *
+         * @return true, if the element is a form control
+         */
+        private boolean isControl(String name) {
+            return name.equals("input") || name.equals("select") || name.equals("textarea") || name.equals("button");
+        }
+    }
+
+}
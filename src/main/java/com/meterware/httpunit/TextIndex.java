@@ -0,0 +1,218 @@
+/*
+ * SPDX-License-Identifier: MIT
+ * See LICENSE file for details.
+ *
+ * Copyright 2000-2026 Russell Gold
+ * Copyright 2021-2026 hazendaz
+ */
+package com.meterware.httpunit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index of elements by a text value, such as the text of a link or the alt text of an image. Lookups follow the
+ * rules of {@link HttpUnitUtils#matches}, {@link HttpUnitUtils#contains} and {@link HttpUnitUtils#hasPrefix},
+ * including the current setting of {@link HttpUnitOptions#getMatchesIgnoreCase}, and return elements in the order in
+ * which they were added. An element may be added with several values, in which case its entries must be added
+ * together.
+ *
+ * @param <T>
+ *            the type of element indexed
+ */
+class TextIndex<T> {
+
+    /** The indexed elements, one per entry. */
+    private final List<T> _elements = new ArrayList<>();
+
+    /** The value of each entry. */
+    private final List<String> _values = new ArrayList<>();
+
+    /** The values in upper case, built when first needed. */
+    private String[] _upperCaseValues;
+
+    /** The first element with each value, built when first needed. */
+    private Map<String, T> _exactValues;
+
+    /** The first element with each value, ignoring case, built when first needed. */
+    private Map<String, T> _foldedValues;
+
+    /**
+     * Adds an entry to the index. Null values are never matched.
+     *
+     * @param element
+     *            the element
+     * @param value
+     *            the value of the element
+     */
+    void add(T element, String value) {
+        _elements.add(element);
+        _values.add(value);
+    }
+
+    /**
+     * Returns the first element whose value matches the criteria.
+     *
+     * @param criteria
+     *            the criteria
+     *
+     * @return the matching element, or null if there is none
+     */
+    T getFirstMatching(String criteria) {
+        if (HttpUnitOptions.getMatchesIgnoreCase()) {
+            if (_foldedValues == null) {
+                _foldedValues = new HashMap<>();
+                for (int i = 0; i < _values.size(); i++) {
+                    if (_values.get(i) != null) {
+                        _foldedValues.putIfAbsent(foldCase(_values.get(i)), _elements.get(i));
+                    }
+                }
+            }
+            return _foldedValues.get(foldCase(criteria));
+        }
+        if (_exactValues == null) {
+            _exactValues = new HashMap<>();
+            for (int i = 0; i < _values.size(); i++) {
+                if (_values.get(i) != null) {
+                    _exactValues.putIfAbsent(_values.get(i), _elements.get(i));
+                }
+            }
+        }
+        return _exactValues.get(criteria);
+    }
+
+    /**
+     * Returns all elements whose values match the criteria.
+     *
+     * @param criteria
+     *            the criteria
+     *
+     * @return the matching elements
+     */
+    List<T> getAllMatching(String criteria) {
+        List<T> result = new ArrayList<>();
+        for (int i = 0; i < _values.size(); i++) {
+            if (_values.get(i) != null && HttpUnitUtils.matches(_values.get(i), criteria)) {
+                addOnce(result, _elements.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the first element whose value contains the criteria.
+     *
+     * @param criteria
+     *            the criteria
+     *
+     * @return the matching element, or null if there is none
+     */
+    T getFirstContaining(String criteria) {
+        int i = nextMatch(0, criteria, false);
+        return i < 0 ? null : _elements.get(i);
+    }
+
+    /**
+     * Returns all elements whose values contain the criteria.
+     *
+     * @param criteria
+     *            the criteria
+     *
+     * @return the matching elements
+     */
+    List<T> getAllContaining(String criteria) {
+        List<T> result = new ArrayList<>();
+        for (int i = nextMatch(0, criteria, false); i >= 0; i = nextMatch(i + 1, criteria, false)) {
+            addOnce(result, _elements.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the first element whose value starts with the criteria.
+     *
+     * @param criteria
+     *            the criteria
+     *
+     * @return the matching element, or null if there is none
+     */
+    T getFirstWithPrefix(String criteria) {
+        int i = nextMatch(0, criteria, true);
+        return i < 0 ? null : _elements.get(i);
+    }
+
+    /**
+     * Returns the position of the next entry whose value contains, or starts with, the criteria.
+     *
+     * @param start
+     *            the position at which to start looking
+     * @param criteria
+     *            the criteria
+     * @param prefix
+     *            true if the value must start with the criteria
+     *
+     * @return the position of the entry, or -1 if there is none
+     */
+    private int nextMatch(int start, String criteria, boolean prefix) {
+        List<String> values = _values;
+        if (HttpUnitOptions.getMatchesIgnoreCase()) {
+            values = Arrays.asList(getUpperCaseValues());
+            criteria = criteria.toUpperCase();
+        }
+        for (int i = start; i < values.size(); i++) {
+            String value = values.get(i);
+            if (value != null && (prefix ? value.startsWith(criteria) : value.contains(criteria))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the values in upper case, as compared by {@link HttpUnitUtils#contains} when ignoring case.
+     *
+     * @return the upper case values
+     */
+    private String[] getUpperCaseValues() {
+        if (_upperCaseValues == null) {
+            _upperCaseValues = new String[_values.size()];
+            for (int i = 0; i < _upperCaseValues.length; i++) {
+                _upperCaseValues[i] = _values.get(i) == null ? null : _values.get(i).toUpperCase();
+            }
+        }
+        return _upperCaseValues;
+    }
+
+    /**
+     * Adds an element to a list of matches unless it was just added for an earlier entry.
+     *
+     * @param matches
+     *            the matches found so far
+     * @param element
+     *            the matching element
+     */
+    private void addOnce(List<T> matches, T element) {
+        if (matches.isEmpty() || matches.get(matches.size() - 1) != element) {
+            matches.add(element);
+        }
+    }
+
+    /**
+     * Returns a form of the string which is the same for all strings which are equal when ignoring case, using the same
+     * character comparison as {@link String#equalsIgnoreCase}.
+     *
+     * @param string
+     *            the string
+     *
+     * @return the folded string
+     */
+    static String foldCase(String string) {
+        StringBuilder sb = new StringBuilder(string.length());
+        string.codePoints().forEach(c -> sb.appendCodePoint(Character.toLowerCase(Character.toUpperCase(c))));
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * SPDX-License-Identifier: MIT
+ * See LICENSE file for details.
+ *
+ * Copyright 2000-2026 Russell Gold
+ * Copyright 2021-2026 hazendaz
+ */
+package com.meterware.httpunit;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpRetryException;
+import java.net.HttpURLConnection;
+import java.net.URLConnection;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A transport which opens a new {@link URLConnection} for each request. This is the default transport for a
+ * {@link WebConversation}, and handles any protocol for which the JDK has a URL handler.
+ */
+public class URLConnectionTransport implements HttpTransport {
+
+    @Override
+    public HttpTransportResponse send(HttpTransportRequest request) throws IOException {
+        URLConnection connection = openConnection(request);
+        request.completeRequest(connection);
+        return new ConnectionResponse(connection);
+    }
+
+    /**
+     * open a connection for the given request and send its headers.
+     *
+     * @param request
+     *            the request
+     *
+     * @return the URL connection
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private URLConnection openConnection(HttpTransportRequest request) throws IOException {
+        URLConnection connection = request.getProxy() == null ? request.getURL().openConnection()
+                : request.getURL().openConnection(request.getProxy());
+        if (connection instanceof HttpURLConnection) {
+            ((HttpURLConnection) connection).setInstanceFollowRedirects(false);
+        }
+        connection.setUseCaches(false);
+        // [ 1518901 ] enable http connect and read timeouts
+        if (request.getConnectTimeout() >= 0) {
+            connection.setConnectTimeout(request.getConnectTimeout());
+        }
+        if (request.getReadTimeout() >= 0) {
+            connection.setReadTimeout(request.getReadTimeout());
+        }
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            connection.setRequestProperty(header.getKey(), header.getValue());
+        }
+        return connection;
+    }
+
+    // ============================= class ConnectionResponse ======================================
+
+    /**
+     * A transport response read from a URL connection.
+     */
+    static class ConnectionResponse implements HttpTransportResponse {
+
+        /** The Constant FILE_ENCODING. */
+        private static final String FILE_ENCODING = Charset.defaultCharset().displayName();
+
+        /** The connection. */
+        private final URLConnection _connection;
+
+        /**
+         * Instantiates a new connection response.
+         *
+         * @param connection
+         *            the connection from which the response is read
+         */
+        ConnectionResponse(URLConnection connection) {
+            _connection = connection;
+        }
+
+        @Override
+        public int getResponseCode() throws IOException {
+            if (_connection instanceof HttpURLConnection) {
+                return ((HttpURLConnection) _connection).getResponseCode();
+            }
+            return HttpURLConnection.HTTP_OK;
+        }
+
+        @Override
+        public String getResponseMessage() throws IOException {
+            if (_connection instanceof HttpURLConnection) {
+                return ((HttpURLConnection) _connection).getResponseMessage();
+            }
+            return "OK";
+        }
+
+        @Override
+        public Map<String, List<String>> getHeaderFields() {
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (int i = 1; true; i++) {
+                String headerFieldKey = _connection.getHeaderFieldKey(i);
+                String headerField = _connection.getHeaderField(i);
+                if (headerFieldKey == null || headerField == null) {
+                    break;
+                }
+                headers.computeIfAbsent(headerFieldKey, k -> new ArrayList<>()).add(headerField);
+            }
+            return headers;
+        }
+
+        @Override
+        public String getContentType() {
+            String contentType = _connection.getContentType();
+            if (!(_connection instanceof HttpURLConnection) && contentType != null && contentType.startsWith("text")) {
+                return contentType + "; charset=" + FILE_ENCODING;
+            }
+            return contentType;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            // check whether there is an error stream
+            if (isErrorResponse() && ((HttpURLConnection) _connection).getErrorStream() != null) {
+                return ((HttpURLConnection) _connection).getErrorStream();
+            }
+            // if there is no error stream it depends on the response code
+            try {
+                return _connection.getInputStream();
+            } catch (FileNotFoundException fnfe) {
+                // as of JDK 1.5 a null inputstream might have been returned here
+                // see bug report [ 1283878 ] FileNotFoundException using Sun JDK 1.5 on empty error pages
+                // by Roger Lindsj?
+                if (!isErrorResponse()) {
+                    throw fnfe;
+                }
+                // fake an empty error stream
+                return new ByteArrayInputStream(new byte[0]);
+            } catch (HttpRetryException e) {
+                // a streamed request cannot be retried, so the JDK reports an authentication challenge this way;
+                // the status and headers have already been read, so answer them with an empty body
+                return new ByteArrayInputStream(new byte[0]);
+            }
+        }
+
+        /**
+         * check whether a response code >=400 was received.
+         *
+         * @return true, if is error response
+         *
+         * @throws IOException
+         *             Signals that an I/O exception has occurred.
+         */
+        private boolean isErrorResponse() throws IOException {
+            return getResponseCode() >= HttpURLConnection.HTTP_BAD_REQUEST;
+        }
+    }
+
+}
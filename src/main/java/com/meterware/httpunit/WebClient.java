@@ -23,6 +23,10 @@ import java.util.Enumeration;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.xml.sax.SAXException;
 
@@ -602,7 +606,7 @@ public abstract class WebClient {
      *
      * @return the header fields
      */
-    protected Dictionary getHeaderFields(URL targetURL) {
+    protected synchronized Dictionary getHeaderFields(URL targetURL) {
         HeaderDictionary result = new HeaderDictionary();
         result.addEntries(_headers);
         result.put("User-Agent", getClientProperties().getUserAgent());
@@ -720,6 +724,39 @@ public abstract class WebClient {
         return _cookieJar;
     }
 
+    /**
+     * Replaces the cookies of this client with an empty set which inherits those in the specified jar. Cookies
+     * received by this client, or defined through it, are kept separately and do not change the shared jar, so a
+     * single jar may be shared by many clients.
+     *
+     * @param sharedCookies
+     *            the jar whose cookies are to be inherited
+     */
+    public void shareCookies(CookieJar sharedCookies) {
+        _cookieJar = new CookieJar(sharedCookies);
+    }
+
+    /**
+     * Returns a copy of the cookies held by this client, which may later be passed to {@link #restoreCookies}, either
+     * for this client or for another one. Cookies which this client inherits through {@link #shareCookies} are shared
+     * by the copy rather than copied.
+     *
+     * @return the copy of the cookies
+     */
+    public CookieJar snapshotCookies() {
+        return _cookieJar.snapshot();
+    }
+
+    /**
+     * Replaces the cookies of this client with a copy of those in the specified snapshot.
+     *
+     * @param snapshot
+     *            a jar returned by {@link #snapshotCookies}
+     */
+    public void restoreCookies(CookieJar snapshot) {
+        _cookieJar.restore(snapshot);
+    }
+
     /**
      * Update frame contents.
      *
@@ -878,6 +915,9 @@ public abstract class WebClient {
     /** The client properties. */
     private ClientProperties _clientProperties;
 
+    /** The executor which requests frames concurrently, created when first needed. */
+    private ThreadPoolExecutor _frameLoader;
+
     /**
      * Examines the headers in the response and throws an exception if appropriate.
      *
@@ -951,14 +991,42 @@ public abstract class WebClient {
         if (!challenge.needToAuthenticate()) {
             return response;
         }
-        setOnetimeAuthenticationHeader(challenge.createAuthenticationHeader());
-        WebResponse response2 = newResponse(request, targetFrame);
+        WebResponse response2;
+        synchronized (this) {
+            // frames may be requested concurrently; keep the one-time header for this request
+            setOnetimeAuthenticationHeader(challenge.createAuthenticationHeader());
+            response2 = newResponse(request, targetFrame);
+        }
         if (response2.getHeaderField("WWW-Authenticate") != null && getExceptionsThrownOnErrorStatus()) {
             throw AuthenticationChallenge.createException(response2.getHeaderField("WWW-Authenticate"));
         }
         return response2;
     }
 
+    /**
+     * Returns the executor with which the frames of a page are requested concurrently. It is kept for the life of this
+     * client, and replaced only when the maximum number of concurrent frame requests changes. Its threads are daemons,
+     * and exit after a minute without work.
+     *
+     * @return the frame loader
+     */
+    synchronized ExecutorService getFrameLoader() {
+        int threads = getClientProperties().getMaxConcurrentFrameRequests();
+        if (_frameLoader == null || _frameLoader.getCorePoolSize() != threads) {
+            if (_frameLoader != null) {
+                _frameLoader.shutdown();
+            }
+            _frameLoader = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "HttpUnit frame loader");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            _frameLoader.allowCoreThreadTimeOut(true);
+        }
+        return _frameLoader;
+    }
+
     /**
      * Sets the onetime authentication header.
      *
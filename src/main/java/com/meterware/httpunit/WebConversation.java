@@ -8,13 +8,17 @@
 package com.meterware.httpunit;
 
 import java.io.IOException;
-import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.URISyntaxException;
 import java.net.URL;
-import java.net.URLConnection;
 import java.util.Dictionary;
 import java.util.Enumeration;
-import java.util.Properties;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * The context for a series of HTTP requests. This class manages cookies used to maintain session context, computes
@@ -22,11 +26,11 @@ import java.util.Properties;
  **/
 public class WebConversation extends WebClient {
 
-    /** The proxy host. */
-    private String _proxyHost;
+    /** The proxy server used by this conversation; null if none was specified. */
+    private Proxy _proxy;
 
-    /** The proxy port. */
-    private int _proxyPort;
+    /** The proxy selector used by this conversation; null to use the JVM-wide settings. */
+    private ProxySelector _proxySelector;
 
     /** The connect timeout. */
     private int _connectTimeout = -1;
@@ -34,6 +38,12 @@ public class WebConversation extends WebClient {
     /** The read timeout. */
     private int _readTimeout = -1;
 
+    /** The transport used to send requests. */
+    private HttpTransport _transport = new URLConnectionTransport();
+
+    /** The cache of responses, or null if responses are not cached. */
+    private ResponseCache _responseCache;
+
     /**
      * Creates a new web conversation.
      **/
@@ -48,42 +58,80 @@ public class WebConversation extends WebClient {
     @Override
     protected WebResponse newResponse(WebRequest request, FrameSelector targetFrame)
             throws MalformedURLException, IOException {
-        Properties savedProperties = (Properties) System.getProperties().clone();
-        try {
-            if (_proxyHost != null) {
-                System.setProperty("proxyHost", _proxyHost);
-                System.setProperty("proxyPort", Integer.toString(_proxyPort));
-            }
-            URLConnection connection = openConnection(getRequestURL(request));
-            // [ 1518901 ] enable http connect and read timeouts (needs JDK 1.5)
-            // comment the next two line if you do not need this and have JDK <1.5
-            if (_connectTimeout >= 0) {
-                connection.setConnectTimeout(_connectTimeout);
-            }
-            if (_readTimeout >= 0) {
-                connection.setReadTimeout(_readTimeout);
-            }
-            if (HttpUnitOptions.isLoggingHttpHeaders()) {
-                String urlString = request.getURLString();
-                System.out.println("\nConnecting to " + request.getURL().getHost());
-                System.out.println("Sending:: " + request.getMethod() + " " + urlString);
-            }
-            sendHeaders(connection, getHeaderFields(request.getURL()));
-            sendHeaders(connection, request.getHeaderDictionary());
-            request.completeRequest(connection);
-            return new HttpWebResponse(this, targetFrame, request, connection, getExceptionsThrownOnErrorStatus());
-        } finally {
-            System.setProperties(savedProperties);
+        URL url = getRequestURL(request);
+        if (HttpUnitOptions.isLoggingHttpHeaders()) {
+            String urlString = request.getURLString();
+            System.out.println("\nConnecting to " + request.getURL().getHost());
+            System.out.println("Sending:: " + request.getMethod() + " " + urlString);
+        }
+        Map<String, String> headers = new LinkedHashMap<>();
+        addHeaders(headers, getHeaderFields(request.getURL()));
+        if (getClientProperties().getDnsListener() != null) {
+            String portPortion = request.getURL().getPort() == -1 ? "" : ":" + request.getURL().getPort();
+            headers.keySet().removeIf("Host"::equalsIgnoreCase);
+            headers.put("Host", request.getURL().getHost() + portPortion);
         }
+        addHeaders(headers, request.getHeaderDictionary());
+        HttpTransportRequest transportRequest = new HttpTransportRequest(request, url, headers, getProxy(url),
+                _connectTimeout, _readTimeout);
+        HttpTransportResponse response = _responseCache == null ? _transport.send(transportRequest)
+                : _responseCache.send(_transport, transportRequest);
+        return new HttpWebResponse(this, targetFrame, request, response, getExceptionsThrownOnErrorStatus());
+    }
+
+    /**
+     * Returns the transport used to send requests.
+     *
+     * @return the transport
+     */
+    public HttpTransport getTransport() {
+        return _transport;
+    }
+
+    /**
+     * Specifies the transport used to send requests. The default is a {@link URLConnectionTransport}; use an
+     * {@link HttpClientTransport} to keep connections alive between requests. A transport may be shared by several
+     * conversations.
+     *
+     * @param transport
+     *            the transport
+     */
+    public void setTransport(HttpTransport transport) {
+        if (transport == null) {
+            throw new IllegalArgumentException("transport may not be null");
+        }
+        _transport = transport;
+    }
+
+    /**
+     * Returns the cache from which responses are taken, if any.
+     *
+     * @return the response cache, or null if responses are not cached
+     */
+    public ResponseCache getResponseCache() {
+        return _responseCache;
+    }
+
+    /**
+     * Specifies a cache in which to keep responses to GET requests, so that pages, included scripts and frames which
+     * the server allows to be cached need not be downloaded again. A cache may be shared by several conversations.
+     * Responses are not cached by default.
+     *
+     * @param responseCache
+     *            the response cache, or null to cache nothing
+     */
+    public void setResponseCache(ResponseCache responseCache) {
+        _responseCache = responseCache;
     }
 
     @Override
     public void clearProxyServer() {
-        _proxyHost = null;
+        _proxy = null;
     }
 
     /**
-     * set the proxy server to the given proxyHost with the given proxy Port
+     * set the proxy server to the given proxyHost with the given proxy Port. The setting applies only to this
+     * conversation.
      *
      * @param proxyHost
      *            - the hostname of the proxy e.g. proxy.somedomain.org
@@ -92,8 +140,34 @@ public class WebConversation extends WebClient {
      */
     @Override
     public void setProxyServer(String proxyHost, int proxyPort) {
-        _proxyHost = proxyHost;
-        _proxyPort = proxyPort;
+        _proxy = new Proxy(Proxy.Type.HTTP, InetSocketAddress.createUnresolved(proxyHost, proxyPort));
+    }
+
+    /**
+     * Specifies a selector which chooses the proxy for each request sent by this conversation. A proxy server defined
+     * with {@link #setProxyServer(String, int)} takes precedence. If neither is set, the JVM-wide proxy settings apply.
+     *
+     * @param proxySelector
+     *            the proxy selector, or null to use the JVM-wide proxy settings
+     */
+    public void setProxySelector(ProxySelector proxySelector) {
+        _proxySelector = proxySelector;
+    }
+
+    @Override
+    public String getProxyHost() {
+        if (_proxy == null) {
+            return super.getProxyHost();
+        }
+        return ((InetSocketAddress) _proxy.address()).getHostString();
+    }
+
+    @Override
+    public int getProxyPort() {
+        if (_proxy == null) {
+            return super.getProxyPort();
+        }
+        return ((InetSocketAddress) _proxy.address()).getPort();
     }
 
     /**
@@ -135,7 +209,8 @@ public class WebConversation extends WebClient {
     }
 
     /**
-     * get the Uniform Resource Locator for this request.
+     * get the Uniform Resource Locator for this request. If a DNS listener is set, the host is replaced by the address
+     * it supplies, and the original host must be sent with the request in the Host header.
      *
      * @param request
      *            the request
@@ -152,8 +227,6 @@ public class WebConversation extends WebClient {
         }
 
         String hostName = request.getURL().getHost();
-        String portPortion = request.getURL().getPort() == -1 ? "" : ":" + request.getURL().getPort();
-        setHeaderField("Host", hostName + portPortion);
         String actualHost = dnsListener.getIpAddress(hostName);
         if (HttpUnitOptions.isLoggingHttpHeaders()) {
             System.out.println("Rerouting request to :: " + actualHost);
@@ -165,50 +238,48 @@ public class WebConversation extends WebClient {
     // ---------------------------------- private members --------------------------------
 
     /**
-     * open a connection for the given uniform resource locator.
+     * Returns the proxy through which a request to the given URL should be sent.
      *
      * @param url
-     *            - the url to use
+     *            the url
      *
-     * @return the URL connection
+     * @return the proxy, or null if the JVM-wide proxy settings apply
      *
      * @throws MalformedURLException
      *             the malformed URL exception
-     * @throws IOException
-     *             Signals that an I/O exception has occurred.
      */
-    private URLConnection openConnection(URL url) throws MalformedURLException, IOException {
-        URLConnection connection = url.openConnection();
-        if (connection instanceof HttpURLConnection) {
-            ((HttpURLConnection) connection).setInstanceFollowRedirects(false);
+    private Proxy getProxy(URL url) throws MalformedURLException {
+        if (_proxy != null || _proxySelector == null) {
+            return _proxy;
+        }
+        try {
+            List<Proxy> proxies = _proxySelector.select(url.toURI());
+            return proxies == null || proxies.isEmpty() ? Proxy.NO_PROXY : proxies.get(0);
+        } catch (URISyntaxException e) {
+            throw new MalformedURLException(e.getMessage());
         }
-        connection.setUseCaches(false);
-        return connection;
     }
 
     /**
-     * send the headers for the given connection based on the given Dictionary of headers.
+     * add the headers from the given Dictionary to those to be sent, honoring the client's referer setting.
      *
-     * @param connection
-     *            the connection
+     * @param result
+     *            the headers to be sent
      * @param headers
      *            the headers
      */
-    private void sendHeaders(URLConnection connection, Dictionary headers) {
+    private void addHeaders(Map<String, String> result, Dictionary headers) {
         boolean sendReferer = getClientProperties().isSendReferer();
         for (Enumeration e = headers.keys(); e.hasMoreElements();) {
             String key = (String) e.nextElement();
             if (sendReferer || !"referer".equalsIgnoreCase(key)) {
-                connection.setRequestProperty(key, (String) headers.get(key));
+                result.keySet().removeIf(key::equalsIgnoreCase);
+                result.put(key, (String) headers.get(key));
                 if (HttpUnitOptions.isLoggingHttpHeaders()) {
-                    if (key.equalsIgnoreCase("authorization") || key.equalsIgnoreCase("proxy-authorization")) {
-                        System.out.println("Sending:: " + key + ": " + headers.get(key));
-                    } else {
-                        System.out.println("Sending:: " + key + ": " + connection.getRequestProperty(key));
-                    }
+                    System.out.println("Sending:: " + key + ": " + headers.get(key));
                 }
             } else if (HttpUnitOptions.isLoggingHttpHeaders()) {
-                System.out.println("Blocked sending referer:: " + connection.getRequestProperty(key));
+                System.out.println("Blocked sending referer:: " + headers.get(key));
             }
         } // for
     }
@@ -19,7 +19,6 @@ import com.meterware.httpunit.scripting.ScriptableDelegate;
 import com.meterware.httpunit.scripting.ScriptingHandler;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -32,10 +31,13 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.charset.UnsupportedCharsetException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.zip.GZIPInputStream;
 
+import javax.xml.xpath.XPathExpressionException;
+
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.xml.sax.InputSource;
@@ -66,11 +68,11 @@ public abstract class WebResponse implements HTMLSegment, CookieSource, DomWindo
     /** The Constant UNINITIALIZED_INT. */
     private static final int UNINITIALIZED_INT = -2;
 
-    /** The Constant UNKNOWN_LENGTH_TIMEOUT. */
-    private static final int UNKNOWN_LENGTH_TIMEOUT = 500;
+    /** The size of the buffer used to read a body of unknown length. */
+    private static final int UNKNOWN_LENGTH_BUFFER_SIZE = 8 * 1024;
 
-    /** The Constant UNKNOWN_LENGTH_RETRY_INTERVAL. */
-    private static final int UNKNOWN_LENGTH_RETRY_INTERVAL = 10;
+    /** The largest buffer allocated up front for a body of known length. */
+    private static final int MAX_PREALLOCATED_BUFFER_SIZE = 1024 * 1024;
 
     /** The frame. */
     private FrameSelector _frame;
@@ -164,6 +166,30 @@ public abstract class WebResponse implements HTMLSegment, CookieSource, DomWindo
         return getReceivedPage().getTitle();
     }
 
+    /**
+     * Returns the title, links and forms of this page, found by scanning its text without building a document or
+     * running scripts. This is much cheaper than the methods which parse the page, and is suited to crawling many pages
+     * fetched with {@link WebClient#getResource}, which does not parse them either.
+     *
+     * @return the scanned page
+     *
+     * @throws IOException
+     *             if the response body cannot be read
+     * @throws SAXException
+     *             thrown if there is an error scanning this response
+     */
+    public ScannedPage getScannedPage() throws IOException, SAXException {
+        if (_scannedPage == null) {
+            if (HttpUnitOptions.isCheckHtmlContentType() && !isHTML()) {
+                throw new NotHTMLException(getContentType());
+            }
+            ScannedPage page = new ScannedPage(this, _baseURL != null ? _baseURL : _pageURL, _baseTarget);
+            page.scan(getText());
+            _scannedPage = page;
+        }
+        return _scannedPage;
+    }
+
     /**
      * Returns the stylesheet linked in the head of the page. &lt;code&gt; &lt;link type="text/css" rel="stylesheet"
      * href="/mystyle.css" /&gt; &lt;/code&gt; will return "/mystyle.css".
@@ -297,6 +323,11 @@ public abstract class WebResponse implements HTMLSegment, CookieSource, DomWindo
     public String getCharacterSet() {
         if (_characterSet == null) {
             readContentTypeHeader();
+            if (_characterSet == null && _bodyPending) {
+                // a meta tag in the body may define the character set
+                readPendingBody();
+                readContentTypeHeader();
+            }
             if (_characterSet == null) {
                 setCharacterSet(getHeaderField("Charset"));
             }
@@ -355,8 +386,8 @@ public abstract class WebResponse implements HTMLSegment, CookieSource, DomWindo
      *             Signals that an I/O exception has occurred.
      */
     public byte[] getBytes() throws IOException {
-        if (_responseText == null) {
-            loadResponseText();
+        if (_responseText == null && _bytes == null) {
+            readResponseBody();
         }
         return _bytes;
     }
@@ -372,7 +403,10 @@ public abstract class WebResponse implements HTMLSegment, CookieSource, DomWindo
      */
     public String getText() throws IOException {
         if (_responseText == null) {
-            loadResponseText();
+            if (_bytes == null) {
+                readResponseBody();
+            }
+            _responseText = new String(_bytes, Charset.forName(getCharacterSet()));
         }
         return _responseText;
     }
@@ -386,6 +420,9 @@ public abstract class WebResponse implements HTMLSegment, CookieSource, DomWindo
      *             Signals that an I/O exception has occurred.
      */
     public InputStream getInputStream() throws IOException {
+        if (_bodyPending) {
+            readResponseBody();
+        }
         if (_inputStream == null) {
             _inputStream = new ByteArrayInputStream(getText().getBytes(StandardCharsets.UTF_8));
         }
@@ -471,6 +508,24 @@ public abstract class WebResponse implements HTMLSegment, CookieSource, DomWindo
         return getReceivedPage().getElementsByTagName(getDOM(), tagName);
     }
 
+    /**
+     * Returns the HTMLElements matched by the specified XPath, in document order. Matches other than elements, such as
+     * attributes or text, are ignored.
+     *
+     * @param xpath
+     *            the XPath, evaluated from the root of the document
+     *
+     * @return the matching HTMLElements
+     *
+     * @throws SAXException
+     *             thrown if there is an error parsing the response.
+     * @throws XPathExpressionException
+     *             if the XPath is invalid
+     */
+    public HTMLElement[] getElementsByXPath(String xpath) throws SAXException, XPathExpressionException {
+        return getReceivedPage().getElementsByXPath(new XPathPredicate(xpath));
+    }
+
     /**
      * Returns a list of HTML element names contained in this HTML section.
      */
@@ -1351,7 +1406,9 @@ public abstract class WebResponse implements HTMLSegment, CookieSource, DomWindo
         }
         _responseText = text;
         _inputStream = null;
+        _bodyPending = false;
         _page = null;
+        _scannedPage = null;
         _contentType = contentType;
         _baseURL = null;
         _baseTarget = _frame.getName();
@@ -1393,6 +1450,9 @@ public abstract class WebResponse implements HTMLSegment, CookieSource, DomWindo
     /** The page. */
     private HTMLPage _page;
 
+    /** The page as scanned, without a document. */
+    private ScannedPage _scannedPage;
+
     /** The content header. */
     private String _contentHeader;
 
@@ -1417,6 +1477,9 @@ public abstract class WebResponse implements HTMLSegment, CookieSource, DomWindo
     /** the response as a byte array. */
     private byte[] _bytes;
 
+    /** true if the body of a text response is to be read when first needed. */
+    private boolean _bodyPending;
+
     /** The input stream. */
     private InputStream _inputStream;
 
@@ -1445,18 +1508,57 @@ public abstract class WebResponse implements HTMLSegment, CookieSource, DomWindo
      *             Signals that an I/O exception has occurred.
      */
     protected void loadResponseText() throws IOException {
-        if (_responseText != null) {
+        if (_responseText != null || _bytes != null) {
             throw new IllegalStateException("May only invoke loadResponseText once");
         }
-        _responseText = "";
+        getText();
+    }
+
+    /**
+     * Loads the response text at once, or, if the client reads bodies on demand, arranges for it to be loaded when
+     * first needed.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    protected final void prepareResponseText() throws IOException {
+        if (getClientProperties().isReadBodyOnDemand()) {
+            _bodyPending = true;
+        } else {
+            loadResponseText();
+        }
+    }
+
+    /**
+     * Reads a body whose reading was deferred, if any. Used where the body is needed by a method which may not throw
+     * an IOException.
+     */
+    private void readPendingBody() {
+        if (_bodyPending) {
+            try {
+                readResponseBody();
+            } catch (IOException e) {
+                HttpUnitUtils.handleException(e);
+                throw new RuntimeException(e.toString());
+            }
+        }
+    }
+
+    /**
+     * Reads the body from the raw input stream and scans it for meta and base tags.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void readResponseBody() throws IOException {
+        _bodyPending = false;
+        _bytes = new byte[0];
 
         try (InputStream inputStream = getInputStream()) {
             final int contentLength = this.encodedUsingGZIP() ? -1 : getContentLength();
-            int bytesRemaining = contentLength < 0 ? Integer.MAX_VALUE : contentLength;
-            _bytes = readFromStream(inputStream, bytesRemaining);
+            _bytes = readFromStream(inputStream, contentLength);
 
             readTags(_bytes);
-            _responseText = new String(_bytes, Charset.forName(getCharacterSet()));
             _inputStream = new ByteArrayInputStream(_bytes);
 
             if (HttpUnitOptions.isCheckContentLength() && contentLength >= 0 && _bytes.length != contentLength) {
@@ -1467,67 +1569,59 @@ public abstract class WebResponse implements HTMLSegment, CookieSource, DomWindo
     }
 
     /**
-     * Read from stream.
+     * Reads the body from the stream. Reads exactly the expected number of bytes if the length is known, and blocks
+     * until the end of the stream otherwise.
      *
      * @param inputStream
      *            the input stream
-     * @param maxBytes
-     *            the max bytes
+     * @param expectedLength
+     *            the number of bytes expected, or -1 if not known
      *
-     * @return the byte[]
+     * @return the bytes read
      *
      * @throws IOException
-     *             Signals that an I/O exception has occurred.
-     */
-    private byte[] readFromStream(InputStream inputStream, int maxBytes) throws IOException {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        byte[] buffer = new byte[8 * 1024];
-        int count = 0;
-        if (maxBytes > 0) {
-            do {
-                outputStream.write(buffer, 0, count);
-                maxBytes -= count;
-                if (maxBytes <= 0) {
-                    break;
-                }
-                count = inputStream.read(buffer, 0, Math.min(maxBytes, buffer.length));
-            } while (count != -1);
-        } else {
-            do {
-                outputStream.write(buffer, 0, count);
-                int available = getAvailableBytes(inputStream);
-                count = available == 0 ? -1 : inputStream.read(buffer, 0, buffer.length);
-            } while (count != -1);
+     *             Signals that an I/O exception has occurred, or the body is larger than allowed or took too long.
+     */
+    private byte[] readFromStream(InputStream inputStream, int expectedLength) throws IOException {
+        ClientProperties properties = getClientProperties();
+        int maxBodySize = properties.getMaxResponseBodySize();
+        long deadline = properties.getResponseBodyTimeout() <= 0 ? Long.MAX_VALUE
+                : System.currentTimeMillis() + properties.getResponseBodyTimeout();
+
+        int limit = expectedLength < 0 ? Integer.MAX_VALUE : expectedLength;
+        if (maxBodySize >= 0 && maxBodySize < limit) {
+            limit = maxBodySize + 1;
+        }
+        byte[] buffer = new byte[expectedLength < 0 ? Math.min(limit, UNKNOWN_LENGTH_BUFFER_SIZE)
+                : Math.min(limit, MAX_PREALLOCATED_BUFFER_SIZE)];
+        int length = 0;
+        while (length < limit) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, (int) Math.min(limit, 2L * buffer.length));
+            }
+            int count = inputStream.read(buffer, length, buffer.length - length);
+            if (count == -1) {
+                break;
+            }
+            length += count;
+            if (maxBodySize >= 0 && length > maxBodySize) {
+                throw new IOException("Response body exceeds the maximum size of " + maxBodySize + " bytes");
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new IOException("Timed out after reading " + length + " bytes of response body");
+            }
         }
 
-        return outputStream.toByteArray();
+        return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
     }
 
     /**
-     * Gets the available bytes.
+     * Returns the properties of the client which received this response.
      *
-     * @param inputStream
-     *            the input stream
-     *
-     * @return the available bytes
-     *
-     * @throws IOException
-     *             Signals that an I/O exception has occurred.
+     * @return the client properties
      */
-    private int getAvailableBytes(InputStream inputStream) throws IOException {
-        int timeLeft = UNKNOWN_LENGTH_TIMEOUT;
-        int available;
-        do {
-            timeLeft -= UNKNOWN_LENGTH_RETRY_INTERVAL;
-            try {
-                Thread.sleep(UNKNOWN_LENGTH_RETRY_INTERVAL);
-            } catch (InterruptedException e) {
-                Thread.interrupted();
-                /* do nothing */
-            }
-            available = inputStream.available();
-        } while (available == 0 && timeLeft > 0);
-        return available;
+    private ClientProperties getClientProperties() {
+        return _client == null ? ClientProperties.getDefaultProperties() : _client.getClientProperties();
     }
 
     /**
@@ -1628,6 +1722,7 @@ public abstract class WebResponse implements HTMLSegment, CookieSource, DomWindo
         if (_refreshDelay >= 0) {
             return;
         }
+        readPendingBody();
         _refreshDelay = 0;
         String refreshHeader = _refreshHeader != null ? _refreshHeader : getHeaderField("Refresh");
         if (refreshHeader == null) {
@@ -1767,6 +1862,9 @@ public abstract class WebResponse implements HTMLSegment, CookieSource, DomWindo
                 if (HttpUnitOptions.isCheckHtmlContentType() && !isHTML()) {
                     throw new NotHTMLException(getContentType());
                 }
+                if (_bodyPending) {
+                    readResponseBody();
+                }
                 _page = new HTMLPage(this, _frame, _baseURL, _baseTarget, getCharacterSet());
                 if (_withParse) {
                     _page.parse(getText(), _pageURL);
@@ -10,11 +10,16 @@ package com.meterware.httpunit;
 import com.meterware.httpunit.scripting.ScriptingHandler;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.xml.sax.SAXException;
 
@@ -196,6 +201,117 @@ public class WebWindow {
         return response == null ? null : updateWindow(request.getTarget(), response, requestContext);
     }
 
+    /**
+     * Loads the contents of a set of frames, installing them in order. If the client allows it, the requests are sent
+     * concurrently, but the responses are still processed one at a time, in the order of the requests.
+     *
+     * @param requests
+     *            the requests for the frame contents
+     * @param requestContext
+     *            the request context
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @throws SAXException
+     *             the SAX exception
+     */
+    void getSubframeResponses(List<WebRequest> requests, RequestContext requestContext)
+            throws IOException, SAXException {
+        int maxThreads = Math.min(requests.size(), _client.getClientProperties().getMaxConcurrentFrameRequests());
+        if (maxThreads <= 1) {
+            for (WebRequest request : requests) {
+                getSubframeResponse(request, requestContext);
+            }
+            return;
+        }
+
+        ExecutorService executor = _client.getFrameLoader();
+        List<Future<WebResponse>> responses = new ArrayList<>();
+        try {
+            for (WebRequest request : requests) {
+                responses.add(isFetchedRemotely(request) ? submitRequest(executor, request) : null);
+            }
+            for (int i = 0; i < requests.size(); i++) {
+                WebRequest request = requests.get(i);
+                WebResponse response = responses.get(i) == null ? getResource(request)
+                        : receiveResponse(responses.get(i));
+                if (response != null) {
+                    updateWindow(request.getTarget(), response, requestContext);
+                }
+            }
+        } finally {
+            for (Future<WebResponse> response : responses) {
+                if (response != null) {
+                    response.cancel(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true if the response to the specified request must be obtained from the server, rather than computed by
+     * the client.
+     *
+     * @param request
+     *            the request
+     *
+     * @return true, if fetched remotely
+     */
+    private boolean isFetchedRemotely(WebRequest request) {
+        String urlString = request.getURLString().trim();
+        return !urlString.startsWith("about:") && !HttpUnitUtils.isJavaScriptURL(urlString);
+    }
+
+    /**
+     * Notifies the listeners of a request, and starts sending it.
+     *
+     * @param executor
+     *            the executor which will send the request
+     * @param request
+     *            the request
+     *
+     * @return the future response
+     */
+    private Future<WebResponse> submitRequest(ExecutorService executor, WebRequest request) {
+        _client.tellListeners(request);
+        FrameSelector targetFrame = _frameContents.getTargetFrame(request);
+        return executor.submit(() -> _client.createResponse(request, targetFrame));
+    }
+
+    /**
+     * Waits for a response requested with {@link #submitRequest}, and notifies the listeners of it.
+     *
+     * @param future
+     *            the future response
+     *
+     * @return the response
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private WebResponse receiveResponse(Future<WebResponse> future) throws IOException {
+        WebResponse response;
+        try {
+            response = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading frames");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+        _client.tellListeners(response);
+        return response;
+    }
+
     /**
      * Updates this web client based on a received response. This includes updating cookies and frames.
      *
@@ -7,6 +7,16 @@
  */
 package com.meterware.httpunit;
 
+import com.meterware.httpunit.dom.DocumentImpl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
@@ -21,9 +31,15 @@ import org.w3c.dom.NodeList;
  * very advanced matching techniques. THREAD: Instances are not thread safe, each thread should create its own instance
  * with a specific xpath. (The same instance can be used for multiple documents, each change in document will result in
  * its internal caches being flushed).
+ * <p>
+ * The nodes matched in a document are kept with the document, so that checking each element of a page evaluates the
+ * XPath only once. They are discarded as soon as the document changes.
  */
 public class XPathPredicate implements HTMLElementPredicate {
 
+    /** The key under which the nodes matched by each path are kept with a document. */
+    private static final String MATCHING_NODES_KEY = XPathPredicate.class.getName() + ".matchingNodes";
+
     /** XPath which dictates matching nodes, from root. */
     private XPathExpression xpath;
 
@@ -89,19 +105,120 @@ public class XPathPredicate implements HTMLElementPredicate {
             debugOut(doc, "");
         }
 
-        NodeList nodes;
+        return getMatchingNodes(doc).contains(htmlNode);
+    }
+
+    /**
+     * Returns the nodes in the specified document which match this predicate's XPath.
+     *
+     * @param doc
+     *            the document
+     *
+     * @return the matching nodes, in document order
+     */
+    List<Node> getMatchingNodeList(Document doc) {
+        return getMatchingNodes(doc).getNodes();
+    }
+
+    /**
+     * Returns the nodes in the specified document which match this predicate's XPath, evaluating it only if it has not
+     * been evaluated since the document last changed. Only documents which report their changes are cached.
+     *
+     * @param doc
+     *            the document
+     *
+     * @return the matching nodes
+     */
+    private MatchingNodes getMatchingNodes(Document doc) {
+        if (!(doc instanceof DocumentImpl)) {
+            return evaluate(doc, -1);
+        }
+        long modificationCount = ((DocumentImpl) doc).getModificationCount();
+        @SuppressWarnings("unchecked")
+        Map<String, MatchingNodes> cache = (Map<String, MatchingNodes>) doc.getUserData(MATCHING_NODES_KEY);
+        if (cache == null) {
+            cache = new HashMap<>();
+            doc.setUserData(MATCHING_NODES_KEY, cache, null);
+        }
+        MatchingNodes nodes = cache.get(path);
+        if (nodes == null || nodes._modificationCount != modificationCount) {
+            nodes = evaluate(doc, modificationCount);
+            cache.put(path, nodes);
+        }
+        return nodes;
+    }
+
+    /**
+     * Evaluates this predicate's XPath against the specified document.
+     *
+     * @param doc
+     *            the document
+     * @param modificationCount
+     *            the modification count of the document
+     *
+     * @return the matching nodes
+     */
+    private MatchingNodes evaluate(Document doc, long modificationCount) {
         try {
-            nodes = (NodeList) xpath.evaluate(doc, XPathConstants.NODESET);
-            final int nodeCount = nodes.getLength();
-            for (int i = 0; i < nodeCount; i++) {
-                if (nodes.item(i).equals(htmlNode)) {
-                    return true;
-                }
-            }
+            return new MatchingNodes((NodeList) xpath.evaluate(doc, XPathConstants.NODESET), modificationCount);
         } catch (XPathExpressionException e) {
             throw new RuntimeException("unable to evaluate xpath '" + path + "'", e);
         }
-        return false;
+    }
+
+    // ============================= class MatchingNodes ======================================
+
+    /**
+     * The nodes matched by a path in a document.
+     */
+    private static class MatchingNodes {
+
+        /** The nodes, in document order. */
+        private final List<Node> _nodes;
+
+        /** The same nodes, for identity lookups. */
+        private final Set<Node> _nodeSet = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        /** The modification count of the document when the path was evaluated. */
+        private final long _modificationCount;
+
+        /**
+         * Instantiates a new set of matching nodes.
+         *
+         * @param nodes
+         *            the nodes returned by the path
+         * @param modificationCount
+         *            the modification count of the document
+         */
+        MatchingNodes(NodeList nodes, long modificationCount) {
+            _nodes = new ArrayList<>(nodes.getLength());
+            for (int i = 0; i < nodes.getLength(); i++) {
+                _nodes.add(nodes.item(i));
+            }
+            _nodeSet.addAll(_nodes);
+            _modificationCount = modificationCount;
+        }
+
+        /**
+         * Returns the nodes, in document order.
+         *
+         * @return the nodes
+         */
+        List<Node> getNodes() {
+            return _nodes;
+        }
+
+        /**
+         * Returns true if the specified node is one of the matching nodes.
+         *
+         * @param node
+         *            the node
+         *
+         * @return true, if matched
+         */
+        boolean contains(Node node) {
+            return _nodeSet.contains(node);
+        }
     }
 
 }
@@ -84,6 +84,17 @@ public class Cookie {
         _domain = domain;
     }
 
+    /**
+     * Constructs a copy of the specified cookie.
+     *
+     * @param original
+     *            - the cookie to copy
+     */
+    Cookie(Cookie original) {
+        this(original._name, original._value, original._domain, original._path);
+        _expiredTime = original._expiredTime;
+    }
+
     /**
      * Constructs a cookie w/o any domain or path restrictions.
      *
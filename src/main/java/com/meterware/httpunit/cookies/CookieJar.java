@@ -16,22 +16,58 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * A collection of HTTP cookies, which can interact with cookie and set-cookie header values.
+ * <p>
+ * The cookies are indexed by domain and by name, so that building a cookie header only examines the cookies whose
+ * domains could match the target host. A cookie jar may be shared between threads; any number of threads may read it
+ * at once, while changes are made one at a time.
+ * </p>
+ * <p>
+ * A cookie jar may also be layered over a parent jar, whose cookies it inherits. Changes are made only to the layer:
+ * a cookie which replaces an inherited one hides it, and changing or removing an inherited cookie by name first copies
+ * it into the layer. This allows many jars to share a read-mostly set of cookies while keeping their own session
+ * cookies. The contents of a layer may be copied with {@link #snapshot} and later reinstated with {@link #restore}.
+ * </p>
  **/
 public class CookieJar {
 
     /** The Constant DEFAULT_HEADER_SIZE. */
     private static final int DEFAULT_HEADER_SIZE = 80;
 
-    /** The cookies. */
-    private ArrayList _cookies = new ArrayList<>();
+    /** The key under which cookies with no domain are indexed. */
+    private static final String NO_DOMAIN = "";
+
+    /** The restricted cookies, in the order in which they were added. */
+    private final LinkedHashSet<Entry> _cookies = new LinkedHashSet<>();
+
+    /** The restricted cookies, keyed by their domain in lower case. */
+    private final Map<String, List<Entry>> _cookiesByDomain = new HashMap<>();
+
+    /** The restricted cookies, keyed by their name in lower case. */
+    private final Map<String, List<Entry>> _cookiesByName = new HashMap<>();
 
     /** The global cookies. */
-    private ArrayList _globalCookies = new ArrayList<>();
+    private final ArrayList<Cookie> _globalCookies = new ArrayList<>();
+
+    /** The names of inherited cookies which this jar has replaced or removed. */
+    private final HashSet<String> _hiddenNames = new HashSet<>();
+
+    /** The jar whose cookies this one inherits, if any. */
+    private CookieJar _parent;
+
+    /** The sequence number to assign to the next restricted cookie. */
+    private long _nextSequence;
+
+    /** The lock which guards the contents of this jar. */
+    private final ReadWriteLock _lock = new ReentrantReadWriteLock();
 
     /** The press. */
     private CookiePress _press;
@@ -43,6 +79,18 @@ public class CookieJar {
         _press = new CookiePress(null);
     }
 
+    /**
+     * Creates an empty cookie jar which inherits the cookies of the specified jar. Changes made to the new jar do not
+     * affect its parent.
+     *
+     * @param parent
+     *            the jar whose cookies are inherited
+     */
+    public CookieJar(CookieJar parent) {
+        this();
+        _parent = parent;
+    }
+
     /**
      * Creates a cookie jar which is initially populated with cookies parsed from the <code>Set-Cookie</code> and
      * <code>Set-Cookie2</code> header fields.
@@ -76,11 +124,34 @@ public class CookieJar {
     }
 
     /**
-     * Empties this cookie jar of all contents.
+     * Returns the jar whose cookies this one inherits.
+     *
+     * @return the parent jar, or null if there is none
+     */
+    public CookieJar getParent() {
+        _lock.readLock().lock();
+        try {
+            return _parent;
+        } finally {
+            _lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Empties this cookie jar of all contents. Cookies inherited from a parent jar are not affected, and are once more
+     * visible.
      */
     public void clear() {
-        _cookies.clear();
-        _globalCookies.clear();
+        _lock.writeLock().lock();
+        try {
+            _cookies.clear();
+            _cookiesByDomain.clear();
+            _cookiesByName.clear();
+            _globalCookies.clear();
+            _hiddenNames.clear();
+        } finally {
+            _lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -96,7 +167,12 @@ public class CookieJar {
      */
     @Deprecated
     public void addCookie(String name, String value) {
-        _globalCookies.add(new Cookie(name, value));
+        _lock.writeLock().lock();
+        try {
+            _globalCookies.add(new Cookie(name, value));
+        } finally {
+            _lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -110,34 +186,39 @@ public class CookieJar {
      *            the value
      */
     public void putCookie(String name, String value) {
-        boolean foundCookie = false;
-        for (Iterator iterator = _globalCookies.iterator(); iterator.hasNext();) {
-            Cookie cookie = (Cookie) iterator.next();
-            if (name.equals(cookie.getName())) {
-                foundCookie = true;
-                if (value != null) {
-                    cookie.setValue(value);
-                } else {
-                    iterator.remove();
+        _lock.writeLock().lock();
+        try {
+            copyInheritedCookies(name);
+            boolean foundCookie = false;
+            for (Iterator<Cookie> iterator = _globalCookies.iterator(); iterator.hasNext();) {
+                Cookie cookie = iterator.next();
+                if (name.equals(cookie.getName())) {
+                    foundCookie = true;
+                    if (value != null) {
+                        cookie.setValue(value);
+                    } else {
+                        iterator.remove();
+                    }
                 }
             }
-        }
 
-        for (Iterator iterator = _cookies.iterator(); iterator.hasNext();) {
-            Cookie cookie = (Cookie) iterator.next();
-            if (name.equals(cookie.getName())) {
-                foundCookie = true;
-                if (value != null) {
-                    cookie.setValue(value);
-                } else {
-                    iterator.remove();
+            for (Entry entry : getEntriesNamed(name)) {
+                if (name.equals(entry._cookie.getName())) {
+                    foundCookie = true;
+                    if (value != null) {
+                        entry._cookie.setValue(value);
+                    } else {
+                        removeEntry(entry);
+                    }
                 }
             }
-        }
 
-        // only add it if it does not already exist
-        if (!foundCookie) {
-            _globalCookies.add(new Cookie(name, value));
+            // only add it if it does not already exist
+            if (!foundCookie) {
+                _globalCookies.add(new Cookie(name, value));
+            }
+        } finally {
+            _lock.writeLock().unlock();
         }
     }
 
@@ -156,21 +237,25 @@ public class CookieJar {
      *            the path
      */
     public void putSingleUseCookie(String name, String value, String domain, String path) {
-        for (Iterator iterator = _globalCookies.iterator(); iterator.hasNext();) {
-            Cookie cookie = (Cookie) iterator.next();
-            if (name.equals(cookie.getName())) {
-                return;
+        _lock.writeLock().lock();
+        try {
+            copyInheritedCookies(name);
+            for (Cookie cookie : _globalCookies) {
+                if (name.equals(cookie.getName())) {
+                    return;
+                }
             }
-        }
 
-        for (Iterator iterator = _cookies.iterator(); iterator.hasNext();) {
-            Cookie cookie = (Cookie) iterator.next();
-            if (name.equals(cookie.getName())) {
-                iterator.remove();
+            for (Entry entry : getEntriesNamed(name)) {
+                if (name.equals(entry._cookie.getName())) {
+                    removeEntry(entry);
+                }
             }
-        }
 
-        _cookies.add(new Cookie(name, value, domain, path));
+            addEntry(new Cookie(name, value, domain, path));
+        } finally {
+            _lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -179,15 +264,17 @@ public class CookieJar {
      * @return the cookie names
      */
     public String[] getCookieNames() {
-        final int numGlobalCookies = _globalCookies.size();
-        String[] names = new String[_cookies.size() + numGlobalCookies];
-        for (int i = 0; i < numGlobalCookies; i++) {
-            names[i] = ((Cookie) _globalCookies.get(i)).getName();
+        List<Cookie> restricted = new ArrayList<>();
+        List<Cookie> globals = new ArrayList<>();
+        collectCookies(null, restricted, globals);
+        List<String> names = new ArrayList<>(globals.size() + restricted.size());
+        for (Cookie cookie : globals) {
+            names.add(cookie.getName());
         }
-        for (int i = numGlobalCookies; i < names.length; i++) {
-            names[i] = ((Cookie) _cookies.get(i - numGlobalCookies)).getName();
+        for (Cookie cookie : restricted) {
+            names.add(cookie.getName());
         }
-        return names;
+        return names.toArray(new String[names.size()]);
     }
 
     /**
@@ -196,8 +283,10 @@ public class CookieJar {
      * @return the cookies
      */
     public Collection getCookies() {
-        final Collection collection = (Collection) _cookies.clone();
-        collection.addAll(_globalCookies);
+        final List<Cookie> collection = new ArrayList<>();
+        List<Cookie> globals = new ArrayList<>();
+        collectCookies(null, collection, globals);
+        collection.addAll(globals);
         return collection;
     }
 
@@ -226,19 +315,22 @@ public class CookieJar {
         if (name == null) {
             throw new IllegalArgumentException("getCookieValue: no name specified");
         }
-        for (Iterator iterator = _cookies.iterator(); iterator.hasNext();) {
-            Cookie cookie = (Cookie) iterator.next();
-            if (name.equals(cookie.getName())) {
-                return cookie;
+        _lock.readLock().lock();
+        try {
+            for (Entry entry : getEntriesNamed(name)) {
+                if (name.equals(entry._cookie.getName())) {
+                    return entry._cookie;
+                }
             }
-        }
-        for (Iterator iterator = _globalCookies.iterator(); iterator.hasNext();) {
-            Cookie cookie = (Cookie) iterator.next();
-            if (name.equals(cookie.getName())) {
-                return cookie;
+            for (Cookie cookie : _globalCookies) {
+                if (name.equals(cookie.getName())) {
+                    return cookie;
+                }
             }
+            return _parent == null || _hiddenNames.contains(name) ? null : _parent.getCookie(name);
+        } finally {
+            _lock.readLock().unlock();
         }
-        return null;
     }
 
     /**
@@ -251,13 +343,15 @@ public class CookieJar {
      * @return the cookie header field
      */
     public String getCookieHeaderField(URL targetURL) {
-        if (_cookies.isEmpty() && _globalCookies.isEmpty()) {
+        List<Cookie> restricted = new ArrayList<>();
+        List<Cookie> globals = new ArrayList<>();
+        collectCookies(targetURL.getHost(), restricted, globals);
+        if (restricted.isEmpty() && globals.isEmpty()) {
             return null;
         }
         StringBuilder sb = new StringBuilder(DEFAULT_HEADER_SIZE);
-        HashSet restrictedCookies = new HashSet<>();
-        for (Iterator i = _cookies.iterator(); i.hasNext();) {
-            Cookie cookie = (Cookie) i.next();
+        HashSet<String> restrictedCookies = new HashSet<>();
+        for (Cookie cookie : restricted) {
             if (!cookie.mayBeSentTo(targetURL)) {
                 continue;
             }
@@ -267,8 +361,7 @@ public class CookieJar {
             }
             sb.append(cookie.getName()).append('=').append(cookie.getValue());
         }
-        for (Iterator i = _globalCookies.iterator(); i.hasNext();) {
-            Cookie cookie = (Cookie) i.next();
+        for (Cookie cookie : globals) {
             if (restrictedCookies.contains(cookie.getName())) {
                 continue;
             }
@@ -288,8 +381,96 @@ public class CookieJar {
      *            the new jar
      */
     public void updateCookies(CookieJar newJar) {
-        for (Iterator i = newJar._cookies.iterator(); i.hasNext();) {
-            addUniqueCookie((Cookie) i.next());
+        List<Cookie> newCookies;
+        newJar._lock.readLock().lock();
+        try {
+            newCookies = newJar.getRestrictedCookies();
+        } finally {
+            newJar._lock.readLock().unlock();
+        }
+        _lock.writeLock().lock();
+        try {
+            for (Cookie cookie : newCookies) {
+                addUniqueCookie(cookie);
+            }
+        } finally {
+            _lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes from this jar those cookies whose max-age or expiration date has passed. Such cookies are never sent,
+     * but are otherwise retained until this method is called.
+     */
+    public void removeExpiredCookies() {
+        _lock.writeLock().lock();
+        try {
+            for (Entry entry : new ArrayList<>(_cookies)) {
+                if (entry._cookie.isExpired()) {
+                    removeEntry(entry);
+                }
+            }
+        } finally {
+            _lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of the contents of this jar, which shares its parent. Later changes to this jar do not affect the
+     * copy, and vice versa. Only the cookies held by this jar itself are copied, so the cost depends on the number of
+     * cookies which have been added to it, rather than on the number it inherits.
+     *
+     * @return the copy
+     */
+    public CookieJar snapshot() {
+        CookieJar copy = new CookieJar();
+        copy.restore(this);
+        return copy;
+    }
+
+    /**
+     * Replaces the contents of this jar with a copy of those of the specified jar, which is typically one returned by
+     * {@link #snapshot}. This jar will inherit from the parent of that jar. The snapshot itself is not changed, and may
+     * be restored again.
+     *
+     * @param snapshot
+     *            the jar whose contents are to be copied
+     */
+    public void restore(CookieJar snapshot) {
+        List<Cookie> restricted = new ArrayList<>();
+        List<Cookie> globals = new ArrayList<>();
+        List<String> hiddenNames;
+        CookieJar parent;
+        snapshot._lock.readLock().lock();
+        try {
+            for (Entry entry : snapshot._cookies) {
+                restricted.add(new Cookie(entry._cookie));
+            }
+            for (Cookie cookie : snapshot._globalCookies) {
+                globals.add(new Cookie(cookie));
+            }
+            hiddenNames = new ArrayList<>(snapshot._hiddenNames);
+            parent = snapshot._parent;
+        } finally {
+            snapshot._lock.readLock().unlock();
+        }
+        for (CookieJar jar = parent; jar != null; jar = jar.getParent()) {
+            if (jar == this) {
+                throw new IllegalArgumentException("restore: a cookie jar may not inherit from itself");
+            }
+        }
+
+        _lock.writeLock().lock();
+        try {
+            clear();
+            _parent = parent;
+            for (Cookie cookie : restricted) {
+                addEntry(cookie);
+            }
+            _globalCookies.addAll(globals);
+            _hiddenNames.addAll(hiddenNames);
+        } finally {
+            _lock.writeLock().unlock();
         }
     }
 
@@ -300,16 +481,27 @@ public class CookieJar {
      *            the cookie
      */
     void addUniqueCookie(Cookie cookie) {
-        _cookies.remove(cookie);
-        for (Iterator i = _cookies.iterator(); i.hasNext();) {
-            Cookie c = (Cookie) i.next();
-            if (c.getName().equals(cookie.getName()) && compareDomain(c.getDomain(), cookie.getDomain())) {
-                if (c.getPath() != null && cookie.getPath() != null && c.getPath().equals(cookie.getPath())) {
-                    i.remove();
+        _lock.writeLock().lock();
+        try {
+            List<Entry> sameName = getEntriesNamed(cookie.getName());
+            for (Entry entry : sameName) {
+                if (entry._cookie.equals(cookie)) {
+                    removeEntry(entry);
+                    break;
+                }
+            }
+            for (Entry entry : sameName) {
+                Cookie c = entry._cookie;
+                if (c.getName().equals(cookie.getName()) && compareDomain(c.getDomain(), cookie.getDomain())) {
+                    if (c.getPath() != null && cookie.getPath() != null && c.getPath().equals(cookie.getPath())) {
+                        removeEntry(entry);
+                    }
                 }
             }
+            addEntry(cookie);
+        } finally {
+            _lock.writeLock().unlock();
         }
-        _cookies.add(cookie);
     }
 
     /**
@@ -331,6 +523,257 @@ public class CookieJar {
         return domain.equals(newDomain);
     }
 
+    /**
+     * Collects the cookies visible in this jar: its own, followed by those which it inherits and has not replaced.
+     *
+     * @param host
+     *            the host to which the restricted cookies might be sent, or null to collect all of them
+     * @param restricted
+     *            the list to which the restricted cookies are added
+     * @param globals
+     *            the list to which the global cookies are added
+     */
+    private void collectCookies(String host, List<Cookie> restricted, List<Cookie> globals) {
+        _lock.readLock().lock();
+        try {
+            for (Entry entry : host == null ? _cookies : getCandidateEntries(host)) {
+                restricted.add(entry._cookie);
+            }
+            globals.addAll(_globalCookies);
+            if (_parent == null) {
+                return;
+            }
+            List<Cookie> inheritedRestricted = new ArrayList<>();
+            List<Cookie> inheritedGlobals = new ArrayList<>();
+            _parent.collectCookies(host, inheritedRestricted, inheritedGlobals);
+            for (Cookie cookie : inheritedRestricted) {
+                if (!isReplaced(cookie)) {
+                    restricted.add(cookie);
+                }
+            }
+            for (Cookie cookie : inheritedGlobals) {
+                if (!_hiddenNames.contains(cookie.getName()) && !hasGlobalCookie(cookie.getName())) {
+                    globals.add(cookie);
+                }
+            }
+        } finally {
+            _lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns true if an inherited restricted cookie is hidden by one held in this jar, or has been removed by name.
+     * The caller must hold the lock.
+     *
+     * @param inherited
+     *            the inherited cookie
+     *
+     * @return true, if the cookie is not visible in this jar
+     */
+    private boolean isReplaced(Cookie inherited) {
+        if (_hiddenNames.contains(inherited.getName())) {
+            return true;
+        }
+        for (Entry entry : getEntriesNamed(inherited.getName())) {
+            Cookie cookie = entry._cookie;
+            if (cookie.equals(inherited) || cookie.getName().equals(inherited.getName())
+                    && cookie.getDomain() != null && inherited.getDomain() != null
+                    && compareDomain(cookie.getDomain(), inherited.getDomain()) && cookie.getPath() != null
+                    && cookie.getPath().equals(inherited.getPath())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if this jar holds a global cookie with the specified name. The caller must hold the lock.
+     *
+     * @param name
+     *            the name
+     *
+     * @return true, if there is such a cookie
+     */
+    private boolean hasGlobalCookie(String name) {
+        for (Cookie cookie : _globalCookies) {
+            if (name.equals(cookie.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copies into this jar any inherited cookies with the specified name, and hides the originals, so that they may
+     * be changed or removed without affecting the parent jar. The caller must hold the write lock.
+     *
+     * @param name
+     *            the name
+     */
+    private void copyInheritedCookies(String name) {
+        if (_parent == null || _hiddenNames.contains(name)) {
+            return;
+        }
+        List<Cookie> inheritedRestricted = new ArrayList<>();
+        List<Cookie> inheritedGlobals = new ArrayList<>();
+        _parent.collectCookies(null, inheritedRestricted, inheritedGlobals);
+        for (Cookie cookie : inheritedRestricted) {
+            if (name.equals(cookie.getName()) && !isReplaced(cookie)) {
+                addEntry(new Cookie(cookie));
+            }
+        }
+        for (Cookie cookie : inheritedGlobals) {
+            if (name.equals(cookie.getName()) && !hasGlobalCookie(name)) {
+                _globalCookies.add(new Cookie(cookie));
+            }
+        }
+        _hiddenNames.add(name);
+    }
+
+    /**
+     * Returns the restricted cookies, in the order in which they were added. The caller must hold the lock.
+     *
+     * @return a new list of the restricted cookies
+     */
+    private List<Cookie> getRestrictedCookies() {
+        List<Cookie> cookies = new ArrayList<>(_cookies.size());
+        for (Entry entry : _cookies) {
+            cookies.add(entry._cookie);
+        }
+        return cookies;
+    }
+
+    /**
+     * Returns the restricted cookies whose names match the specified name, ignoring case, in the order in which they
+     * were added. The caller must hold the lock.
+     *
+     * @param name
+     *            the name
+     *
+     * @return a new list of the matching entries
+     */
+    private List<Entry> getEntriesNamed(String name) {
+        List<Entry> entries = _cookiesByName.get(name.toLowerCase(Locale.ENGLISH));
+        return entries == null ? new ArrayList<>() : new ArrayList<>(entries);
+    }
+
+    /**
+     * Returns the restricted cookies which might be sent to the specified host, in the order in which they were added.
+     * These are the cookies with no domain, those whose domain is the host, and those whose domain is a suffix of the
+     * host starting with a dot. The caller must hold the lock.
+     *
+     * @param host
+     *            the target host
+     *
+     * @return a new list of the candidate entries
+     */
+    private List<Entry> getCandidateEntries(String host) {
+        List<Entry> candidates = new ArrayList<>();
+        addEntries(candidates, NO_DOMAIN);
+        String key = host.toLowerCase(Locale.ENGLISH);
+        addEntries(candidates, key);
+        for (int i = key.indexOf('.'); i >= 0; i = key.indexOf('.', i + 1)) {
+            addEntries(candidates, key.substring(i));
+        }
+        candidates.sort((first, second) -> Long.compare(first._sequence, second._sequence));
+        return candidates;
+    }
+
+    /**
+     * Adds the entries indexed under the specified domain key to a list.
+     *
+     * @param candidates
+     *            the list to extend
+     * @param domainKey
+     *            the domain key
+     */
+    private void addEntries(List<Entry> candidates, String domainKey) {
+        List<Entry> entries = _cookiesByDomain.get(domainKey);
+        if (entries != null) {
+            candidates.addAll(entries);
+        }
+    }
+
+    /**
+     * Adds a restricted cookie to this jar and to its indexes. The caller must hold the write lock.
+     *
+     * @param cookie
+     *            the cookie
+     */
+    private void addEntry(Cookie cookie) {
+        Entry entry = new Entry(cookie, _nextSequence++);
+        _cookies.add(entry);
+        _cookiesByDomain.computeIfAbsent(entry._domainKey, k -> new ArrayList<>()).add(entry);
+        _cookiesByName.computeIfAbsent(entry._nameKey, k -> new ArrayList<>()).add(entry);
+    }
+
+    /**
+     * Removes a restricted cookie from this jar and from its indexes. The caller must hold the write lock.
+     *
+     * @param entry
+     *            the entry for the cookie
+     */
+    private void removeEntry(Entry entry) {
+        if (_cookies.remove(entry)) {
+            removeFromIndex(_cookiesByDomain, entry._domainKey, entry);
+            removeFromIndex(_cookiesByName, entry._nameKey, entry);
+        }
+    }
+
+    /**
+     * Removes an entry from one of the indexes, dropping its key once no entries remain.
+     *
+     * @param index
+     *            the index
+     * @param key
+     *            the key under which the entry is held
+     * @param entry
+     *            the entry
+     */
+    private static void removeFromIndex(Map<String, List<Entry>> index, String key, Entry entry) {
+        List<Entry> entries = index.get(key);
+        entries.remove(entry);
+        if (entries.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    // ============================= class Entry ======================================
+
+    /**
+     * A restricted cookie held in this jar, along with the keys under which it is indexed. The domain and name of a
+     * cookie are fixed before it is added, so the keys remain valid while it is held.
+     */
+    private static class Entry {
+
+        /** The cookie. */
+        private final Cookie _cookie;
+
+        /** The order in which the cookie was added. */
+        private final long _sequence;
+
+        /** The domain of the cookie in lower case, or the empty string if it has none. */
+        private final String _domainKey;
+
+        /** The name of the cookie in lower case. */
+        private final String _nameKey;
+
+        /**
+         * Instantiates a new entry.
+         *
+         * @param cookie
+         *            the cookie
+         * @param sequence
+         *            the order in which the cookie was added
+         */
+        Entry(Cookie cookie, long sequence) {
+            _cookie = cookie;
+            _sequence = sequence;
+            _domainKey = cookie.getDomain() == null ? NO_DOMAIN : cookie.getDomain().toLowerCase(Locale.ENGLISH);
+            _nameKey = cookie.getName().toLowerCase(Locale.ENGLISH);
+        }
+    }
+
     /**
      * base class for the cookie recipies - there are two different implementations of this.
      */
@@ -118,8 +118,12 @@ public class AttrImpl extends NodeImpl implements Attr {
 
     @Override
     public void setValue(String value) throws DOMException {
+        String oldValue = _value;
         _value = value;
         _specified = true;
+        if (_ownerElement instanceof ElementImpl) {
+            ((ElementImpl) _ownerElement).attributeChanged(_name, oldValue, value);
+        }
     }
 
     @Override
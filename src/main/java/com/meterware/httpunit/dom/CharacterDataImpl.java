@@ -45,6 +45,9 @@ public abstract class CharacterDataImpl extends NodeImpl implements CharacterDat
             data = "";
         }
         _data = data;
+        if (isInDocument()) {
+            ((DocumentImpl) getOwnerDocument()).contentChanged();
+        }
     }
 
     @Override
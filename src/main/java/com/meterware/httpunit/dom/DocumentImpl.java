@@ -7,7 +7,12 @@
  */
 package com.meterware.httpunit.dom;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 import org.w3c.dom.Attr;
 import org.w3c.dom.CDATASection;
@@ -37,6 +42,21 @@ public class DocumentImpl extends NodeImpl implements Document {
     /** The document element. */
     protected Element _documentElement;
 
+    /** The number of changes made to the content of this document. */
+    private long _modificationCount;
+
+    /** The HTML elements in this document, keyed by id. Maintained as the document changes. */
+    private final Map<String, List<Element>> _idIndex = new HashMap<>();
+
+    /** The elements in this document, in document order, keyed by lower-case tag name; null when out of date. */
+    private Map<String, List<Element>> _tagIndex;
+
+    /** The HTML elements in this document, in document order, keyed by name; null when out of date. */
+    private Map<String, List<Element>> _nameIndex;
+
+    /** The HTML elements in this document, in document order, keyed by each class; null when out of date. */
+    private Map<String, List<Element>> _classIndex;
+
     /**
      * Creates the document.
      *
@@ -170,6 +190,13 @@ public class DocumentImpl extends NodeImpl implements Document {
 
     @Override
     public Element getElementById(String elementId) {
+        List<Element> elements = _idIndex.get(elementId);
+        if (elements == null) {
+            return null;
+        }
+        if (elements.size() == 1) {
+            return elements.get(0);
+        }
         for (Iterator each = preOrderIterator(); each.hasNext();) {
             Node node = (Node) each.next();
             if (!(node instanceof HTMLElement)) {
@@ -188,6 +215,60 @@ public class DocumentImpl extends NodeImpl implements Document {
         return ElementImpl.createElement(this, namespaceURI, qualifiedName);
     }
 
+    @Override
+    public NodeList getElementsByTagName(String name) {
+        if (_tagIndex == null) {
+            _tagIndex = new HashMap<>();
+            for (Element element : getElementsInOrder()) {
+                addToIndex(_tagIndex, "*", element);
+                addToIndex(_tagIndex, element.getTagName().toLowerCase(Locale.ENGLISH), element);
+            }
+        }
+        return toNodeList(_tagIndex.get(name.toLowerCase(Locale.ENGLISH)));
+    }
+
+    /**
+     * Returns the HTML elements in this document with the specified name attribute, in document order.
+     *
+     * @param elementName
+     *            the element name
+     *
+     * @return the elements
+     */
+    NodeList getElementsWithName(String elementName) {
+        if (_nameIndex == null) {
+            _nameIndex = new HashMap<>();
+            for (Element element : getElementsInOrder()) {
+                if (element instanceof HTMLElement && element.hasAttribute("name")) {
+                    addToIndex(_nameIndex, element.getAttribute("name"), element);
+                }
+            }
+        }
+        return toNodeList(_nameIndex.get(elementName));
+    }
+
+    /**
+     * Returns the HTML elements in this document which have the specified class, in document order.
+     *
+     * @param className
+     *            the class name
+     *
+     * @return the elements
+     */
+    public NodeList getElementsByClassName(String className) {
+        if (_classIndex == null) {
+            _classIndex = new HashMap<>();
+            for (Element element : getElementsInOrder()) {
+                if (element instanceof HTMLElement && element.hasAttribute("class")) {
+                    for (String each : getClasses(element.getAttribute("class"))) {
+                        addToIndex(_classIndex, each, element);
+                    }
+                }
+            }
+        }
+        return toNodeList(_classIndex.get(className));
+    }
+
     @Override
     public Attr createAttributeNS(String namespaceURI, String qualifiedName) throws DOMException {
         return AttrImpl.createAttribute(this, namespaceURI, qualifiedName);
@@ -217,6 +298,197 @@ public class DocumentImpl extends NodeImpl implements Document {
         }
     }
 
+    // ------------------------------------- index maintenance ------------------------------------------------------
+
+    /**
+     * Returns a count of the changes made to the nodes, attributes and text of this document. Results computed from the
+     * document may be cached along with this count, and discarded once it differs.
+     *
+     * @return the modification count
+     */
+    public long getModificationCount() {
+        return _modificationCount;
+    }
+
+    /**
+     * Records a change to the text of a node in this document.
+     */
+    void contentChanged() {
+        _modificationCount++;
+    }
+
+    /**
+     * Updates the indexes after a node has been added to this document.
+     *
+     * @param node
+     *            the root of the subtree added
+     */
+    void subtreeAdded(Node node) {
+        _modificationCount++;
+        List<Element> elements = new ArrayList<>();
+        collectElements(node, elements);
+        for (Element element : elements) {
+            if (element instanceof HTMLElement && element.hasAttribute("id")) {
+                addToIndex(_idIndex, element.getAttribute("id"), element);
+            }
+        }
+        if (!elements.isEmpty()) {
+            clearOrderedIndexes();
+        }
+    }
+
+    /**
+     * Updates the indexes after a node has been removed from this document.
+     *
+     * @param node
+     *            the root of the subtree removed
+     */
+    void subtreeRemoved(Node node) {
+        _modificationCount++;
+        List<Element> elements = new ArrayList<>();
+        collectElements(node, elements);
+        for (Element element : elements) {
+            if (element instanceof HTMLElement && element.hasAttribute("id")) {
+                removeFromIndex(_idIndex, element.getAttribute("id"), element);
+            }
+        }
+        if (!elements.isEmpty()) {
+            clearOrderedIndexes();
+        }
+    }
+
+    /**
+     * Updates the indexes after an attribute of an element in this document has changed.
+     *
+     * @param element
+     *            the element
+     * @param name
+     *            the attribute name
+     * @param oldValue
+     *            the previous value, or null if the attribute was not set
+     * @param newValue
+     *            the new value, or null if the attribute was removed
+     */
+    void attributeChanged(Element element, String name, String oldValue, String newValue) {
+        _modificationCount++;
+        if (!(element instanceof HTMLElement)) {
+            return;
+        }
+        if (name.equals("id")) {
+            if (oldValue != null) {
+                removeFromIndex(_idIndex, oldValue, element);
+            }
+            if (newValue != null) {
+                addToIndex(_idIndex, newValue, element);
+            }
+        } else if (name.equals("name")) {
+            _nameIndex = null;
+        } else if (name.equals("class")) {
+            _classIndex = null;
+        }
+    }
+
+    /**
+     * Discards the indexes which must list their elements in document order.
+     */
+    private void clearOrderedIndexes() {
+        _tagIndex = null;
+        _nameIndex = null;
+        _classIndex = null;
+    }
+
+    /**
+     * Returns all the elements in this document, in document order.
+     *
+     * @return the elements
+     */
+    private List<Element> getElementsInOrder() {
+        List<Element> elements = new ArrayList<>();
+        for (Node child = getFirstChild(); child != null; child = child.getNextSibling()) {
+            collectElements(child, elements);
+        }
+        return elements;
+    }
+
+    /**
+     * Adds the specified node, if it is an element, and all the elements below it to a list, in document order.
+     *
+     * @param node
+     *            the root of the subtree
+     * @param elements
+     *            the list of elements
+     */
+    private static void collectElements(Node node, List<Element> elements) {
+        if (node.getNodeType() != ELEMENT_NODE) {
+            return;
+        }
+        elements.add((Element) node);
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            collectElements(child, elements);
+        }
+    }
+
+    /**
+     * Returns the classes listed in a class attribute.
+     *
+     * @param classAttribute
+     *            the value of the class attribute
+     *
+     * @return the classes
+     */
+    private static List<String> getClasses(String classAttribute) {
+        List<String> classes = new ArrayList<>();
+        for (String each : classAttribute.trim().split("\\s+")) {
+            if (!each.isEmpty() && !classes.contains(each)) {
+                classes.add(each);
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Adds an element to an index.
+     *
+     * @param index
+     *            the index
+     * @param key
+     *            the key
+     * @param element
+     *            the element
+     */
+    private static void addToIndex(Map<String, List<Element>> index, String key, Element element) {
+        index.computeIfAbsent(key, k -> new ArrayList<>(1)).add(element);
+    }
+
+    /**
+     * Removes an element from an index.
+     *
+     * @param index
+     *            the index
+     * @param key
+     *            the key
+     * @param element
+     *            the element
+     */
+    private static void removeFromIndex(Map<String, List<Element>> index, String key, Element element) {
+        List<Element> elements = index.get(key);
+        if (elements != null && elements.remove(element) && elements.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * Returns a node list containing the specified elements.
+     *
+     * @param elements
+     *            the elements, or null if there are none
+     *
+     * @return the node list
+     */
+    private static NodeList toNodeList(List<Element> elements) {
+        return new NodeListImpl(elements == null ? new ArrayList<>() : new ArrayList<>(elements));
+    }
+
     // ------------------------------------- DOM level 3 methods
     // ------------------------------------------------------------
 
@@ -177,7 +177,10 @@ public class ElementImpl extends NamespaceAwareNodeImpl implements Element {
 
     @Override
     public void removeAttribute(String name) throws DOMException {
-        _attributes.remove(name);
+        Attr removedAttr = (Attr) _attributes.remove(name);
+        if (removedAttr != null) {
+            attributeChanged(name, removedAttr.getValue(), null);
+        }
     }
 
     @Override
@@ -197,6 +200,7 @@ public class ElementImpl extends NamespaceAwareNodeImpl implements Element {
         if (oldAttr != null) {
             oldAttr.setOwnerElement(null);
         }
+        attributeChanged(newAttr.getName(), oldAttr == null ? null : oldAttr.getValue(), newAttr.getValue());
         return oldAttr;
     }
 
@@ -212,6 +216,7 @@ public class ElementImpl extends NamespaceAwareNodeImpl implements Element {
         if (oldAttr != null) {
             oldAttr.setOwnerElement(null);
         }
+        attributeChanged(newAttr.getName(), oldAttr == null ? null : oldAttr.getValue(), newAttr.getValue());
         return oldAttr;
     }
 
@@ -224,6 +229,7 @@ public class ElementImpl extends NamespaceAwareNodeImpl implements Element {
         AttrImpl removedAttr = (AttrImpl) _attributes.remove(oldAttr.getName());
         if (removedAttr != null) {
             removedAttr.setOwnerElement(null);
+            attributeChanged(removedAttr.getName(), removedAttr.getValue(), null);
         }
         return removedAttr;
     }
@@ -233,6 +239,22 @@ public class ElementImpl extends NamespaceAwareNodeImpl implements Element {
         return _attributes.containsKey(name);
     }
 
+    /**
+     * Tells the owner document that the value of an attribute has changed, so that it may update its indexes.
+     *
+     * @param name
+     *            the attribute name
+     * @param oldValue
+     *            the previous value, or null if the attribute was not set
+     * @param newValue
+     *            the new value, or null if the attribute was removed
+     */
+    void attributeChanged(String name, String oldValue, String newValue) {
+        if (isInDocument()) {
+            ((DocumentImpl) getOwnerDocument()).attributeChanged(this, name, oldValue, newValue);
+        }
+    }
+
     // ----------------------- namespaces are not supported at present --------------------------------
 
     @Override
@@ -9,8 +9,6 @@ package com.meterware.httpunit.dom;
 
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.Locale;
 
 import org.mozilla.javascript.Scriptable;
@@ -337,18 +335,7 @@ public class HTMLDocumentImpl extends DocumentImpl implements HTMLDocument, HTML
      */
     @Override
     public NodeList getElementsByName(String elementName) {
-        ArrayList<HTMLElementImpl> elements = new ArrayList<HTMLElementImpl>();
-        for (Iterator<?> each = preOrderIterator(); each.hasNext();) {
-            Node node = (Node) each.next();
-            if (!(node instanceof HTMLElementImpl)) {
-                continue;
-            }
-            HTMLElementImpl element = (HTMLElementImpl) node;
-            if (elementName.equals(element.getAttributeWithNoDefault("name"))) {
-                elements.add(element);
-            }
-        }
-        return new NodeListImpl(elements);
+        return getElementsWithName(elementName);
     }
 
     @Override
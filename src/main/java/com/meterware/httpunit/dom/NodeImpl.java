@@ -141,6 +141,9 @@ public abstract class NodeImpl extends AbstractDomComponent implements Node {
             refChildNode._previousSibling.setNextSibling(newChildNode);
         }
         newChildNode.setNextSibling(refChildNode);
+        if (isInDocument()) {
+            ((DocumentImpl) getOwnerDocument()).subtreeAdded(newChildNode);
+        }
         return newChildNode;
     }
 
@@ -152,14 +155,35 @@ public abstract class NodeImpl extends AbstractDomComponent implements Node {
      */
     private void removeFromTree(NodeImpl childNode) {
         if (childNode._parentNode != null) {
+            boolean wasInDocument = childNode.isInDocument();
             if (childNode._previousSibling != null) {
                 childNode._previousSibling.setNextSibling(childNode._nextSibling);
             } else {
                 childNode._parentNode._firstChild = childNode._nextSibling;
-                childNode._nextSibling._previousSibling = null;
+                if (childNode._nextSibling != null) {
+                    childNode._nextSibling._previousSibling = null;
+                }
             }
             childNode._parentNode = null;
+            childNode._previousSibling = null;
+            childNode._nextSibling = null;
+            if (wasInDocument) {
+                ((DocumentImpl) childNode.getOwnerDocument()).subtreeRemoved(childNode);
+            }
+        }
+    }
+
+    /**
+     * Returns true if this node is part of the tree rooted at its owner document.
+     *
+     * @return true, if in the document
+     */
+    boolean isInDocument() {
+        NodeImpl root = this;
+        while (root._parentNode != null) {
+            root = root._parentNode;
         }
+        return root == getOwnerDocument();
     }
 
     @Override
@@ -191,6 +215,9 @@ public abstract class NodeImpl extends AbstractDomComponent implements Node {
         } else {
             ((NodeImpl) getLastChild()).setNextSibling(childNode);
         }
+        if (isInDocument()) {
+            ((DocumentImpl) getOwnerDocument()).subtreeAdded(childNode);
+        }
         return newChild;
     }
 
@@ -7,8 +7,19 @@
  */
 package com.meterware.httpunit.dom;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.mozilla.javascript.FunctionObject;
 import org.mozilla.javascript.Scriptable;
@@ -18,20 +29,19 @@ import org.mozilla.javascript.Scriptable;
  */
 class ScriptingSupport {
 
-    /** A non-null method value to be used to indicate that we have already looked up and failed to find one. **/
-    private static final Method NO_SUCH_PROPERTY = ScriptingSupport.class.getDeclaredMethods()[0];
+    /** A non-null value to be used to indicate that we have already looked up and failed to find a function. **/
+    private static final Object NO_SUCH_FUNCTION = new Object();
 
-    /** The Constant NO_ARGS. */
-    private static final Object[] NO_ARGS = {};
+    /** The lookup used to convert reflected methods to method handles. */
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
 
-    /** map of classes to maps of string to function objects. **/
-    private static java.util.Map _classFunctionMaps = new java.util.HashMap<>();
-
-    /** map of classes to maps of string to getter methods. **/
-    private static java.util.Map _classGetterMaps = new java.util.HashMap<>();
-
-    /** map of classes to maps of string to setter methods. **/
-    private static java.util.Map _classSetterMaps = new java.util.HashMap<>();
+    /** The property tables, built once for each class on first use. **/
+    private static final ClassValue<PropertyTable> PROPERTY_TABLES = new ClassValue<>() {
+        @Override
+        protected PropertyTable computeValue(Class<?> type) {
+            return new PropertyTable(type);
+        }
+    };
 
     /**
      * Checks for named property.
@@ -46,12 +56,8 @@ class ScriptingSupport {
      * @return true, if successful
      */
     static boolean hasNamedProperty(Object element, String javaPropertyName, Scriptable scriptable) {
-        Method getter = getPropertyGetter(element.getClass(), javaPropertyName);
-        if (getter != NO_SUCH_PROPERTY) {
-            return true;
-        }
-        Object function = getFunctionObject(element.getClass(), javaPropertyName, scriptable);
-        return function != null;
+        PropertyTable table = PROPERTY_TABLES.get(element.getClass());
+        return table.getGetter(javaPropertyName) != null || table.getFunction(javaPropertyName, scriptable) != null;
     }
 
     /**
@@ -67,92 +73,19 @@ class ScriptingSupport {
      * @return the named property
      */
     static Object getNamedProperty(Object element, String javaPropertyName, Scriptable scriptable) {
-        Method getter = getPropertyGetter(element.getClass(), javaPropertyName);
-        if (getter == NO_SUCH_PROPERTY) {
-            Object function = getFunctionObject(element.getClass(), javaPropertyName, scriptable);
+        PropertyTable table = PROPERTY_TABLES.get(element.getClass());
+        Accessor getter = table.getGetter(javaPropertyName);
+        if (getter == null) {
+            Object function = table.getFunction(javaPropertyName, scriptable);
             return function == null ? Scriptable.NOT_FOUND : function;
         }
         try {
-            return getter.invoke(element, NO_ARGS);
-        } catch (IllegalAccessException | InvocationTargetException e) {
+            return getter.invoke(element);
+        } catch (Exception e) {
             return Scriptable.NOT_FOUND;
         }
     }
 
-    /**
-     * Gets the function object.
-     *
-     * @param aClass
-     *            the a class
-     * @param methodName
-     *            the method name
-     * @param scriptable
-     *            the scriptable
-     *
-     * @return the function object
-     */
-    private static FunctionObject getFunctionObject(Class aClass, String methodName, Scriptable scriptable) {
-        java.util.Map functionMap = (java.util.Map) _classFunctionMaps.get(aClass);
-        if (functionMap == null) {
-            _classFunctionMaps.put(aClass, functionMap = new java.util.HashMap<>());
-        }
-
-        Object result = functionMap.get(methodName);
-        if (result == NO_SUCH_PROPERTY) {
-            return null;
-        }
-        if (result != null) {
-            return (FunctionObject) result;
-        }
-
-        Method[] methods = aClass.getMethods();
-        for (Method method : methods) {
-            if (method.getName().equalsIgnoreCase(methodName)) {
-                FunctionObject function = new FunctionObject(methodName, method, scriptable);
-                functionMap.put(methodName, function);
-                return function;
-            }
-        }
-        functionMap.put(methodName, NO_SUCH_PROPERTY);
-        return null;
-    }
-
-    /**
-     * Gets the property getter.
-     *
-     * @param aClass
-     *            the a class
-     * @param propertyName
-     *            the property name
-     *
-     * @return the property getter
-     */
-    private static Method getPropertyGetter(Class aClass, String propertyName) {
-        java.util.Map methodMap = (java.util.Map) _classGetterMaps.get(aClass);
-        if (methodMap == null) {
-            _classGetterMaps.put(aClass, methodMap = new java.util.HashMap<>());
-        }
-
-        Method result = (Method) methodMap.get(propertyName);
-        if (result != null) {
-            return result;
-        }
-
-        Method[] methods = aClass.getMethods();
-        for (Method method : methods) {
-            if (method.getParameterTypes().length > 0) {
-                continue;
-            }
-            if (method.getName().equalsIgnoreCase("is" + propertyName)
-                    || method.getName().equalsIgnoreCase("get" + propertyName)) {
-                methodMap.put(propertyName, method);
-                return method;
-            }
-        }
-        methodMap.put(propertyName, NO_SUCH_PROPERTY);
-        return NO_SUCH_PROPERTY;
-    }
-
     /**
      * Sets the named property.
      *
@@ -164,14 +97,14 @@ class ScriptingSupport {
      *            the value
      */
     static void setNamedProperty(AbstractDomComponent element, String javaPropertyName, Object value) {
-        Method setter = getPropertySetter(element.getClass(), javaPropertyName, value);
-        if (setter == NO_SUCH_PROPERTY) {
+        Accessor setter = PROPERTY_TABLES.get(element.getClass()).getSetter(javaPropertyName, value);
+        if (setter == null) {
             return;
         }
 
         try {
-            setter.invoke(element, adjustedForSetter(value, setter));
-        } catch (IllegalAccessException | InvocationTargetException e) { /* do nothing */
+            setter.invoke(element, adjustedForSetter(value, setter.getMethod()));
+        } catch (Exception e) { /* do nothing */
         }
     }
 
@@ -218,42 +151,6 @@ class ScriptingSupport {
         return value;
     }
 
-    /**
-     * Gets the property setter.
-     *
-     * @param aClass
-     *            the a class
-     * @param propertyName
-     *            the property name
-     * @param value
-     *            the value
-     *
-     * @return the property setter
-     */
-    static Method getPropertySetter(Class aClass, String propertyName, Object value) {
-        java.util.Map methodMap = (java.util.Map) _classSetterMaps.get(aClass);
-        if (methodMap == null) {
-            _classSetterMaps.put(aClass, methodMap = new java.util.HashMap<>());
-        }
-
-        Method result = (Method) methodMap.get(propertyName);
-        if (result != null) {
-            return result;
-        }
-
-        String setterName = "set" + Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
-        Method[] methods = aClass.getMethods();
-        for (Method method : methods) {
-            if (method.getName().equalsIgnoreCase(setterName) && method.getParameterTypes().length == 1
-                    && isConvertableTo(value.getClass(), method.getParameterTypes()[0])) {
-                methodMap.put(propertyName, method);
-                return method;
-            }
-        }
-        methodMap.put(propertyName, NO_SUCH_PROPERTY);
-        return NO_SUCH_PROPERTY;
-    }
-
     /**
      * check whether the valueType is convertable to the parameterType.
      *
@@ -290,4 +187,193 @@ class ScriptingSupport {
         }
         return Number.class.isAssignableFrom(parameterType);
     }
+
+    // ============================= class PropertyTable ======================================
+
+    /**
+     * The scriptable properties and functions of a class, found once by scanning its public methods. Names are matched
+     * without regard to case; where several methods match a name, the first one reported by the class is used.
+     */
+    private static class PropertyTable {
+
+        /** The getters, keyed by lower-case property name. */
+        private final Map<String, Accessor> _getters = new HashMap<>();
+
+        /** The candidate setters, keyed by lower-case method name. */
+        private final Map<String, List<Accessor>> _setters = new HashMap<>();
+
+        /** The methods which may be called as functions, keyed by lower-case method name. */
+        private final Map<String, Method> _methods = new HashMap<>();
+
+        /** The function objects created so far, keyed by the name used to request them. */
+        private final Map<String, Object> _functions = new ConcurrentHashMap<>();
+
+        /**
+         * Instantiates a new property table.
+         *
+         * @param aClass
+         *            the class whose methods are to be scanned
+         */
+        PropertyTable(Class<?> aClass) {
+            for (Method method : aClass.getMethods()) {
+                String name = method.getName().toLowerCase(Locale.ENGLISH);
+                _methods.putIfAbsent(name, method);
+                if (method.getParameterCount() == 0) {
+                    if (name.startsWith("is")) {
+                        _getters.putIfAbsent(name.substring(2), new Accessor(method));
+                    } else if (name.startsWith("get")) {
+                        _getters.putIfAbsent(name.substring(3), new Accessor(method));
+                    }
+                } else if (method.getParameterCount() == 1 && name.startsWith("set")) {
+                    _setters.computeIfAbsent(name, k -> new ArrayList<>()).add(new Accessor(method));
+                }
+            }
+        }
+
+        /**
+         * Returns the getter for the specified property.
+         *
+         * @param propertyName
+         *            the property name
+         *
+         * @return the getter, or null if there is none
+         */
+        Accessor getGetter(String propertyName) {
+            return _getters.get(propertyName.toLowerCase(Locale.ENGLISH));
+        }
+
+        /**
+         * Returns the setter for the specified property which will accept the specified value.
+         *
+         * @param propertyName
+         *            the property name
+         * @param value
+         *            the value to be set
+         *
+         * @return the setter, or null if there is none
+         */
+        Accessor getSetter(String propertyName, Object value) {
+            List<Accessor> candidates = _setters.get("set" + propertyName.toLowerCase(Locale.ENGLISH));
+            if (candidates == null) {
+                return null;
+            }
+            for (Accessor candidate : candidates) {
+                if (value == null
+                        || isConvertableTo(value.getClass(), candidate.getMethod().getParameterTypes()[0])) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Returns a function object which calls the specified method. The object is created for the first scope in
+         * which it is requested, and shared thereafter.
+         *
+         * @param methodName
+         *            the method name
+         * @param scriptable
+         *            the scope of the function
+         *
+         * @return the function object, or null if there is no such method
+         */
+        FunctionObject getFunction(String methodName, Scriptable scriptable) {
+            Object result = _functions.computeIfAbsent(methodName, name -> {
+                Method method = _methods.get(name.toLowerCase(Locale.ENGLISH));
+                return method == null ? NO_SUCH_FUNCTION : new FunctionObject(name, method, scriptable);
+            });
+            return result == NO_SUCH_FUNCTION ? null : (FunctionObject) result;
+        }
+    }
+
+    // ============================= class Accessor ======================================
+
+    /**
+     * A method used to get or set a property, with a handle through which to call it.
+     */
+    private static class Accessor {
+
+        /** The method. */
+        private final Method _method;
+
+        /** The handle, or null if the method is not accessible through one. */
+        private final MethodHandle _handle;
+
+        /**
+         * Instantiates a new accessor.
+         *
+         * @param method
+         *            the method
+         */
+        Accessor(Method method) {
+            _method = method;
+            MethodHandle handle;
+            try {
+                handle = LOOKUP.unreflect(method);
+                if (Modifier.isStatic(method.getModifiers())) {
+                    handle = MethodHandles.dropArguments(handle, 0, Object.class);
+                }
+                handle = handle.asType(method.getParameterCount() == 0
+                        ? MethodType.methodType(Object.class, Object.class)
+                        : MethodType.methodType(Object.class, Object.class, Object.class));
+            } catch (IllegalAccessException e) {
+                handle = null;
+            }
+            _handle = handle;
+        }
+
+        /**
+         * Returns the method.
+         *
+         * @return the method
+         */
+        Method getMethod() {
+            return _method;
+        }
+
+        /**
+         * Calls the method on the specified target. Errors thrown by the method are passed on unchanged.
+         *
+         * @param target
+         *            the object on which to call the method
+         * @param arguments
+         *            the arguments
+         *
+         * @return the result of the call
+         *
+         * @throws Exception
+         *             if the method cannot be called, or fails
+         */
+        Object invoke(Object target, Object... arguments) throws Exception {
+            try {
+                if (_handle == null) {
+                    return _method.invoke(target, arguments);
+                }
+                return arguments.length == 0 ? _handle.invokeExact(target)
+                        : _handle.invokeExact(target, arguments[0]);
+            } catch (InvocationTargetException e) {
+                throw rethrown(e.getCause());
+            } catch (Throwable e) {
+                throw rethrown(e);
+            }
+        }
+
+        /**
+         * Returns the specified failure as an exception to be thrown, throwing it directly if it is an error.
+         *
+         * @param failure
+         *            the failure
+         *
+         * @return the exception
+         */
+        private static Exception rethrown(Throwable failure) {
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            if (failure instanceof Exception) {
+                return (Exception) failure;
+            }
+            return new UndeclaredThrowableException(failure);
+        }
+    }
 }
@@ -53,6 +53,12 @@ public class JavaScript {
     /** The throw exceptions on error. */
     private static boolean _throwExceptionsOnError = true;
 
+    /** True if pages share a single sealed set of standard objects and HTML classes. */
+    private static volatile boolean _shareStandardObjects;
+
+    /** The sealed scope shared by all pages, built when first needed. */
+    private static ScriptableObject _sharedScope;
+
     /**
      * Checks if is throw exceptions on error.
      *
@@ -72,6 +78,28 @@ public class JavaScript {
         _throwExceptionsOnError = throwExceptionsOnError;
     }
 
+    /**
+     * Checks if pages share the standard objects.
+     *
+     * @return true, if pages share a single sealed set of standard objects
+     */
+    public static boolean isShareStandardObjects() {
+        return _shareStandardObjects;
+    }
+
+    /**
+     * Specifies whether pages share a single set of the standard JavaScript objects and HTML classes, built once and
+     * sealed, or each build their own. Sharing them makes setting up a page much cheaper, but because they are sealed,
+     * scripts may not add to built-in prototypes such as Array.prototype, so it should only be enabled for pages which
+     * do not.
+     *
+     * @param shareStandardObjects
+     *            true to share the standard objects, false to build them for each page (the default)
+     */
+    public static void setShareStandardObjects(boolean shareStandardObjects) {
+        _shareStandardObjects = shareStandardObjects;
+    }
+
     /**
      * Initiates JavaScript execution for the specified web response.
      *
@@ -102,10 +130,17 @@ public class JavaScript {
         // and
 
         context.setOptimizationLevel(HttpUnitOptions.getJavaScriptOptimizationLevel());
-        Scriptable scope = context.initStandardObjects(null);
-        initHTMLObjects(scope);
+        Scriptable scope;
+        if (_shareStandardObjects) {
+            scope = context.newObject(getSharedScope(context));
+            scope.setPrototype(getSharedScope(context));
+            scope.setParentScope(null);
+        } else {
+            scope = context.initStandardObjects(null);
+            initHTMLObjects(scope, false);
+        }
 
-        Window w = (Window) context.newObject(scope, "Window");
+        Window w = (Window) newPageObject(scope, "Window");
         w.initialize(null, response.getScriptableObject());
     }
 
@@ -138,11 +173,60 @@ public class JavaScript {
         response.getScriptableObject().load();
     }
 
+    /**
+     * Returns the scope holding the standard objects and the HTML classes. It is built once and sealed, so that it may
+     * serve as the prototype of the top-level scope of every page without any page being able to change it.
+     *
+     * @param context
+     *            the current context
+     *
+     * @return the shared scope
+     *
+     * @throws IllegalAccessException
+     *             the illegal access exception
+     * @throws InstantiationException
+     *             the instantiation exception
+     * @throws InvocationTargetException
+     *             the invocation target exception
+     * @throws EvaluatorException
+     *             the evaluator exception
+     */
+    static synchronized Scriptable getSharedScope(Context context)
+            throws IllegalAccessException, InstantiationException, InvocationTargetException, EvaluatorException {
+        if (_sharedScope == null) {
+            ScriptableObject scope = context.initStandardObjects(null, true);
+            initHTMLObjects(scope, true);
+            scope.sealObject();
+            _sharedScope = scope;
+        }
+        return _sharedScope;
+    }
+
+    /**
+     * Creates an instance of one of the HTML classes. Rhino places a new instance in the scope in which its class was
+     * defined, which is the shared scope; it is moved to the top-level scope of the page instead, so that any
+     * variables which its scripts create implicitly belong to the page.
+     *
+     * @param scope
+     *            a scope within the page
+     * @param className
+     *            the name of the class
+     *
+     * @return the new object
+     */
+    static Scriptable newPageObject(Scriptable scope, String className) {
+        Scriptable object = Context.getCurrentContext().newObject(scope, className);
+        object.setParentScope(ScriptableObject.getTopLevelScope(scope));
+        return object;
+    }
+
     /**
      * Inits the HTML objects.
      *
      * @param scope
      *            the scope
+     * @param sealed
+     *            whether to seal the classes
      *
      * @throws IllegalAccessException
      *             the illegal access exception
@@ -153,23 +237,22 @@ public class JavaScript {
      * @throws EvaluatorException
      *             the evaluator exception
      */
-    private static void initHTMLObjects(Scriptable scope)
+    private static void initHTMLObjects(Scriptable scope, boolean sealed)
             throws IllegalAccessException, InstantiationException, InvocationTargetException, EvaluatorException {
-        ScriptableObject.defineClass(scope, Window.class);
-        ScriptableObject.defineClass(scope, Document.class);
-        ScriptableObject.defineClass(scope, Style.class);
-        ScriptableObject.defineClass(scope, Location.class);
-        ScriptableObject.defineClass(scope, Navigator.class);
-        ScriptableObject.defineClass(scope, Screen.class);
-        ScriptableObject.defineClass(scope, Link.class);
-        ScriptableObject.defineClass(scope, Form.class);
-        ScriptableObject.defineClass(scope, Control.class);
-        ScriptableObject.defineClass(scope, Link.class);
-        ScriptableObject.defineClass(scope, Image.class);
-        ScriptableObject.defineClass(scope, Options.class);
-        ScriptableObject.defineClass(scope, Option.class);
-        ScriptableObject.defineClass(scope, ElementArray.class);
-        ScriptableObject.defineClass(scope, HTMLElement.class);
+        ScriptableObject.defineClass(scope, Window.class, sealed);
+        ScriptableObject.defineClass(scope, Document.class, sealed);
+        ScriptableObject.defineClass(scope, Style.class, sealed);
+        ScriptableObject.defineClass(scope, Location.class, sealed);
+        ScriptableObject.defineClass(scope, Navigator.class, sealed);
+        ScriptableObject.defineClass(scope, Screen.class, sealed);
+        ScriptableObject.defineClass(scope, Link.class, sealed);
+        ScriptableObject.defineClass(scope, Form.class, sealed);
+        ScriptableObject.defineClass(scope, Control.class, sealed);
+        ScriptableObject.defineClass(scope, Image.class, sealed);
+        ScriptableObject.defineClass(scope, Options.class, sealed);
+        ScriptableObject.defineClass(scope, Option.class, sealed);
+        ScriptableObject.defineClass(scope, ElementArray.class, sealed);
+        ScriptableObject.defineClass(scope, HTMLElement.class, sealed);
     }
 
     /**
@@ -379,8 +462,7 @@ public class JavaScript {
                 return delegate.getScriptEngine();
             }
             try {
-                JavaScriptEngine element = (JavaScriptEngine) Context.getCurrentContext().newObject(this,
-                        getScriptableClassName(delegate));
+                JavaScriptEngine element = (JavaScriptEngine) newPageObject(this, getScriptableClassName(delegate));
                 element.initialize(this, delegate);
                 return element;
             } catch (RuntimeException e) {
@@ -579,7 +661,7 @@ public class JavaScript {
                 for (int i = 0; i < frames.length; i++) {
                     frames[i] = (Window) toScriptable(scriptables[i]);
                 }
-                _frames = (ElementArray) Context.getCurrentContext().newObject(this, "ElementArray");
+                _frames = (ElementArray) newPageObject(this, "ElementArray");
                 _frames.initialize(frames);
             }
             return _frames;
@@ -654,13 +736,13 @@ public class JavaScript {
                 throws JavaScriptException, EvaluatorException, SAXException {
             super.initialize(parent, scriptable);
 
-            _location = (Location) Context.getCurrentContext().newObject(this, "Location");
+            _location = (Location) newPageObject(this, "Location");
             _location.initialize(this, ((WebResponse.Scriptable) scriptable).getURL());
 
-            _navigator = (Navigator) Context.getCurrentContext().newObject(this, "Navigator");
+            _navigator = (Navigator) newPageObject(this, "Navigator");
             _navigator.setClientProperties(getDelegate().getClientProperties());
 
-            _screen = (Screen) Context.getCurrentContext().newObject(this, "Screen");
+            _screen = (Screen) newPageObject(this, "Screen");
             _screen.setClientProperties(getDelegate().getClientProperties());
         }
 
@@ -1492,7 +1574,7 @@ public class JavaScript {
          */
         static ElementArray newElementArray(Scriptable parent) {
             try {
-                return (ElementArray) Context.getCurrentContext().newObject(parent, "ElementArray");
+                return (ElementArray) newPageObject(parent, "ElementArray");
             } catch (EvaluatorException | JavaScriptException e) {
                 throw new RhinoException(e);
             }
@@ -1615,7 +1697,7 @@ public class JavaScript {
                 throws JavaScriptException, EvaluatorException, SAXException {
             super.initialize(parent, scriptable);
             _document = (Document) parent;
-            _style = (Style) Context.getCurrentContext().newObject(this, "Style");
+            _style = (Style) newPageObject(this, "Style");
         }
 
     }
@@ -1777,7 +1859,7 @@ public class JavaScript {
             for (int i = 0; i < controls.length; i++) {
                 controls[i] = (Control) toScriptable(scriptables[i]);
             }
-            _controls = (ElementArray) Context.getCurrentContext().newObject(this, "ElementArray");
+            _controls = (ElementArray) newPageObject(this, "ElementArray");
             _controls.initialize(controls);
         }
 
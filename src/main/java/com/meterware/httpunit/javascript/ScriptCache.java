@@ -0,0 +1,136 @@
+/*
+ * SPDX-License-Identifier: MIT
+ * See LICENSE file for details.
+ *
+ * Copyright 2000-2026 Russell Gold
+ * Copyright 2021-2026 hazendaz
+ */
+package com.meterware.httpunit.javascript;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Script;
+
+/**
+ * A bounded cache of compiled scripts, keyed by their source and whether they were compiled for the interpreter.
+ * Compiled scripts do not depend on the scope in which they run, so pages which include the same scripts or event
+ * handlers share them. The least recently used script is dropped once the cache is full.
+ */
+class ScriptCache {
+
+    /** The maximum number of scripts to keep. */
+    private int _maxSize;
+
+    /** The number of lookups which found a compiled script. */
+    private long _hits;
+
+    /** The number of lookups which had to compile the script. */
+    private long _misses;
+
+    /** The compiled scripts, in order of use. */
+    private final Map<List<Object>, Script> _scripts = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, Script> eldest) {
+            return size() > _maxSize;
+        }
+    };
+
+    /**
+     * Instantiates a new script cache.
+     *
+     * @param maxSize
+     *            the maximum number of scripts to keep
+     */
+    ScriptCache(int maxSize) {
+        setMaxSize(maxSize);
+    }
+
+    /**
+     * Returns the compiled form of the specified source, compiling it in the current mode of the context, interpreted
+     * or compiled, if it is not already cached. Scripts which fail to compile are not cached.
+     *
+     * @param context
+     *            the current context
+     * @param source
+     *            the source of the script
+     *
+     * @return the compiled script
+     */
+    Script getScript(Context context, String source) {
+        List<Object> key = Arrays.asList(context.isInterpretedMode(), source);
+        synchronized (this) {
+            Script script = _scripts.get(key);
+            if (script != null) {
+                _hits++;
+                return script;
+            }
+            _misses++;
+        }
+        Script script = context.compileString(source, "httpunit", 0, null);
+        synchronized (this) {
+            if (_maxSize > 0) {
+                _scripts.put(key, script);
+            }
+        }
+        return script;
+    }
+
+    /**
+     * Returns the maximum number of scripts to keep.
+     *
+     * @return the maximum size
+     */
+    synchronized int getMaxSize() {
+        return _maxSize;
+    }
+
+    /**
+     * Specifies the maximum number of scripts to keep, dropping the least recently used ones if there are more.
+     *
+     * @param maxSize
+     *            the maximum size, or 0 to cache nothing
+     */
+    synchronized void setMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize may not be negative: " + maxSize);
+        }
+        _maxSize = maxSize;
+        while (_scripts.size() > _maxSize) {
+            _scripts.remove(_scripts.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * Returns the number of lookups which found a compiled script.
+     *
+     * @return the hit count
+     */
+    synchronized long getHits() {
+        return _hits;
+    }
+
+    /**
+     * Returns the number of lookups which had to compile the script.
+     *
+     * @return the miss count
+     */
+    synchronized long getMisses() {
+        return _misses;
+    }
+
+    /**
+     * Discards all cached scripts and resets the counters.
+     */
+    synchronized void clear() {
+        _scripts.clear();
+        _hits = 0;
+        _misses = 0;
+    }
+
+}
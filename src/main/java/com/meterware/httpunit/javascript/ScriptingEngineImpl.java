@@ -33,9 +33,15 @@ public abstract class ScriptingEngineImpl extends ScriptableObject implements Sc
     /** The Constant NO_ARGS. */
     private static final Object[] NO_ARGS = {};
 
+    /** The default maximum number of compiled scripts to keep. */
+    public static final int DEFAULT_SCRIPT_CACHE_SIZE = 500;
+
     /** The error messages. */
     private static ArrayList _errorMessages = new ArrayList<>();
 
+    /** The compiled scripts and event handlers, shared by all pages. */
+    private static final ScriptCache _scriptCache = new ScriptCache(DEFAULT_SCRIPT_CACHE_SIZE);
+
     /**
      * clear the list of error Messages.
      */
@@ -52,6 +58,51 @@ public abstract class ScriptingEngineImpl extends ScriptableObject implements Sc
         return (String[]) _errorMessages.toArray(new String[_errorMessages.size()]);
     }
 
+    /**
+     * Returns the maximum number of compiled scripts and event handlers kept for reuse.
+     *
+     * @return the maximum size of the script cache
+     */
+    public static int getScriptCacheSize() {
+        return _scriptCache.getMaxSize();
+    }
+
+    /**
+     * Specifies the maximum number of compiled scripts and event handlers kept for reuse. The least recently used are
+     * dropped once the limit is reached.
+     *
+     * @param size
+     *            the maximum size of the script cache, or 0 to compile every script each time it is run
+     */
+    public static void setScriptCacheSize(int size) {
+        _scriptCache.setMaxSize(size);
+    }
+
+    /**
+     * Returns the number of times a script or event handler was run without having to be compiled.
+     *
+     * @return the number of script cache hits
+     */
+    public static long getScriptCacheHits() {
+        return _scriptCache.getHits();
+    }
+
+    /**
+     * Returns the number of times a script or event handler had to be compiled before it was run.
+     *
+     * @return the number of script cache misses
+     */
+    public static long getScriptCacheMisses() {
+        return _scriptCache.getMisses();
+    }
+
+    /**
+     * Discards all compiled scripts and resets the cache counters.
+     */
+    public static void clearScriptCache() {
+        _scriptCache.clear();
+    }
+
     /**
      * handle Exceptions.
      *
@@ -107,8 +158,7 @@ public abstract class ScriptingEngineImpl extends ScriptableObject implements Sc
                 }
             }
             Context context = Context.enter();
-            context.initStandardObjects(null);
-            context.evaluateString(this, script, "httpunit", 0, null);
+            _scriptCache.getScript(context, script).exec(context, this, this);
             return getDocumentWriteBuffer();
         } catch (Exception e) {
             handleScriptException(e, "Script '" + script + "'");
@@ -146,10 +196,10 @@ public abstract class ScriptingEngineImpl extends ScriptableObject implements Sc
         }
         try {
             Context context = Context.enter();
-            context.initStandardObjects(null);
             context.setOptimizationLevel(-1);
-            // wrap the eventScript into a function
-            Function f = context.compileFunction(this, "function x() { " + eventScript + "}", "httpunit", 0, null);
+            // wrap the eventScript into a function expression, which may be compiled once and bound to any scope
+            Function f = (Function) _scriptCache.getScript(context, "(function x() { " + eventScript + "})")
+                    .exec(context, this, this);
             // call the function with no arguments
             Object result = f.call(context, this, this, NO_ARGS);
             // return the result of the function or false if it is not boolean
@@ -186,8 +236,7 @@ public abstract class ScriptingEngineImpl extends ScriptableObject implements Sc
     public Object evaluateExpression(String expression) {
         try {
             Context context = Context.enter();
-            context.initStandardObjects(null);
-            Object result = context.evaluateString(this, expression, "httpunit", 0, null);
+            Object result = _scriptCache.getScript(context, expression).exec(context, this, this);
             return result == null || result instanceof Undefined ? null : result;
         } catch (Exception e) {
             handleScriptException(e, "URL '" + expression + "'");
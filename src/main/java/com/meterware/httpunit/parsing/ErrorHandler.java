@@ -0,0 +1,63 @@
+/*
+ * SPDX-License-Identifier: MIT
+ * See LICENSE file for details.
+ *
+ * Copyright 2000-2026 Russell Gold
+ * Copyright 2021-2026 hazendaz
+ */
+package com.meterware.httpunit.parsing;
+
+import java.net.URL;
+import java.util.List;
+
+import org.apache.xerces.xni.XNIException;
+import org.apache.xerces.xni.parser.XMLErrorHandler;
+import org.apache.xerces.xni.parser.XMLParseException;
+
+/**
+ * The Class ErrorHandler.
+ */
+class ErrorHandler implements XMLErrorHandler {
+
+    /** The url. */
+    private URL _url;
+
+    /**
+     * Instantiates a new error handler.
+     *
+     * @param url
+     *            the url
+     */
+    ErrorHandler(URL url) {
+        _url = url;
+    }
+
+    @Override
+    public void warning(String domain, String key, XMLParseException warningException) throws XNIException {
+        if (HTMLParserFactory.isParserWarningsEnabled()) {
+            System.out.println("At line " + warningException.getLineNumber() + ", column "
+                    + warningException.getColumnNumber() + ": " + warningException.getMessage());
+        }
+
+        List<HTMLParserListener> listeners = HTMLParserFactory.getHTMLParserListeners();
+        for (HTMLParserListener listener : listeners) {
+            listener.warning(_url, warningException.getMessage(), warningException.getLineNumber(),
+                    warningException.getColumnNumber());
+        }
+    }
+
+    @Override
+    public void error(String domain, String key, XMLParseException errorException) throws XNIException {
+        List<HTMLParserListener> listeners = HTMLParserFactory.getHTMLParserListeners();
+        for (HTMLParserListener listener : listeners) {
+            listener.error(_url, errorException.getMessage(), errorException.getLineNumber(),
+                    errorException.getColumnNumber());
+        }
+    }
+
+    @Override
+    public void fatalError(String domain, String key, XMLParseException fatalError) throws XNIException {
+        error(domain, key, fatalError);
+        throw fatalError;
+    }
+}
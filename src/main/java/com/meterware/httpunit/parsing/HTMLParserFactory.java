@@ -7,10 +7,14 @@
  */
 package com.meterware.httpunit.parsing;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.xml.sax.SAXException;
+
 /**
  * Factory for creating HTML parsers. Parser customization properties can be specified but do not necessarily work for
  * every parser type.
@@ -267,6 +271,30 @@ public abstract class HTMLParserFactory {
         _listeners.add(el);
     }
 
+    /**
+     * Scans the specified page text, reporting its elements to the listener without building a document or running
+     * any scripts. The scan always uses NekoHTML, whichever parser is selected, and reports warnings and errors to the
+     * registered HTML parser listeners.
+     *
+     * @param pageURL
+     *            the URL of the page, used when reporting warnings and errors
+     * @param pageText
+     *            the page text
+     * @param listener
+     *            the listener to notify of each element
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @throws SAXException
+     *             if the page cannot be scanned
+     */
+    public static void scan(URL pageURL, String pageText, HTMLScanListener listener) throws IOException, SAXException {
+        if (_nekoParser == null) {
+            throw new RuntimeException("NekoHTML parser not available");
+        }
+        new NekoHTMLScanner(listener).scan(pageURL, pageText);
+    }
+
     // ------------------------------------- package protected members
     // ------------------------------------------------------
 
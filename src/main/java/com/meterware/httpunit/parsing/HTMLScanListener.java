@@ -0,0 +1,46 @@
+/*
+ * SPDX-License-Identifier: MIT
+ * See LICENSE file for details.
+ *
+ * Copyright 2000-2026 Russell Gold
+ * Copyright 2021-2026 hazendaz
+ */
+package com.meterware.httpunit.parsing;
+
+import java.util.Map;
+
+/**
+ * A listener for the elements of a page as they are scanned by {@link HTMLParserFactory#scan}. Unlike a full parse, a
+ * scan builds no document and runs no scripts, which makes it suitable for extracting a few elements from many pages.
+ * The events arrive with the tags balanced as the parser would balance them; element and attribute names are always in
+ * lower case.
+ */
+public interface HTMLScanListener {
+
+    /**
+     * Invoked at the start of each element, including elements with no content.
+     *
+     * @param name
+     *            the name of the element
+     * @param attributes
+     *            the attributes of the element, in the order in which they appeared
+     */
+    void startElement(String name, Map<String, String> attributes);
+
+    /**
+     * Invoked at the end of each element.
+     *
+     * @param name
+     *            the name of the element
+     */
+    void endElement(String name);
+
+    /**
+     * Invoked for text found in the page, with any entities already replaced. The text of an element may be reported
+     * in several pieces.
+     *
+     * @param text
+     *            the text
+     */
+    void characters(String text);
+}
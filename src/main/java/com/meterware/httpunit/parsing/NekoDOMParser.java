@@ -12,16 +12,13 @@ import com.meterware.httpunit.scripting.ScriptingHandler;
 
 import java.io.IOException;
 import java.net.URL;
-import java.util.List;
 
 import net.sourceforge.htmlunit.cyberneko.HTMLConfiguration;
+import net.sourceforge.htmlunit.cyberneko.HTMLElements;
 
 import org.apache.xerces.parsers.AbstractDOMParser;
 import org.apache.xerces.parsers.DOMParser;
-import org.apache.xerces.xni.XNIException;
 import org.apache.xerces.xni.parser.XMLDocumentFilter;
-import org.apache.xerces.xni.parser.XMLErrorHandler;
-import org.apache.xerces.xni.parser.XMLParseException;
 import org.w3c.dom.Element;
 import org.w3c.dom.html.HTMLDocument;
 import org.xml.sax.SAXNotRecognizedException;
@@ -33,7 +30,7 @@ import org.xml.sax.SAXNotSupportedException;
 class NekoDOMParser extends DOMParser implements ScriptHandler {
 
     /** Error reporting feature identifier. */
-    private static final String REPORT_ERRORS = "http://cyberneko.org/html/features/report-errors";
+    static final String REPORT_ERRORS = "http://cyberneko.org/html/features/report-errors";
 
     /** Augmentations feature identifier. */
     private static final String AUGMENTATIONS = "http://cyberneko.org/html/features/augmentations";
@@ -42,10 +39,17 @@ class NekoDOMParser extends DOMParser implements ScriptHandler {
     private static final String FILTERS = "http://cyberneko.org/html/properties/filters";
 
     /** Element case settings. possible values: "upper", "lower", "match" */
-    private static final String TAG_NAME_CASE = "http://cyberneko.org/html/properties/names/elems";
+    static final String TAG_NAME_CASE = "http://cyberneko.org/html/properties/names/elems";
 
     /** Attribute case settings. possible values: "upper", "lower", "no-change" */
-    private static final String ATTRIBUTE_NAME_CASE = "http://cyberneko.org/html/properties/names/attrs";
+    static final String ATTRIBUTE_NAME_CASE = "http://cyberneko.org/html/properties/names/attrs";
+
+    /**
+     * The definitions of the HTML elements. Building them is a large part of the cost of a new configuration, and they
+     * are never changed once built, so all parsers share them. The rest of a configuration cannot be shared or reused,
+     * as the NekoHTML tag balancer keeps some state from one document to the next.
+     */
+    static final HTMLElements HTML_ELEMENTS = new HTMLElements();
 
     /** The document adapter. */
     private DocumentAdapter _documentAdapter;
@@ -62,7 +66,7 @@ class NekoDOMParser extends DOMParser implements ScriptHandler {
      *         Allow configuration of neko parser properties by James Abley
      */
     static NekoDOMParser newParser(DocumentAdapter adapter, URL url) {
-        final HTMLConfiguration configuration = new HTMLConfiguration();
+        final HTMLConfiguration configuration = new HTMLConfiguration(HTML_ELEMENTS);
         // note: Introduced in 1.9.9 nekohtml but doesn't apply against header but rather body and thus doesn't solve
         // issue with <noscript> needs.
         // configuration.setFeature(HTMLScanner.PARSE_NOSCRIPT_CONTENT, false);
@@ -194,51 +198,3 @@ class NekoDOMParser extends DOMParser implements ScriptHandler {
         }
     }
 }
-
-/**
- * The Class ErrorHandler.
- */
-class ErrorHandler implements XMLErrorHandler {
-
-    /** The url. */
-    private URL _url;
-
-    /**
-     * Instantiates a new error handler.
-     *
-     * @param url
-     *            the url
-     */
-    ErrorHandler(URL url) {
-        _url = url;
-    }
-
-    @Override
-    public void warning(String domain, String key, XMLParseException warningException) throws XNIException {
-        if (HTMLParserFactory.isParserWarningsEnabled()) {
-            System.out.println("At line " + warningException.getLineNumber() + ", column "
-                    + warningException.getColumnNumber() + ": " + warningException.getMessage());
-        }
-
-        List<HTMLParserListener> listeners = HTMLParserFactory.getHTMLParserListeners();
-        for (HTMLParserListener listener : listeners) {
-            listener.warning(_url, warningException.getMessage(), warningException.getLineNumber(),
-                    warningException.getColumnNumber());
-        }
-    }
-
-    @Override
-    public void error(String domain, String key, XMLParseException errorException) throws XNIException {
-        List<HTMLParserListener> listeners = HTMLParserFactory.getHTMLParserListeners();
-        for (HTMLParserListener listener : listeners) {
-            listener.error(_url, errorException.getMessage(), errorException.getLineNumber(),
-                    errorException.getColumnNumber());
-        }
-    }
-
-    @Override
-    public void fatalError(String domain, String key, XMLParseException fatalError) throws XNIException {
-        error(domain, key, fatalError);
-        throw fatalError;
-    }
-}
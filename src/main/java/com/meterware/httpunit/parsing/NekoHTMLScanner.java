@@ -0,0 +1,113 @@
+/*
+ * SPDX-License-Identifier: MIT
+ * See LICENSE file for details.
+ *
+ * Copyright 2000-2026 Russell Gold
+ * Copyright 2021-2026 hazendaz
+ */
+package com.meterware.httpunit.parsing;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.sourceforge.htmlunit.cyberneko.HTMLConfiguration;
+import net.sourceforge.htmlunit.cyberneko.filters.DefaultFilter;
+
+import org.apache.xerces.xni.Augmentations;
+import org.apache.xerces.xni.QName;
+import org.apache.xerces.xni.XMLAttributes;
+import org.apache.xerces.xni.XMLString;
+import org.apache.xerces.xni.XNIException;
+import org.apache.xerces.xni.parser.XMLInputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * Passes the element events reported by the NekoHTML scanner and tag balancer to a {@link HTMLScanListener}, without
+ * building a document.
+ */
+class NekoHTMLScanner extends DefaultFilter {
+
+    /** The listener to notify. */
+    private final HTMLScanListener _listener;
+
+    /**
+     * Instantiates a new neko HTML scanner.
+     *
+     * @param listener
+     *            the listener to notify
+     */
+    NekoHTMLScanner(HTMLScanListener listener) {
+        _listener = listener;
+    }
+
+    /**
+     * Scans the specified page text, notifying the listener of each element.
+     *
+     * @param pageURL
+     *            the URL of the page, used to report parser warnings
+     * @param pageText
+     *            the page text
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @throws SAXException
+     *             if the page cannot be scanned
+     */
+    void scan(URL pageURL, String pageText) throws IOException, SAXException {
+        HTMLConfiguration configuration = new HTMLConfiguration(NekoDOMParser.HTML_ELEMENTS);
+        if (!HTMLParserFactory.getHTMLParserListeners().isEmpty() || HTMLParserFactory.isParserWarningsEnabled()) {
+            configuration.setErrorHandler(new ErrorHandler(pageURL));
+            configuration.setFeature(NekoDOMParser.REPORT_ERRORS, true);
+        }
+        configuration.setProperty(NekoDOMParser.TAG_NAME_CASE, "lower");
+        configuration.setProperty(NekoDOMParser.ATTRIBUTE_NAME_CASE, "lower");
+        configuration.setDocumentHandler(this);
+        try {
+            configuration.parse(new XMLInputSource(null, pageURL == null ? null : pageURL.toExternalForm(), null,
+                    new StringReader(pageText), null));
+        } catch (XNIException e) {
+            throw new SAXException(e.getMessage(), e.getException());
+        }
+    }
+
+    @Override
+    public void startElement(QName element, XMLAttributes attrs, Augmentations augs) throws XNIException {
+        _listener.startElement(element.rawname, toMap(attrs));
+    }
+
+    @Override
+    public void emptyElement(QName element, XMLAttributes attrs, Augmentations augs) throws XNIException {
+        _listener.startElement(element.rawname, toMap(attrs));
+        _listener.endElement(element.rawname);
+    }
+
+    @Override
+    public void endElement(QName element, Augmentations augs) throws XNIException {
+        _listener.endElement(element.rawname);
+    }
+
+    @Override
+    public void characters(XMLString text, Augmentations augs) throws XNIException {
+        _listener.characters(text.toString());
+    }
+
+    /**
+     * Copies the specified attributes into a map.
+     *
+     * @param attrs
+     *            the attributes
+     *
+     * @return the attribute values, keyed by name
+     */
+    private static Map<String, String> toMap(XMLAttributes attrs) {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (int i = 0; attrs != null && i < attrs.getLength(); i++) {
+            result.put(attrs.getQName(i), attrs.getValue(i));
+        }
+        return result;
+    }
+
+}
@@ -71,4 +71,36 @@ public abstract class MessageBody {
      *             Signals that an I/O exception has occurred.
      */
     public abstract void writeTo(OutputStream outputStream, ParameterCollection parameters) throws IOException;
+
+    /**
+     * Returns the number of bytes which {@link #writeTo} will transmit, if that can be determined without producing
+     * them. This default implementation reports that the length is not known.
+     *
+     * @param parameters
+     *            the parameters
+     *
+     * @return the length in bytes, or -1 if it is not known
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public long getContentLength(ParameterCollection parameters) throws IOException {
+        return -1;
+    }
+
+    /**
+     * Returns true if this body should be streamed to the server as it is written, rather than first collected in
+     * memory so that its length can be sent. This default implementation returns false.
+     *
+     * @param parameters
+     *            the parameters
+     *
+     * @return true, if the body should be streamed
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    public boolean isStreamed(ParameterCollection parameters) throws IOException {
+        return false;
+    }
 }
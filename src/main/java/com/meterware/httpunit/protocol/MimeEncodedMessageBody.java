@@ -8,7 +8,6 @@
 package com.meterware.httpunit.protocol;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
 
@@ -46,6 +45,28 @@ class MimeEncodedMessageBody extends MessageBody {
         encoding.sendClose();
     }
 
+    /**
+     * Returns the length of this body, which is known if the length of every uploaded file is known.
+     **/
+    @Override
+    public long getContentLength(ParameterCollection parameters) throws IOException {
+        LengthCalculation calculation = new LengthCalculation();
+        parameters.recordParameters(calculation);
+        calculation.sendClose();
+        return calculation.getLength();
+    }
+
+    /**
+     * Returns true if the body includes an uploaded file. A body without one is small, and is sent buffered so that the
+     * connection can still read an authentication challenge in reply to it.
+     **/
+    @Override
+    public boolean isStreamed(ParameterCollection parameters) throws IOException {
+        UploadDetection detection = new UploadDetection();
+        parameters.recordParameters(detection);
+        return detection.hasUpload();
+    }
+
     /** The Constant BOUNDARY. */
     private static final String BOUNDARY = "--HttpUnit-part0-aSgQ2M";
 
@@ -183,27 +204,138 @@ class MimeEncodedMessageBody extends MessageBody {
 
         @Override
         public void addFile(String name, UploadFileSpec spec) throws IOException {
-            byte[] buffer = new byte[8 * 1024];
-
             writeLn(_outputStream, "--" + BOUNDARY);
             writeLn(_outputStream, "Content-Disposition: form-data; name=\"" + encode(name) + "\"; filename=\""
                     + encode(spec.getFileName()) + '"'); // XXX need to handle non-ascii names here
             writeLn(_outputStream, "Content-Type: " + spec.getContentType());
             writeLn(_outputStream, "");
-
-            InputStream in = spec.getInputStream();
-            int count = 0;
-            do {
-                _outputStream.write(buffer, 0, count);
-                count = in.read(buffer, 0, buffer.length);
-            } while (count != -1);
-
-            in.close();
+            writeContents(spec);
             writeLn(_outputStream, "");
         }
 
+        /**
+         * Writes the contents of an uploaded file.
+         *
+         * @param spec
+         *            the file specification
+         *
+         * @throws IOException
+         *             Signals that an I/O exception has occurred.
+         */
+        void writeContents(UploadFileSpec spec) throws IOException {
+            spec.writeTo(_outputStream);
+        }
+
         /** The output stream. */
         private OutputStream _outputStream;
     }
 
+    /**
+     * Computes the length of the encoded body without reading the uploaded files. The parts are encoded as usual, but
+     * only counted; each file contributes its known length.
+     */
+    class LengthCalculation extends MimeEncoding {
+
+        /** The counter for the encoded bytes other than file contents. */
+        private final ByteCounter _counter;
+
+        /** The total length of the file contents. */
+        private long _fileLength;
+
+        /** True if the length of some file is not known. */
+        private boolean _lengthUnknown;
+
+        /**
+         * Instantiates a new length calculation.
+         */
+        LengthCalculation() {
+            this(new ByteCounter());
+        }
+
+        /**
+         * Instantiates a new length calculation.
+         *
+         * @param counter
+         *            the counter for the encoded bytes
+         */
+        private LengthCalculation(ByteCounter counter) {
+            super(counter);
+            _counter = counter;
+        }
+
+        @Override
+        void writeContents(UploadFileSpec spec) {
+            long length = spec.getLength();
+            if (length < 0) {
+                _lengthUnknown = true;
+            } else {
+                _fileLength += length;
+            }
+        }
+
+        /**
+         * Returns the length of the encoded body.
+         *
+         * @return the length, or -1 if it is not known
+         */
+        long getLength() {
+            return _lengthUnknown ? -1 : _counter.getCount() + _fileLength;
+        }
+    }
+
+    /**
+     * Determines whether the parameters include an uploaded file.
+     */
+    static class UploadDetection implements ParameterProcessor {
+
+        /** True if a file has been seen. */
+        private boolean _hasUpload;
+
+        @Override
+        public void addParameter(String name, String value, String characterSet) {
+        }
+
+        @Override
+        public void addFile(String parameterName, UploadFileSpec fileSpec) {
+            _hasUpload = true;
+        }
+
+        /**
+         * Returns true if a file was recorded.
+         *
+         * @return true, if there is an upload
+         */
+        boolean hasUpload() {
+            return _hasUpload;
+        }
+    }
+
+    /**
+     * An output stream which discards its contents, counting them.
+     */
+    static class ByteCounter extends OutputStream {
+
+        /** The number of bytes written. */
+        private long _count;
+
+        @Override
+        public void write(int b) {
+            _count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            _count += len;
+        }
+
+        /**
+         * Returns the number of bytes written.
+         *
+         * @return the count
+         */
+        long getCount() {
+            return _count;
+        }
+    }
+
 }
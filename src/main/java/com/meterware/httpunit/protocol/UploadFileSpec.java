@@ -10,6 +10,7 @@ package com.meterware.httpunit.protocol;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 
 /**
@@ -77,6 +78,57 @@ public class UploadFileSpec {
         return _inputStream;
     }
 
+    /**
+     * Returns the number of bytes to be uploaded, if it is known in advance. This is the case only for a specification
+     * based on a File object.
+     *
+     * @return the length of the file, or -1 if the contents are read from an input stream
+     */
+    public long getLength() {
+        return _file == null ? -1 : _file.length();
+    }
+
+    /**
+     * Writes the contents to be uploaded to the specified stream. The contents of a file are copied through a single
+     * small buffer, so that the whole file is never held in memory.
+     *
+     * @param outputStream
+     *            the stream to which the contents are written
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    void writeTo(OutputStream outputStream) throws IOException {
+        if (_file == null) {
+            copyInputStream(outputStream);
+            return;
+        }
+        try (InputStream in = Files.newInputStream(_file.toPath())) {
+            in.transferTo(outputStream);
+        }
+    }
+
+    /**
+     * Copies the input stream to the specified stream, and closes it.
+     *
+     * @param outputStream
+     *            the stream to which the contents are written
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void copyInputStream(OutputStream outputStream) throws IOException {
+        byte[] buffer = new byte[8 * 1024];
+        InputStream in = getInputStream();
+        int count = 0;
+        do {
+            outputStream.write(buffer, 0, count);
+            count = in.read(buffer, 0, buffer.length);
+        } while (count != -1);
+
+        in.close();
+    }
+
     /**
      * Gets the file name.
      *
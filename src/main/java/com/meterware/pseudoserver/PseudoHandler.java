@@ -0,0 +1,33 @@
+/*
+ * SPDX-License-Identifier: MIT
+ * See LICENSE file for details.
+ *
+ * Copyright 2000-2026 Russell Gold
+ * Copyright 2021-2026 hazendaz
+ */
+package com.meterware.pseudoserver;
+
+import java.io.IOException;
+
+/**
+ * A dynamically created resource which computes its response from the request alone. Unlike a {@link PseudoServlet},
+ * a handler is handed the request rather than keeping it in a field, so a single handler which keeps no other state
+ * may serve any number of requests at once.
+ **/
+@FunctionalInterface
+public interface PseudoHandler {
+
+    /**
+     * Returns the resource to send in response to the specified request.
+     *
+     * @param request
+     *            the request
+     *
+     * @return the response
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    WebResource getResponse(HttpRequest request) throws IOException;
+
+}
@@ -18,20 +18,42 @@ import java.io.OutputStreamWriter;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Enumeration;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.StringTokenizer;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
- * A basic simulated web-server for testing user agents without a web server.
+ * A basic simulated web-server for testing user agents without a web server. Each connection is served by a worker
+ * drawn from a pool, which may be limited in size; connections accepted while all workers are busy wait until one is
+ * free.
  **/
 public class PseudoServer {
 
@@ -44,8 +66,11 @@ public class PseudoServer {
     /** The Constant DEFAULT_SOCKET_TIMEOUT. */
     static final int DEFAULT_SOCKET_TIMEOUT = 1000;
 
-    /** The Constant INPUT_POLL_INTERVAL. */
-    private static final int INPUT_POLL_INTERVAL = 10;
+    /** The number of unknown URIs remembered so that repeated requests for them are answered at once. */
+    private static final int MAX_NOT_FOUND_ENTRIES = 256;
+
+    /** Time in msec an idle worker thread is kept before it is released. */
+    private static final int WORKER_IDLE_TIME = 60000;
 
     /** Time in msec to wait for an outstanding server socket to be released before creating a new one. **/
     private static int _socketReleaseWaitTime = 50;
@@ -59,11 +84,11 @@ public class PseudoServer {
     /** The server num. */
     private int _serverNum = 0;
 
-    /** The connection num. */
-    private int _connectionNum = 0;
+    /** The worker num. */
+    private final AtomicInteger _workerNum = new AtomicInteger();
 
     /** The classpath dirs. */
-    private ArrayList _classpathDirs = new ArrayList<>();
+    private final List<String> _classpathDirs = new CopyOnWriteArrayList<>();
 
     /** The max protocol level. */
     private String _maxProtocolLevel = "1.1";
@@ -71,6 +96,18 @@ public class PseudoServer {
     /** The socket timeout. */
     private final int _socketTimeout;
 
+    /** The maximum number of connections served at once, or 0 if not limited. */
+    private final int _maxWorkers;
+
+    /** Time in msec an idle persistent connection is kept open, or 0 to keep it until the server shuts down. */
+    private volatile int _keepAliveTimeout;
+
+    /** The workers which serve the connections. */
+    private final ExecutorService _workers;
+
+    /** The connections currently open. */
+    private final Set<Socket> _connections = ConcurrentHashMap.newKeySet();
+
     /**
      * Returns the amount of time the pseudo server will wait for a server socket to be released (in msec) before
      * allocating a new one. See also {@link #getWaitThreshhold getWaitThreshhold}.
@@ -127,11 +164,30 @@ public class PseudoServer {
      *            - the time out to use
      */
     public PseudoServer(int socketTimeout) {
+        this(socketTimeout, 0);
+    }
+
+    /**
+     * create a PseudoServer with the given socketTimeout which serves at most the given number of connections at once.
+     *
+     * @param socketTimeout
+     *            - the time out to use
+     * @param maxWorkers
+     *            - the maximum number of connections to serve at once, or 0 for no limit
+     */
+    public PseudoServer(int socketTimeout, int maxWorkers) {
+        if (maxWorkers < 0) {
+            throw new IllegalArgumentException("maxWorkers may not be negative: " + maxWorkers);
+        }
         _socketTimeout = socketTimeout;
+        _maxWorkers = maxWorkers;
         _serverNum = ++_numServers;
+        _workers = createWorkers(maxWorkers);
 
         try {
-            _serverSocket = new ServerSocket(0);
+            // a server socket opened through a channel accepts sockets whose channels can receive files directly
+            _serverSocket = ServerSocketChannel.open().socket();
+            _serverSocket.bind(new InetSocketAddress(0));
             _serverSocket.setSoTimeout(1000);
         } catch (IOException e) {
             System.out.println("Error while creating socket: " + e);
@@ -143,22 +199,14 @@ public class PseudoServer {
                 while (_active) {
                     try {
                         handleNewConnection(_serverSocket.accept());
-                        Thread.sleep(20);
                     } catch (InterruptedIOException e) {
                     } catch (IOException e) {
-                        System.out.println("Error in pseudo server: " + e);
-                        HttpUnitUtils.handleException(e);
-                    } catch (InterruptedException e) {
-                        Thread.interrupted();
-                        System.out.println("Interrupted. Shutting down");
-                        _active = false;
+                        if (_active) {
+                            System.out.println("Error in pseudo server: " + e);
+                            HttpUnitUtils.handleException(e);
+                        }
                     }
                 }
-                try {
-                    _serverSocket.close();
-                } catch (IOException e) {
-                    System.out.println("Error while closing socket: " + e);
-                }
                 debug("Pseudoserver shutting down");
             }
         };
@@ -167,11 +215,50 @@ public class PseudoServer {
     }
 
     /**
-     * Shut down.
+     * Shut down. Stops accepting connections and closes those which are open.
      */
     public void shutDown() {
         debug("Requested shutdown of pseudoserver");
         _active = false;
+        try {
+            _serverSocket.close();
+        } catch (IOException e) {
+            System.out.println("Error while closing socket: " + e);
+        }
+        for (Socket socket : _connections) {
+            closeQuietly(socket);
+        }
+        _workers.shutdown();
+    }
+
+    /**
+     * Returns the maximum number of connections this server will serve at once.
+     *
+     * @return the maximum number of workers, or 0 if not limited
+     */
+    public int getMaxWorkers() {
+        return _maxWorkers;
+    }
+
+    /**
+     * Returns the time an idle persistent connection is kept open.
+     *
+     * @return the keep alive timeout in msec, or 0 if idle connections are kept until the server shuts down
+     */
+    public int getKeepAliveTimeout() {
+        return _keepAliveTimeout;
+    }
+
+    /**
+     * Specifies the time an idle persistent connection is kept open. When the server limits the number of workers, a
+     * timeout lets idle connections give up their workers to waiting ones.
+     *
+     * @param keepAliveTimeout
+     *            the keep alive timeout in msec, or 0 to keep idle connections until the server shuts down (the
+     *            default)
+     */
+    public void setKeepAliveTimeout(int keepAliveTimeout) {
+        _keepAliveTimeout = keepAliveTimeout;
     }
 
     /**
@@ -250,7 +337,33 @@ public class PseudoServer {
      *            the servlet
      */
     public void setResource(String name, PseudoServlet servlet) {
-        _resources.put(asResourceName(name), servlet);
+        putResource(asResourceName(name), servlet);
+    }
+
+    /**
+     * Defines a resource whose contents are computed for each request by the specified handler. The handler may be
+     * called for several requests at once.
+     *
+     * @param name
+     *            the name
+     * @param handler
+     *            the handler
+     */
+    public void setResource(String name, PseudoHandler handler) {
+        putResource(asResourceName(name), handler);
+    }
+
+    /**
+     * Defines a resource whose contents are computed for each request by a new servlet obtained from the specified
+     * factory. Since no servlet instance is shared between requests, the servlets need not be thread-safe.
+     *
+     * @param name
+     *            the name
+     * @param factory
+     *            the factory which creates a servlet for each request
+     */
+    public void setResourceFactory(String name, Supplier<? extends PseudoServlet> factory) {
+        putResource(asResourceName(name), (PseudoHandler) request -> getResource(factory.get(), request));
     }
 
     /**
@@ -264,7 +377,7 @@ public class PseudoServer {
      *            the content type
      */
     public void setResource(String name, String value, String contentType) {
-        _resources.put(asResourceName(name), new WebResource(value, contentType));
+        putResource(asResourceName(name), new WebResource(value, contentType));
     }
 
     /**
@@ -278,7 +391,7 @@ public class PseudoServer {
      *            the content type
      */
     public void setResource(String name, byte[] value, String contentType) {
-        _resources.put(asResourceName(name), new WebResource(value, contentType));
+        putResource(asResourceName(name), new WebResource(value, contentType));
     }
 
     /**
@@ -295,7 +408,7 @@ public class PseudoServer {
      */
     public WebResource setErrorResource(String name, int errorCode, String errorMessage) {
         WebResource resource = new WebResource(errorMessage, errorCode);
-        _resources.put(asResourceName(name), resource);
+        putResource(asResourceName(name), resource);
         return resource;
     }
 
@@ -324,12 +437,7 @@ public class PseudoServer {
      *            the character set
      */
     public void setCharacterSet(String name, String characterSet) {
-        WebResource resource = (WebResource) _resources.get(asResourceName(name));
-        if (resource == null) {
-            resource = new WebResource("");
-            _resources.put(asResourceName(name), resource);
-        }
-        resource.setCharacterSet(characterSet);
+        getOrCreateResource(asResourceName(name)).setCharacterSet(characterSet);
     }
 
     /**
@@ -341,12 +449,36 @@ public class PseudoServer {
      *            the header
      */
     public void addResourceHeader(String name, String header) {
-        WebResource resource = (WebResource) _resources.get(asResourceName(name));
-        if (resource == null) {
-            resource = new WebResource("");
-            _resources.put(asResourceName(name), resource);
-        }
-        resource.addHeader(header);
+        getOrCreateResource(asResourceName(name)).addHeader(header);
+    }
+
+    /**
+     * Defines a resource whose contents are read from the specified file each time it is requested.
+     *
+     * @param name
+     *            the name
+     * @param file
+     *            the file
+     * @param contentType
+     *            the content type
+     */
+    public void setFileResource(String name, Path file, String contentType) {
+        putResource(asResourceName(name), new WebResource(file, contentType));
+    }
+
+    /**
+     * Serves the files in a directory tree. A request for a URL beginning with the prefix, for which no resource has
+     * been defined, is answered with the file at the rest of its path under the directory.
+     *
+     * @param urlPrefix
+     *            the prefix of the URLs which map to the directory, such as "/site"
+     * @param directory
+     *            the directory
+     */
+    public void mapToDirectory(String urlPrefix, Path directory) {
+        String prefix = asResourceName(urlPrefix);
+        _directories.put(prefix.endsWith("/") ? prefix : prefix + '/', directory.toAbsolutePath().normalize());
+        _notFound.clear();
     }
 
     /**
@@ -357,6 +489,7 @@ public class PseudoServer {
      */
     public void mapToClasspath(String directory) {
         _classpathDirs.add(directory);
+        _notFound.clear();
     }
 
     /**
@@ -371,15 +504,63 @@ public class PseudoServer {
 
     // ------------------------------------- private members ---------------------------------------
 
-    /** The resources. */
-    private java.util.Map _resources = new java.util.HashMap<>();
+    /** The directories whose files are served, by URL prefix. */
+    private final Map<String, Path> _directories = new ConcurrentHashMap<>();
+
+    /** The file resources found in the mapped directories, by request path without query. */
+    private final Map<String, WebResource> _directoryFiles = new ConcurrentHashMap<>();
+
+    /** The resources, which are WebResources or PseudoServlets, by name. */
+    private final Map<String, Object> _resources = new ConcurrentHashMap<>();
+
+    /** The error resources for the most recently requested URIs for which no resource was found. */
+    private final Map<String, WebResource> _notFound = Collections
+            .synchronizedMap(new LinkedHashMap<String, WebResource>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, WebResource> eldest) {
+                    return size() > MAX_NOT_FOUND_ENTRIES;
+                }
+            });
 
     /** The active. */
-    private boolean _active = true;
+    private volatile boolean _active = true;
 
     /** The debug. */
     private boolean _debug = false;
 
+    /**
+     * Defines or replaces a resource. Since a new resource may match URIs which were not found before, the record of
+     * those is discarded.
+     *
+     * @param name
+     *            the resource name
+     * @param resource
+     *            the WebResource or PseudoServlet
+     */
+    private void putResource(String name, Object resource) {
+        _resources.put(name, resource);
+        _notFound.clear();
+    }
+
+    /**
+     * Returns the web resource with the specified name, defining an empty one if there is none.
+     *
+     * @param name
+     *            the resource name
+     *
+     * @return the web resource
+     */
+    private WebResource getOrCreateResource(String name) {
+        WebResource resource = (WebResource) _resources.get(name);
+        if (resource == null) {
+            resource = (WebResource) _resources.computeIfAbsent(name, k -> new WebResource(""));
+            _notFound.clear();
+        }
+        return resource;
+    }
+
     /**
      * As resource name.
      *
@@ -422,6 +603,26 @@ public class PseudoServer {
         return sb.toString();
     }
 
+    /**
+     * Creates the pool of workers which serve the connections.
+     *
+     * @param maxWorkers
+     *            the maximum number of workers, or 0 for no limit
+     *
+     * @return the executor service
+     */
+    private ExecutorService createWorkers(int maxWorkers) {
+        ThreadFactory factory = runnable -> new Thread(runnable,
+                "PseudoServer " + _serverNum + " worker " + _workerNum.incrementAndGet());
+        if (maxWorkers == 0) {
+            return Executors.newCachedThreadPool(factory);
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxWorkers, maxWorkers, WORKER_IDLE_TIME,
+                TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), factory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     /**
      * Handle new connection.
      *
@@ -429,17 +630,45 @@ public class PseudoServer {
      *            the socket
      */
     private void handleNewConnection(final Socket socket) {
-        Thread t = new Thread("PseudoServer " + _serverNum + " connection " + (++_connectionNum)) {
-            @Override
-            public void run() {
-                try {
-                    serveRequests(socket);
-                } catch (IOException e) {
-                    e.printStackTrace(); // To change body of catch statement use Options | File Templates.
-                }
+        _connections.add(socket);
+        try {
+            _workers.execute(() -> serveConnection(socket));
+        } catch (RejectedExecutionException e) {
+            _connections.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Serves the requests received on a connection until it is closed.
+     *
+     * @param socket
+     *            the socket
+     */
+    private void serveConnection(Socket socket) {
+        try {
+            serveRequests(socket);
+        } catch (IOException e) {
+            if (_active) {
+                e.printStackTrace();
             }
-        };
-        t.start();
+        } finally {
+            _connections.remove(socket);
+        }
+    }
+
+    /**
+     * Close a socket, ignoring any errors.
+     *
+     * @param socket
+     *            the socket
+     */
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // nothing more can be done with it
+        }
     }
 
     /**
@@ -457,23 +686,16 @@ public class PseudoServer {
 
         debug("Created server thread " + socket.getInetAddress() + ':' + socket.getPort());
         final BufferedInputStream inputStream = new BufferedInputStream(socket.getInputStream());
-        final HttpResponseStream outputStream = new HttpResponseStream(socket.getOutputStream());
+        final HttpResponseStream outputStream = new HttpResponseStream(socket.getOutputStream(), socket.getChannel());
 
         try {
-            while (_active) {
+            do {
                 HttpRequest request = new HttpRequest(inputStream);
                 boolean keepAlive = respondToRequest(request, outputStream);
                 if (!keepAlive) {
                     break;
                 }
-                while (_active && 0 == inputStream.available()) {
-                    try {
-                        Thread.sleep(INPUT_POLL_INTERVAL);
-                    } catch (InterruptedException e) {
-                        Thread.interrupted();
-                    }
-                }
-            }
+            } while (awaitNextRequest(socket, inputStream));
         } catch (IOException e) {
             outputStream.restart();
             outputStream.setProtocol("HTTP/1.0");
@@ -485,6 +707,33 @@ public class PseudoServer {
         debug("Server thread closed");
     }
 
+    /**
+     * Blocks until the client starts to send another request on a persistent connection.
+     *
+     * @param socket
+     *            the socket
+     * @param inputStream
+     *            the input stream
+     *
+     * @return true if a request is arriving, false if the client closed the connection, the connection stayed idle
+     *         longer than the keep alive timeout or the server is shutting down
+     */
+    private boolean awaitNextRequest(Socket socket, BufferedInputStream inputStream) {
+        try {
+            socket.setSoTimeout(_keepAliveTimeout);
+            inputStream.mark(1);
+            if (inputStream.read() < 0) {
+                return false;
+            }
+            inputStream.reset();
+            socket.setSoTimeout(_socketTimeout);
+            return _active;
+        } catch (IOException e) {
+            debug("Closing idle connection: " + e);
+            return false;
+        }
+    }
+
     /**
      * respond to the given request.
      *
@@ -511,8 +760,9 @@ public class PseudoServer {
                 // typical 404 error Message
                 String errorMessage = "unable to find " + uri;
                 // make sure there is a resource and
-                // next time we'll take it from the resource Cache
-                resource = setErrorResource(uri, errorCode, errorMessage);
+                // next time we'll take it from the not found cache
+                resource = new WebResource(errorMessage, errorCode);
+                _notFound.put(uri, resource);
                 // set the errorCode for this response
                 response.setResponse(errorCode, errorMessage);
             } else if (resource.getResponseCode() != HttpURLConnection.HTTP_OK) {
@@ -521,6 +771,7 @@ public class PseudoServer {
             if (resource.closesConnection()) {
                 keepAlive = false;
             }
+            resource = resource.forSending();
             String[] headers = resource.getHeaders();
             for (String header : headers) {
                 debug("Server thread sending header: " + header);
@@ -578,22 +829,36 @@ public class PseudoServer {
      *             Signals that an I/O exception has occurred.
      */
     private WebResource getResource(HttpRequest request) throws IOException {
-        Object resource = _resources.get(request.getURI());
+        String uri = request.getURI();
+        Object resource = _resources.get(uri);
         if (resource == null) {
-            resource = _resources.get(withoutParameters(request.getURI()));
+            int queryStart = uri.indexOf('?');
+            if (queryStart >= 0) {
+                resource = _resources.get(uri.substring(0, queryStart));
+            }
         }
 
         // check the method of the request
         String command = request.getCommand();
-        if ((command.equals("GET") || command.equals("HEAD")) && resource instanceof WebResource) {
-            return (WebResource) resource;
+        boolean isGet = command.equals("GET") || command.equals("HEAD");
+        // mapped directories are checked before the not found cache, so that files created later are found
+        if (resource == null && isGet && !_directories.isEmpty()) {
+            resource = getDirectoryFile(uri);
+        }
+        if (resource == null) {
+            resource = _notFound.get(uri);
+        }
+        if (isGet && resource instanceof WebResource) {
+            return ((WebResource) resource).getResponseTo(request);
         }
         if (resource instanceof PseudoServlet) {
             return getResource((PseudoServlet) resource, request);
         }
+        if (resource instanceof PseudoHandler) {
+            return ((PseudoHandler) resource).getResponse(request);
+        }
         if (request.getURI().endsWith(".class")) {
-            for (Iterator iterator = _classpathDirs.iterator(); iterator.hasNext();) {
-                String directory = (String) iterator.next();
+            for (String directory : _classpathDirs) {
                 if (request.getURI().startsWith(directory)) {
                     String resourceName = request.getURI().substring(directory.length() + 1);
                     return new WebResource(getClass().getClassLoader().getResourceAsStream(resourceName),
@@ -601,17 +866,12 @@ public class PseudoServer {
                 }
             }
         } else if (request.getURI().endsWith(".zip") || request.getURI().endsWith(".jar")) {
-            for (Iterator iterator = _classpathDirs.iterator(); iterator.hasNext();) {
-                String directory = (String) iterator.next();
+            for (String directory : _classpathDirs) {
                 if (request.getURI().startsWith(directory)) {
                     String resourceName = request.getURI().substring(directory.length() + 1);
-                    String classPath = System.getProperty("java.class.path");
-                    StringTokenizer st = new StringTokenizer(classPath, ":;,");
-                    while (st.hasMoreTokens()) {
-                        String file = st.nextToken();
+                    for (String file : ClassPath.ENTRIES) {
                         if (file.endsWith(resourceName)) {
-                            Path f = Path.of(file);
-                            return new WebResource(Files.newInputStream(f), "application/zip", 200);
+                            return new WebResource(Path.of(file), "application/zip");
                         }
                     }
                 }
@@ -621,19 +881,62 @@ public class PseudoServer {
     }
 
     /**
-     * Without parameters.
+     * Returns the resource for a file in one of the mapped directories. The resources found are remembered, so that
+     * each path is resolved only once while its file exists, however many queries it is requested with.
      *
      * @param uri
-     *            the uri
+     *            the requested uri
      *
-     * @return the string
+     * @return the resource, or null if the uri does not name a file in a mapped directory
+     */
+    private WebResource getDirectoryFile(String uri) {
+        String path;
+        try {
+            path = new URI(uri).getPath();
+        } catch (URISyntaxException e) {
+            return null;
+        }
+        if (path == null) {
+            return null;
+        }
+
+        WebResource resource = _directoryFiles.get(path);
+        if (resource != null) {
+            if (Files.isRegularFile(resource.getFile())) {
+                return resource;
+            }
+            _directoryFiles.remove(path);
+        }
+
+        for (Map.Entry<String, Path> entry : _directories.entrySet()) {
+            if (path.startsWith(entry.getKey())) {
+                Path directory = entry.getValue();
+                Path file = directory.resolve(path.substring(entry.getKey().length())).normalize();
+                if (file.startsWith(directory) && Files.isRegularFile(file)) {
+                    resource = new WebResource(file, getFileContentType(file));
+                    _directoryFiles.put(path, resource);
+                    return resource;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Guesses the content type of a file from its name.
+     *
+     * @param file
+     *            the file
+     *
+     * @return the content type
      */
-    private String withoutParameters(String uri) {
-        return uri.indexOf('?') < 0 ? uri : uri.substring(0, uri.indexOf('?'));
+    private static String getFileContentType(Path file) {
+        String contentType = URLConnection.guessContentTypeFromName(file.getFileName().toString());
+        return contentType != null ? contentType : "application/octet-stream";
     }
 
     /**
-     * Gets the resource.
+     * Gets the resource. A servlet holds the request it is serving, so it serves one request at a time.
      *
      * @param servlet
      *            the servlet
@@ -645,14 +948,33 @@ public class PseudoServer {
      * @throws IOException
      *             Signals that an I/O exception has occurred.
      */
-    private WebResource getResource(PseudoServlet servlet, HttpRequest request) throws IOException {
-        servlet.init(request);
-        return servlet.getResponse(request.getCommand());
+    private static WebResource getResource(PseudoServlet servlet, HttpRequest request) throws IOException {
+        synchronized (servlet) {
+            servlet.init(request);
+            return servlet.getResponse(request.getCommand());
+        }
     }
 
     /** The server socket. */
     private ServerSocket _serverSocket;
 
+    // ============================= class ClassPath ======================================
+
+    /**
+     * The entries of the class path, split when first needed.
+     */
+    private static final class ClassPath {
+
+        /** The entries. */
+        static final List<String> ENTRIES = Arrays.asList(System.getProperty("java.class.path").split("[:;,]"));
+
+        /**
+         * Instantiates a new class path.
+         */
+        private ClassPath() {
+        }
+    }
+
 }
 
 /**
@@ -689,9 +1011,12 @@ class HttpResponseStream {
      *
      * @param stream
      *            the stream
+     * @param channel
+     *            the channel which writes to the same connection as the stream, or null if there is none
      */
-    HttpResponseStream(OutputStream stream) {
+    HttpResponseStream(OutputStream stream, WritableByteChannel channel) {
         _stream = stream;
+        _channel = channel != null ? channel : Channels.newChannel(stream);
         setCharacterSet("us-ascii");
     }
 
@@ -755,7 +1080,7 @@ class HttpResponseStream {
     void write(WebResource resource) throws IOException {
         flushHeaders();
         if (resource != null) {
-            resource.writeTo(_stream);
+            resource.writeTo(_stream, _channel);
         }
         _stream.flush();
     }
@@ -823,6 +1148,9 @@ class HttpResponseStream {
 
     /** The stream. */
     private OutputStream _stream;
+
+    /** The channel which writes to the same connection as the stream. */
+    private WritableByteChannel _channel;
     /** The pw. */
     private PrintWriter _pw;
 
@@ -76,6 +76,18 @@ public class PseudoServerTestSupport implements BeforeEachCallback, AfterEachCal
         _server.setResource(resourceName, servlet);
     }
 
+    /**
+     * Define resource.
+     *
+     * @param resourceName
+     *            the resource name
+     * @param handler
+     *            the handler
+     */
+    public void defineResource(String resourceName, PseudoHandler handler) {
+        _server.setResource(resourceName, handler);
+    }
+
     /**
      * Define resource.
      *
@@ -11,7 +11,9 @@ import java.io.IOException;
 import java.io.Reader;
 
 /**
- * A basic simulated servlet for testing the HttpUnit library.
+ * A basic simulated servlet for testing the HttpUnit library. A servlet keeps the request it is serving, so the server
+ * lets a registered instance serve only one request at a time. For stubs which must serve concurrent requests, use a
+ * {@link PseudoHandler} or register a factory with {@link PseudoServer#setResourceFactory}.
  **/
 public abstract class PseudoServlet {
 
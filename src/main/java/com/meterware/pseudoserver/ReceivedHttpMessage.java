@@ -119,32 +119,32 @@ abstract class ReceivedHttpMessage {
     }
 
     /**
-     * Gets the reader.
+     * Returns a reader for the body of this message.
      *
      * @return the reader
      */
-    Reader getReader() {
+    public Reader getReader() {
         return _reader;
     }
 
     /**
-     * Gets the header.
+     * Returns the header with the specified name. If no such header exists, will return null.
      *
      * @param name
      *            the name
      *
      * @return the header
      */
-    String getHeader(String name) {
+    public String getHeader(String name) {
         return (String) _headers.get(name.toUpperCase());
     }
 
     /**
-     * Gets the body.
+     * Returns the body of this message.
      *
      * @return the body
      */
-    byte[] getBody() {
+    public byte[] getBody() {
         return _requestBody;
     }
 
@@ -160,8 +160,9 @@ abstract class ReceivedHttpMessage {
     private void readMessageBody(InputStream inputStream) throws IOException {
         if ("chunked".equalsIgnoreCase(getHeader("Transfer-Encoding"))) {
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            while (getNextChunkLength(inputStream) > 0) {
-                baos.write(readDelimitedChunk(inputStream));
+            int length;
+            while ((length = getNextChunkLength(inputStream)) > 0) {
+                readChunk(inputStream, length, baos);
             }
             flushChunkTrailer(inputStream);
             _requestBody = baos.toByteArray();
@@ -181,6 +182,35 @@ abstract class ReceivedHttpMessage {
         _reader = new InputStreamReader(new ByteArrayInputStream(_requestBody));
     }
 
+    /**
+     * Reads a chunk of the specified length, and the line ending which follows it.
+     *
+     * @param inputStream
+     *            the input stream
+     * @param length
+     *            the length of the chunk
+     * @param baos
+     *            the stream to which the chunk is copied
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private void readChunk(InputStream inputStream, int length, ByteArrayOutputStream baos) throws IOException {
+        byte[] buffer = new byte[Math.min(length, 8 * 1024)];
+        int remaining = length;
+        while (remaining > 0) {
+            int count = inputStream.read(buffer, 0, Math.min(remaining, buffer.length));
+            if (count == -1) {
+                throw new IOException("Unexpected end of chunked message body");
+            }
+            baos.write(buffer, 0, count);
+            remaining -= count;
+        }
+        if (readDelimitedChunk(inputStream).length != 0) {
+            throw new IOException("Chunk is longer than its declared length of " + length);
+        }
+    }
+
     /**
      * Flush chunk trailer.
      *
@@ -210,7 +240,9 @@ abstract class ReceivedHttpMessage {
      */
     private int getNextChunkLength(InputStream inputStream) throws IOException {
         try {
-            return Integer.parseInt(readHeaderLine(inputStream), 16);
+            String line = readHeaderLine(inputStream);
+            int extensionStart = line.indexOf(';');
+            return Integer.parseInt((extensionStart < 0 ? line : line.substring(0, extensionStart)).trim(), 16);
         } catch (NumberFormatException e) {
             throw new IOException("Unabled to read chunk length: " + e);
         }
@@ -12,9 +12,20 @@ import com.meterware.httpunit.HttpUnitUtils;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.HttpURLConnection;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
@@ -27,6 +38,10 @@ public class WebResource {
     /** The Constant DEFAULT_CONTENT_TYPE. */
     static final String DEFAULT_CONTENT_TYPE = "text/html";
 
+    /** The format of dates in HTTP headers. */
+    private static final DateTimeFormatter HTTP_DATE_FORMAT = DateTimeFormatter
+            .ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US).withZone(ZoneOffset.UTC);
+
     /** The closes connection. */
     private boolean _closesConnection;
 
@@ -39,6 +54,12 @@ public class WebResource {
     /** The stream. */
     private InputStream _stream;
 
+    /** The file whose contents are sent, if any. */
+    private Path _file;
+
+    /** The attributes of the file, read once for the response being sent; null if not yet read. */
+    private BasicFileAttributes _fileAttributes;
+
     /** The response code. */
     private int _responseCode;
 
@@ -216,6 +237,56 @@ public class WebResource {
         addHeader("Connection: close");
     }
 
+    /**
+     * Instantiates a new web resource whose contents are read from a file each time it is sent. Where the connection
+     * allows it, the file is transferred to it directly rather than copied through the heap. The response carries ETag
+     * and Last-Modified headers derived from the file, and conditional requests are answered with 304 (Not Modified)
+     * when the file has not changed.
+     *
+     * @param file
+     *            the file
+     * @param contentType
+     *            the content type
+     */
+    public WebResource(Path file, String contentType) {
+        _file = file;
+        _contentType = contentType;
+        _responseCode = HttpURLConnection.HTTP_OK;
+    }
+
+    /**
+     * Instantiates a copy of a file resource, which describes the file as it is now.
+     *
+     * @param source
+     *            the resource to copy
+     * @param fileAttributes
+     *            the attributes of the file
+     */
+    private WebResource(WebResource source, BasicFileAttributes fileAttributes) {
+        _file = source._file;
+        _fileAttributes = fileAttributes;
+        _contentType = source._contentType;
+        _characterSet = source._characterSet;
+        _sendCharacterSet = source._sendCharacterSet;
+        _responseCode = source._responseCode;
+        _closesConnection = source._closesConnection;
+        _hasExplicitContentTypeHeader = source._hasExplicitContentTypeHeader;
+        _hasExplicitContentLengthHeader = source._hasExplicitContentLengthHeader;
+        _isChunked = source._isChunked;
+        _headers = new ArrayList<>(source._headers);
+    }
+
+    /**
+     * Returns the resource to send for a single response. For a file resource this is a copy which reads the size of
+     * the file only once, so that the Content-Length header and the bytes sent agree even if the file changes while
+     * the response is written; otherwise, it is this resource.
+     *
+     * @return the resource to send
+     */
+    WebResource forSending() {
+        return _file == null || _fileAttributes != null ? this : new WebResource(this, getFileAttributes());
+    }
+
     /**
      * Gets the headers.
      *
@@ -226,12 +297,100 @@ public class WebResource {
         if (!_hasExplicitContentTypeHeader) {
             effectiveHeaders.add(getContentTypeHeader());
         }
-        if (_stream == null && !_hasExplicitContentLengthHeader && !isChunked()) {
+        if (_file != null) {
+            BasicFileAttributes attributes = _fileAttributes != null ? _fileAttributes : getFileAttributes();
+            if (!_hasExplicitContentLengthHeader) {
+                effectiveHeaders.add("Content-Length: " + attributes.size());
+            }
+            effectiveHeaders.add("ETag: " + getETag(attributes));
+            effectiveHeaders.add("Last-Modified: " + HTTP_DATE_FORMAT.format(attributes.lastModifiedTime().toInstant()));
+        } else if (_stream == null && !_hasExplicitContentLengthHeader && !isChunked()) {
             effectiveHeaders.add(getContentLengthHeader());
         }
         return effectiveHeaders.toArray(new String[0]);
     }
 
+    /**
+     * Returns the resource to send in answer to the specified request. For a file resource this is a 304 (Not
+     * Modified) resource if the request carries a matching If-None-Match or a current If-Modified-Since header;
+     * otherwise, it is this resource.
+     *
+     * @param request
+     *            the request
+     *
+     * @return the resource to send
+     */
+    WebResource getResponseTo(HttpRequest request) {
+        if (_file == null) {
+            return this;
+        }
+        BasicFileAttributes attributes = getFileAttributes();
+        String eTag = getETag(attributes);
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        String ifModifiedSince = request.getHeader("If-Modified-Since");
+        boolean notModified;
+        if (ifNoneMatch != null) {
+            notModified = ifNoneMatch.trim().equals("*") || ifNoneMatch.contains(eTag);
+        } else if (ifModifiedSince != null) {
+            notModified = isNotModifiedSince(attributes, ifModifiedSince);
+        } else {
+            notModified = false;
+        }
+        if (!notModified) {
+            return this;
+        }
+        WebResource resource = new WebResource(new byte[0], _contentType, HttpURLConnection.HTTP_NOT_MODIFIED);
+        resource.suppressAutomaticContentTypeHeader();
+        resource.addHeader("ETag: " + eTag);
+        return resource;
+    }
+
+    /**
+     * Checks whether the file has not been modified since the time given in an If-Modified-Since header.
+     *
+     * @param attributes
+     *            the attributes of the file
+     * @param ifModifiedSince
+     *            the header value
+     *
+     * @return true, if the file is no newer than the given time. False if the time cannot be parsed.
+     */
+    private static boolean isNotModifiedSince(BasicFileAttributes attributes, String ifModifiedSince) {
+        try {
+            long since = ZonedDateTime.parse(ifModifiedSince.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                    .toEpochSecond();
+            return attributes.lastModifiedTime().toInstant().getEpochSecond() <= since;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns an entity tag which changes whenever the size or modification time of the file changes.
+     *
+     * @param attributes
+     *            the attributes of the file
+     *
+     * @return the quoted entity tag
+     */
+    private static String getETag(BasicFileAttributes attributes) {
+        return '"' + Long.toHexString(attributes.size()) + '-'
+                + Long.toHexString(attributes.lastModifiedTime().toMillis()) + '"';
+    }
+
+    /**
+     * Reads the attributes of the file.
+     *
+     * @return the attributes
+     */
+    private BasicFileAttributes getFileAttributes() {
+        try {
+            return Files.readAttributes(_file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Checks if is chunked.
      *
@@ -241,6 +400,15 @@ public class WebResource {
         return _isChunked;
     }
 
+    /**
+     * Gets the file whose contents are sent.
+     *
+     * @return the file, or null if the contents do not come from a file
+     */
+    Path getFile() {
+        return _file;
+    }
+
     /**
      * Closes connection.
      *
@@ -260,7 +428,20 @@ public class WebResource {
      *             Signals that an I/O exception has occurred.
      */
     void writeTo(OutputStream outputStream) throws IOException {
-        if (_stream == null) {
+        if (_file != null && _fileAttributes == null) {
+            Files.copy(_file, outputStream);
+        } else if (_file != null) {
+            try (InputStream inputStream = Files.newInputStream(_file)) {
+                byte[] buffer = new byte[8 * 1024];
+                long remaining = _fileAttributes.size();
+                int count;
+                while (remaining > 0
+                        && (count = inputStream.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+                    outputStream.write(buffer, 0, count);
+                    remaining -= count;
+                }
+            }
+        } else if (_stream == null) {
             outputStream.write(getContentsAsBytes());
         } else {
             byte[] buffer = new byte[8 * 1024];
@@ -272,6 +453,34 @@ public class WebResource {
         }
     }
 
+    /**
+     * Write to a connection. The contents of a file are transferred to the channel, up to the size advertised in the
+     * headers if that was read by {@link #forSending}; all other contents are written to the stream.
+     *
+     * @param outputStream
+     *            the output stream
+     * @param channel
+     *            the channel which writes to the same connection as the stream
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    void writeTo(OutputStream outputStream, WritableByteChannel channel) throws IOException {
+        if (_file == null) {
+            writeTo(outputStream);
+            return;
+        }
+        outputStream.flush();
+        try (FileChannel fileChannel = FileChannel.open(_file, StandardOpenOption.READ)) {
+            long size = _fileAttributes != null ? Math.min(_fileAttributes.size(), fileChannel.size())
+                    : fileChannel.size();
+            long position = 0;
+            while (position < size) {
+                position += fileChannel.transferTo(position, size - position, channel);
+            }
+        }
+    }
+
     /**
      * To string.
      *
@@ -10,7 +10,8 @@
  * <p>
  * The {@link com.meterware.pseudoserver.PseudoServer} class is a simple HTTP server which can be programmed with the
  * results required by a test. Results may either be statically defined or dynamically created, using the
- * {@link com.meterware.pseudoserver.PseudoServlet} class.
+ * {@link com.meterware.pseudoserver.PseudoServlet} class or the {@link com.meterware.pseudoserver.PseudoHandler}
+ * interface.
  * </p>
  */
 package com.meterware.pseudoserver;
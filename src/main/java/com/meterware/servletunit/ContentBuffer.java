@@ -0,0 +1,59 @@
+/*
+ * SPDX-License-Identifier: MIT
+ * See LICENSE file for details.
+ *
+ * Copyright 2000-2026 Russell Gold
+ * Copyright 2021-2026 hazendaz
+ */
+package com.meterware.servletunit;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A growable byte buffer which can be read in place. The bytes passed between client and servlet are held in one of
+ * these, and read through views of its storage rather than through copies.
+ */
+class ContentBuffer extends ByteArrayOutputStream {
+
+    /**
+     * Returns a view of the bytes written so far, backed by the storage of this buffer. Bytes written later are not
+     * included.
+     *
+     * @return the view
+     */
+    synchronized ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(buf, 0, count);
+    }
+
+    /**
+     * Returns a stream which reads the bytes written so far. Bytes written later are not included.
+     *
+     * @return the stream
+     */
+    synchronized InputStream asInputStream() {
+        return new ByteArrayInputStream(buf, 0, count);
+    }
+
+    /**
+     * Returns a stream which reads the remaining bytes in the specified buffer, without copying them if it is backed
+     * by an accessible array.
+     *
+     * @param buffer
+     *            the buffer
+     *
+     * @return the stream
+     */
+    static InputStream asInputStream(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return new ByteArrayInputStream(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                    buffer.remaining());
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return new ByteArrayInputStream(bytes);
+    }
+
+}
@@ -14,6 +14,7 @@ import jakarta.servlet.http.HttpSession;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
+import java.nio.ByteBuffer;
 import java.util.Dictionary;
 
 /**
@@ -45,6 +46,37 @@ public interface InvocationContextFactory {
     InvocationContext newInvocation(ServletUnitClient client, FrameSelector targetFrame, WebRequest request,
             Dictionary clientHeaders, byte[] messageBody) throws IOException, MalformedURLException;
 
+    /**
+     * Creates and returns a new invocation context to test calling of servlet methods, reading the message body from
+     * the remaining bytes of the specified buffer. Factories which can use the buffer in place should override this; by
+     * default, the bytes are copied and passed to
+     * {@link #newInvocation(ServletUnitClient, FrameSelector, WebRequest, Dictionary, byte[])}.
+     *
+     * @param client
+     *            the client
+     * @param targetFrame
+     *            the target frame
+     * @param request
+     *            the request
+     * @param clientHeaders
+     *            the client headers
+     * @param messageBody
+     *            the message body
+     *
+     * @return the invocation context
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @throws MalformedURLException
+     *             the malformed URL exception
+     */
+    default InvocationContext newInvocation(ServletUnitClient client, FrameSelector targetFrame, WebRequest request,
+            Dictionary<?, ?> clientHeaders, ByteBuffer messageBody) throws IOException, MalformedURLException {
+        byte[] bytes = new byte[messageBody.remaining()];
+        messageBody.duplicate().get(bytes);
+        return newInvocation(client, targetFrame, request, clientHeaders, bytes);
+    }
+
     /**
      * Returns the session with the specified ID; if none exists or the session is invalid, will create a new session if
      * the create flag is true.
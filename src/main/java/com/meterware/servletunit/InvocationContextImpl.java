@@ -22,6 +22,7 @@ import jakarta.servlet.http.HttpSession;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.Dictionary;
@@ -212,6 +213,32 @@ class InvocationContextImpl implements InvocationContext {
      */
     InvocationContextImpl(ServletUnitClient client, ServletRunner runner, FrameSelector frame, WebRequest request,
             Dictionary clientHeaders, byte[] messageBody) throws IOException, MalformedURLException {
+        this(client, runner, frame, request, clientHeaders, ByteBuffer.wrap(messageBody));
+    }
+
+    /**
+     * Constructs a servlet invocation context for a specified servlet container, request, and cookie headers.
+     *
+     * @param client
+     *            the client
+     * @param runner
+     *            the runner
+     * @param frame
+     *            the frame
+     * @param request
+     *            the request
+     * @param clientHeaders
+     *            the client headers
+     * @param messageBody
+     *            the message body, read in place from the remaining bytes of the buffer
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     * @throws MalformedURLException
+     *             the malformed URL exception
+     */
+    InvocationContextImpl(ServletUnitClient client, ServletRunner runner, FrameSelector frame, WebRequest request,
+            Dictionary<?, ?> clientHeaders, ByteBuffer messageBody) throws IOException, MalformedURLException {
         _client = client;
         _application = runner.getApplication();
         _frame = frame;
@@ -13,6 +13,7 @@ import com.meterware.httpunit.HttpUnitUtils;
 import jakarta.servlet.http.HttpServletRequest;
 
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Enumeration;
 import java.util.Map;
@@ -36,7 +37,7 @@ class RequestContext {
     private URL _url;
 
     /** The message body. */
-    private byte[] _messageBody;
+    private ByteBuffer _messageBody;
 
     /** The message encoding. */
     private String _messageEncoding;
@@ -245,7 +246,7 @@ class RequestContext {
      * @return the message body as string
      */
     private String getMessageBodyAsString() {
-        return new String(_messageBody, StandardCharsets.UTF_8);
+        return StandardCharsets.UTF_8.decode(_messageBody.duplicate()).toString();
     }
 
     /**
@@ -255,7 +256,17 @@ class RequestContext {
      *            the new message body
      */
     void setMessageBody(byte[] bytes) {
-        _messageBody = bytes;
+        setMessageBody(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Sets the message body to the remaining bytes of the specified buffer, which is read in place.
+     *
+     * @param buffer
+     *            the new message body
+     */
+    void setMessageBody(ByteBuffer buffer) {
+        _messageBody = buffer;
     }
 
     /**
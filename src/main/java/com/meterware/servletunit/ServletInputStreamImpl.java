@@ -10,8 +10,9 @@ package com.meterware.servletunit;
 import jakarta.servlet.ReadListener;
 import jakarta.servlet.ServletInputStream;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * An implementation of the standard servlet input stream.
@@ -19,7 +20,7 @@ import java.io.IOException;
 class ServletInputStreamImpl extends ServletInputStream {
 
     /** The base stream. */
-    private ByteArrayInputStream _baseStream;
+    private InputStream _baseStream;
 
     /**
      * Instantiates a new servlet input stream impl.
@@ -28,7 +29,17 @@ class ServletInputStreamImpl extends ServletInputStream {
      *            the message body
      */
     public ServletInputStreamImpl(byte[] messageBody) {
-        _baseStream = new ByteArrayInputStream(messageBody);
+        this(ByteBuffer.wrap(messageBody));
+    }
+
+    /**
+     * Instantiates a new servlet input stream impl which reads the remaining bytes of the specified buffer in place.
+     *
+     * @param messageBody
+     *            the message body
+     */
+    ServletInputStreamImpl(ByteBuffer messageBody) {
+        _baseStream = ContentBuffer.asInputStream(messageBody);
     }
 
     @Override
@@ -36,16 +47,28 @@ class ServletInputStreamImpl extends ServletInputStream {
         return _baseStream.read();
     }
 
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        return _baseStream.read(b, off, len);
+    }
+
+    @Override
+    public int available() throws IOException {
+        return _baseStream.available();
+    }
+
     @Override
     public boolean isFinished() {
-        // TODO Auto-generated method stub
-        return false;
+        try {
+            return _baseStream.available() == 0;
+        } catch (IOException e) {
+            return true;
+        }
     }
 
     @Override
     public boolean isReady() {
-        // TODO Auto-generated method stub
-        return false;
+        return true;
     }
 
     @Override
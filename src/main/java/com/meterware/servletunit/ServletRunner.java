@@ -18,7 +18,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
+import java.util.Date;
 import java.util.Dictionary;
 import java.util.Hashtable;
 
@@ -265,6 +267,37 @@ public class ServletRunner {
         return getClient().getSession(create);
     }
 
+    /**
+     * Returns the number of sessions currently held by this servlet runner. Sessions are released when they are
+     * invalidated, or when they expire after going unused for longer than their maximum inactive interval.
+     *
+     * @return the session count
+     */
+    public int getSessionCount() {
+        return _context.getSessionCount();
+    }
+
+    /**
+     * Returns the number of sessions which this servlet runner has invalidated because they went unused for longer than
+     * their maximum inactive interval.
+     *
+     * @return the expired session count
+     */
+    public long getExpiredSessionCount() {
+        return _context.getExpiredSessionCount();
+    }
+
+    /**
+     * Invalidates each session which has gone unused for longer than its maximum inactive interval, notifying any
+     * session listeners. Expired sessions are also found as requests are made, so this need only be called to release
+     * them sooner.
+     *
+     * @return the number of sessions invalidated
+     */
+    public int expireSessions() {
+        return _context.expireSessions(new Date().getTime());
+    }
+
     /**
      * Returns the value of the named context parameter found in the application definition.
      *
@@ -380,6 +413,13 @@ public class ServletRunner {
                     messageBody);
         }
 
+        @Override
+        public InvocationContext newInvocation(ServletUnitClient client, FrameSelector targetFrame, WebRequest request,
+                Dictionary<?, ?> clientHeaders, ByteBuffer messageBody) throws IOException, MalformedURLException {
+            return new InvocationContextImpl(client, ServletRunner.this, targetFrame, request, clientHeaders,
+                    messageBody);
+        }
+
         @Override
         public HttpSession getSession(String sessionId, boolean create) {
             return _context.getValidSession(sessionId, null, create);
@@ -391,7 +431,7 @@ public class ServletRunner {
      *
      * @return the client
      */
-    private ServletUnitClient getClient() {
+    private synchronized ServletUnitClient getClient() {
         if (_client == null) {
             _client = newClient();
         }
@@ -17,7 +17,6 @@ import com.meterware.httpunit.WebResponse;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpSession;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.MalformedURLException;
 
@@ -110,12 +109,12 @@ public class ServletUnitClient extends WebClient {
      *             the malformed URL exception
      */
     InvocationContext newInvocation(WebRequest request, FrameSelector frame) throws IOException, MalformedURLException {
-        ByteArrayOutputStream baos = getMessageBody(request);
+        ContentBuffer body = getMessageBody(request);
         if (_invocationContextFactory == null) {
             throw new RuntimeException("newInvocation called with null _invocationContextFactory");
         }
         return _invocationContextFactory.newInvocation(this, frame, request, getHeaderFields(request.getURL()),
-                baos.toByteArray());
+                body.asByteBuffer());
     }
 
     /**
@@ -129,10 +128,10 @@ public class ServletUnitClient extends WebClient {
      * @throws IOException
      *             Signals that an I/O exception has occurred.
      */
-    ByteArrayOutputStream getMessageBody(WebRequest request) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        writeMessageBody(request, baos);
-        return baos;
+    ContentBuffer getMessageBody(WebRequest request) throws IOException {
+        ContentBuffer body = new ContentBuffer();
+        writeMessageBody(request, body);
+        return body;
     }
 
     /**
@@ -9,13 +9,20 @@ package com.meterware.servletunit;
 
 import jakarta.servlet.ServletContext;
 
+import java.util.Date;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The Class ServletUnitContext.
  */
 class ServletUnitContext {
 
+    /** The minimum time, in milliseconds, between sweeps of the sessions for expired ones. */
+    static final long SWEEP_INTERVAL = 1000;
+
     /** The listener dispatcher. */
     private SessionListenerDispatcher _listenerDispatcher;
 
@@ -60,10 +67,16 @@ class ServletUnitContext {
      * @return the valid session
      */
     ServletUnitHttpSession getValidSession(String sessionId, ServletUnitHttpSession session, boolean create) {
+        long now = new Date().getTime();
+        sweepIfDue(now);
         if (session == null && sessionId != null) {
             session = getSession(sessionId);
         }
 
+        if (session != null && session.isExpired(now)) {
+            expire(session);
+        }
+
         if (session != null && session.isInvalid()) {
             session = null;
         }
@@ -83,7 +96,7 @@ class ServletUnitContext {
      * @return the session
      */
     ServletUnitHttpSession getSession(String id) {
-        return (ServletUnitHttpSession) _sessions.get(id);
+        return _sessions.get(id);
     }
 
     /**
@@ -92,12 +105,95 @@ class ServletUnitContext {
      * @return the servlet unit http session
      */
     ServletUnitHttpSession newSession() {
-        ServletUnitHttpSession result = new ServletUnitHttpSession(_servletContext, _listenerDispatcher);
+        sweepIfDue(new Date().getTime());
+        ServletUnitHttpSession result = new ServletUnitHttpSession(_servletContext, _listenerDispatcher, this);
         _sessions.put(result.getId(), result);
         _listenerDispatcher.sendSessionCreated(result);
         return result;
     }
 
+    /**
+     * Removes the specified session, which is being invalidated, unless another caller has already done so.
+     *
+     * @param id
+     *            the session id
+     * @param session
+     *            the session
+     *
+     * @return true, if this call removed the session
+     */
+    boolean removeSession(String id, ServletUnitHttpSession session) {
+        return _sessions.remove(id, session);
+    }
+
+    /**
+     * Returns the number of sessions currently held.
+     *
+     * @return the session count
+     */
+    int getSessionCount() {
+        return _sessions.size();
+    }
+
+    /**
+     * Returns the number of sessions which have been invalidated because they were not accessed within their maximum
+     * inactive interval.
+     *
+     * @return the expired session count
+     */
+    long getExpiredSessionCount() {
+        return _expiredSessionCount.get();
+    }
+
+    /**
+     * Invalidates each session which has not been accessed within its maximum inactive interval.
+     *
+     * @param now
+     *            the current time, in milliseconds since midnight January 1, 1970 GMT
+     *
+     * @return the number of sessions invalidated
+     */
+    int expireSessions(long now) {
+        _nextSweep.set(now + SWEEP_INTERVAL);
+        int count = 0;
+        for (ServletUnitHttpSession session : _sessions.values()) {
+            if (session.isExpired(now) && expire(session)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Sweeps the sessions for expired ones, if the sweep interval has passed since the last sweep. Only one of any
+     * concurrent callers performs the sweep.
+     *
+     * @param now
+     *            the current time, in milliseconds since midnight January 1, 1970 GMT
+     */
+    private void sweepIfDue(long now) {
+        long due = _nextSweep.get();
+        if (now >= due && _nextSweep.compareAndSet(due, now + SWEEP_INTERVAL)) {
+            expireSessions(now);
+        }
+    }
+
+    /**
+     * Removes and invalidates the specified expired session, unless another caller has already done so.
+     *
+     * @param session
+     *            the session
+     *
+     * @return true, if this call expired the session
+     */
+    private boolean expire(ServletUnitHttpSession session) {
+        if (!session.release()) {
+            return false;
+        }
+        _expiredSessionCount.incrementAndGet();
+        return true;
+    }
+
     /**
      * Returns the contextPath.
      *
@@ -109,8 +205,14 @@ class ServletUnitContext {
 
     // ------------------------------- private members ---------------------------
 
-    /** The sessions. */
-    private java.util.Map _sessions = new java.util.HashMap<>();
+    /** The sessions, keyed by ID. */
+    private final Map<String, ServletUnitHttpSession> _sessions = new ConcurrentHashMap<>();
+
+    /** The number of sessions expired so far. */
+    private final AtomicLong _expiredSessionCount = new AtomicLong();
+
+    /** The time at which the sessions should next be swept for expired ones. */
+    private final AtomicLong _nextSweep = new AtomicLong();
 
     /** The context path. */
     private String _contextPath = null;
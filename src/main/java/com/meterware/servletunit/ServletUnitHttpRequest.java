@@ -31,6 +31,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.MalformedURLException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -103,6 +104,28 @@ class ServletUnitHttpRequest implements HttpServletRequest {
      */
     ServletUnitHttpRequest(ServletMetaData servletRequest, WebRequest request, ServletUnitContext context,
             Dictionary clientHeaders, byte[] messageBody) throws MalformedURLException {
+        this(servletRequest, request, context, clientHeaders, ByteBuffer.wrap(messageBody));
+    }
+
+    /**
+     * Constructs a ServletUnitHttpRequest from a WebRequest object.
+     *
+     * @param servletRequest
+     *            the servlet request
+     * @param request
+     *            the request
+     * @param context
+     *            the context
+     * @param clientHeaders
+     *            the client headers
+     * @param messageBody
+     *            the message body, read in place from the remaining bytes of the buffer
+     *
+     * @throws MalformedURLException
+     *             the malformed URL exception
+     */
+    ServletUnitHttpRequest(ServletMetaData servletRequest, WebRequest request, ServletUnitContext context,
+            Dictionary<?, ?> clientHeaders, ByteBuffer messageBody) throws MalformedURLException {
         if (context == null) {
             throw new IllegalArgumentException("Context must not be null");
         }
@@ -131,7 +154,7 @@ class ServletUnitHttpRequest implements HttpServletRequest {
             _requestContext.setMessageEncoding(_charset);
         }
         if (_headers.get("Content-Length") == null) {
-            _headers.put("Content-Length", Integer.toString(messageBody.length));
+            _headers.put("Content-Length", Integer.toString(messageBody.remaining()));
         }
 
         boolean setBody =
@@ -874,7 +897,7 @@ class ServletUnitHttpRequest implements HttpServletRequest {
     private String _sessionID;
 
     /** The message body. */
-    private byte[] _messageBody;
+    private ByteBuffer _messageBody;
 
     /** The user name. */
     private String _userName;
@@ -16,6 +16,7 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.nio.charset.Charset;
@@ -264,7 +265,7 @@ class ServletUnitHttpResponse implements HttpServletResponse {
             throw new IllegalStateException("Tried to create output stream; writer already exists");
         }
         if (_servletStream == null) {
-            _outputStream = new ByteArrayOutputStream();
+            _outputStream = new ContentBuffer();
             _servletStream = new ServletUnitOutputStream(_outputStream);
         }
         return _servletStream;
@@ -290,7 +291,7 @@ class ServletUnitHttpResponse implements HttpServletResponse {
             throw new IllegalStateException("Tried to create writer; output stream already exists");
         }
         if (_writer == null) {
-            _outputStream = new ByteArrayOutputStream();
+            _outputStream = new ContentBuffer();
             _writer = new PrintWriter(new OutputStreamWriter(_outputStream, Charset.forName(getCharacterEncoding())));
         }
         return _writer;
@@ -348,7 +349,7 @@ class ServletUnitHttpResponse implements HttpServletResponse {
      **/
     @Override
     public void setBufferSize(int size) {
-        if (getContents().length != 0) {
+        if (getContentSize() != 0) {
             throw new IllegalStateException("May not set buffer size after data is written");
         }
     }
@@ -452,6 +453,36 @@ class ServletUnitHttpResponse implements HttpServletResponse {
         return _outputStream.toByteArray();
     }
 
+    /**
+     * Returns a stream which reads the contents of this response in place, without copying them.
+     *
+     * @return the contents
+     */
+    InputStream getContentStream() {
+        if (_outputStream == null) {
+            return InputStream.nullInputStream();
+        }
+        if (_writer != null) {
+            _writer.flush();
+        }
+        return _outputStream.asInputStream();
+    }
+
+    /**
+     * Returns the number of bytes written to this response.
+     *
+     * @return the content size
+     */
+    private int getContentSize() {
+        if (_outputStream == null) {
+            return 0;
+        }
+        if (_writer != null) {
+            _writer.flush();
+        }
+        return _outputStream.size();
+    }
+
     /**
      * Returns the status of this response.
      **/
@@ -573,7 +604,7 @@ class ServletUnitHttpResponse implements HttpServletResponse {
     private ServletOutputStream _servletStream;
 
     /** The output stream. */
-    private ByteArrayOutputStream _outputStream;
+    private ContentBuffer _outputStream;
 
     /** The status. */
     private int _status = SC_OK;
@@ -724,6 +755,11 @@ class ServletUnitOutputStream extends ServletOutputStream {
         _stream.write(aByte);
     }
 
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        _stream.write(bytes, offset, length);
+    }
+
     /** The stream. */
     private ByteArrayOutputStream _stream;
 
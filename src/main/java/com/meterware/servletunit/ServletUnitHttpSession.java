@@ -13,6 +13,7 @@ import jakarta.servlet.http.HttpSession;
 import java.net.URL;
 import java.util.Date;
 import java.util.Enumeration;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The Class ServletUnitHttpSession.
@@ -28,6 +29,9 @@ class ServletUnitHttpSession implements HttpSession {
     /** The listener dispatcher. */
     private SessionListenerDispatcher _listenerDispatcher;
 
+    /** The context which holds this session. */
+    private ServletUnitContext _owner;
+
     /**
      * Instantiates a new servlet unit http session.
      *
@@ -35,10 +39,14 @@ class ServletUnitHttpSession implements HttpSession {
      *            the servlet context
      * @param listenerDispatcher
      *            the listener dispatcher
+     * @param owner
+     *            the context which holds this session, and which is told when it is invalidated
      */
-    ServletUnitHttpSession(ServletContext servletContext, SessionListenerDispatcher listenerDispatcher) {
+    ServletUnitHttpSession(ServletContext servletContext, SessionListenerDispatcher listenerDispatcher,
+            ServletUnitContext owner) {
         _servletContext = servletContext;
         _listenerDispatcher = listenerDispatcher;
+        _owner = owner;
     }
 
     /**
@@ -55,7 +63,7 @@ class ServletUnitHttpSession implements HttpSession {
 
     /**
      * Specifies the maximum length of time, in seconds, that the servlet engine keeps this session if no user requests
-     * have been made of the session.
+     * have been made of the session. A value of zero or less means that the session never expires.
      **/
     @Override
     public void setMaxInactiveInterval(int interval) {
@@ -118,9 +126,23 @@ class ServletUnitHttpSession implements HttpSession {
      **/
     @Override
     public void invalidate() {
+        release();
+    }
+
+    /**
+     * Removes this session from its context and invalidates it, notifying any session listeners. Only the caller which
+     * removes the session does so, so that an invalidation racing with an expiry sweep notifies the listeners once.
+     *
+     * @return true, if this call invalidated the session
+     */
+    boolean release() {
+        if (!_owner.removeSession(_id, this)) {
+            return false;
+        }
         _listenerDispatcher.sendSessionDestroyed(this);
         _invalid = true;
         _values.clear();
+        return true;
     }
 
     /**
@@ -131,7 +153,7 @@ class ServletUnitHttpSession implements HttpSession {
         if (_invalid) {
             throw new IllegalStateException();
         }
-        return _values.get(name);
+        return name == null ? null : _values.get(name);
     }
 
     /**
@@ -144,14 +166,17 @@ class ServletUnitHttpSession implements HttpSession {
             throw new IllegalStateException();
         }
 
+        if (name == null) {
+            throw new IllegalArgumentException("Attribute name must not be null");
+        }
         if (value == null) {
             removeAttribute(name);
-        } else if (!_values.containsKey(name)) {
-            _values.put(name, value);
+            return;
+        }
+        Object oldValue = _values.put(name, value);
+        if (oldValue == null) {
             _listenerDispatcher.sendAttributeAdded(this, name, value);
         } else {
-            Object oldValue = _values.get(name);
-            _values.put(name, value);
             _listenerDispatcher.sendAttributeReplaced(this, name, oldValue);
         }
     }
@@ -165,9 +190,8 @@ class ServletUnitHttpSession implements HttpSession {
         if (_invalid) {
             throw new IllegalStateException();
         }
-        if (_values.containsKey(name)) {
-            Object oldValue = _values.get(name);
-            _values.remove(name);
+        Object oldValue = name == null ? null : _values.remove(name);
+        if (oldValue != null) {
             _listenerDispatcher.sendAttributeRemoved(this, name, oldValue);
         }
     }
@@ -264,31 +288,43 @@ class ServletUnitHttpSession implements HttpSession {
         return _invalid;
     }
 
+    /**
+     * Returns true if this session has not been accessed within its maximum inactive interval.
+     *
+     * @param now
+     *            the current time, in milliseconds since midnight January 1, 1970 GMT
+     *
+     * @return true, if this session has expired
+     */
+    boolean isExpired(long now) {
+        return !_invalid && _maxInactiveInterval > 0 && now - _lastAccessedTime > _maxInactiveInterval * 1000L;
+    }
+
     // ------------------------------------- private members ---------------------------------------
 
     /** The Next ID. */
-    private static int _NextID = 1;
+    private static final AtomicInteger _NextID = new AtomicInteger(1);
 
     /** The creation time. */
     private final long _creationTime = new Date().getTime();
 
     /** The id. */
-    private final String _id = Integer.toString(_NextID++);
+    private final String _id = Integer.toString(_NextID.getAndIncrement());
 
     /** The max inactive interval. */
-    private int _maxInactiveInterval;
+    private volatile int _maxInactiveInterval;
 
     /** The last accessed time. */
-    private long _lastAccessedTime = new Date().getTime();
+    private volatile long _lastAccessedTime = new Date().getTime();
 
     /** The invalid. */
-    private boolean _invalid;
+    private volatile boolean _invalid;
 
     /** The values. */
-    private java.util.Map _values = new java.util.HashMap<>();
+    private java.util.Map<String, Object> _values = new java.util.concurrent.ConcurrentHashMap<>();
 
     /** The is new. */
-    private boolean _isNew = true;
+    private volatile boolean _isNew = true;
 
     /** The user name. */
     private String _userName;
@@ -297,7 +297,7 @@ public class ServletUnitServletContext implements ServletContext {
      **/
     @Override
     public Object getAttribute(String name) {
-        return _attributes.get(name);
+        return name == null ? null : _attributes.get(name);
     }
 
     @Override
@@ -307,20 +307,24 @@ public class ServletUnitServletContext implements ServletContext {
 
     @Override
     public void setAttribute(String name, Object attribute) {
-        if (!_attributes.containsKey(name)) {
-            _attributes.put(name, attribute);
+        if (name == null) {
+            throw new IllegalArgumentException("Attribute name must not be null");
+        }
+        if (attribute == null) {
+            removeAttribute(name);
+            return;
+        }
+        Object oldValue = _attributes.put(name, attribute);
+        if (oldValue == null) {
             _application.sendAttributeAdded(name, attribute);
         } else {
-            Object oldValue = _attributes.get(name);
-            _attributes.put(name, attribute);
             _application.sendAttributeReplaced(name, oldValue);
         }
     }
 
     @Override
     public void removeAttribute(String name) {
-        Object oldValue = _attributes.get(name);
-        _attributes.remove(name);
+        Object oldValue = name == null ? null : _attributes.remove(name);
         _application.sendAttributeRemoved(name, oldValue);
     }
 
@@ -397,7 +401,7 @@ public class ServletUnitServletContext implements ServletContext {
     // ----------------------------------------------------
 
     /** The attributes. */
-    private java.util.Map _attributes = new java.util.HashMap<>();
+    private java.util.Map<String, Object> _attributes = new java.util.concurrent.ConcurrentHashMap<>();
 
     /** The application. */
     private WebApplication _application;
@@ -12,7 +12,6 @@ import com.meterware.httpunit.WebResponse;
 
 import jakarta.servlet.http.HttpServletResponse;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
@@ -45,9 +44,9 @@ class ServletUnitWebResponse extends WebResponse {
         _response = (ServletUnitHttpResponse) response;
         /** make sure that any IO exception for HTML received page happens here, not later. **/
         if (getResponseCode() < HttpURLConnection.HTTP_BAD_REQUEST || !throwExceptionOnError) {
-            defineRawInputStream(new ByteArrayInputStream(_response.getContents()));
+            defineRawInputStream(_response.getContentStream());
             if (getContentType().startsWith("text")) {
-                loadResponseText();
+                prepareResponseText();
             }
         }
     }
@@ -29,6 +29,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -51,7 +52,7 @@ class WebApplication implements SessionListenerDispatcher {
     private final WebResourceMapping SECURITY_CHECK_MAPPING = new WebResourceMapping(SECURITY_CHECK_CONFIGURATION);
 
     /** A mapping of resource names to servlet configurations. **/
-    private WebResourceMap _servletMapping = new WebResourceMap();
+    private final WebResourceMap _servletMapping = new WebResourceMap();
 
     /** A mapping of filter names to FilterConfigurations. */
     private java.util.Map _filters = new java.util.HashMap<>();
@@ -333,7 +334,7 @@ class WebApplication implements SessionListenerDispatcher {
      *
      * @return the servlet context
      */
-    ServletContext getServletContext() {
+    synchronized ServletContext getServletContext() {
         if (_servletContext == null) {
             _servletContext = new ServletUnitServletContext(this);
         }
@@ -638,7 +639,10 @@ class WebApplication implements SessionListenerDispatcher {
      *            the filter configuration
      */
     private void registerFilterForUrl(String resourceName, FilterConfiguration filterConfiguration) {
-        _filterUrlMapping.put(resourceName, filterConfiguration);
+        synchronized (_servletMapping) {
+            _filterUrlMapping.put(resourceName, filterConfiguration);
+            _servletMapping.clearResolvedPaths();
+        }
     }
 
     /**
@@ -650,12 +654,15 @@ class WebApplication implements SessionListenerDispatcher {
      *            the filter configuration
      */
     private void registerFilterForServlet(String servletName, FilterConfiguration filterConfiguration) {
-        List list = (List) _filterMapping.get(servletName);
-        if (list == null) {
-            list = new ArrayList<>();
-            _filterMapping.put(servletName, list);
+        synchronized (_servletMapping) {
+            List list = (List) _filterMapping.get(servletName);
+            if (list == null) {
+                list = new ArrayList<>();
+                _filterMapping.put(servletName, list);
+            }
+            list.add(filterConfiguration);
+            _servletMapping.clearResolvedPaths();
         }
-        list.add(filterConfiguration);
     }
 
     /**
@@ -856,8 +863,8 @@ class WebApplication implements SessionListenerDispatcher {
      */
     class ServletConfiguration extends WebResourceConfiguration {
 
-        /** The servlet. */
-        private Servlet _servlet;
+        /** The servlet, once it has been initialized. */
+        private volatile Servlet _servlet;
 
         /** The servlet name. */
         private String _servletName;
@@ -940,17 +947,23 @@ class WebApplication implements SessionListenerDispatcher {
          * @throws SecurityException
          *             the security exception
          */
-        synchronized Servlet getServlet()
+        Servlet getServlet()
                 throws ClassNotFoundException, InstantiationException, IllegalAccessException, ServletException,
                 IllegalArgumentException, InvocationTargetException, NoSuchMethodException, SecurityException {
-            if (_servlet == null) {
-                Class servletClass = Class.forName(getClassName());
-                _servlet = (Servlet) servletClass.getDeclaredConstructor().newInstance();
-                String servletName = _servletName != null ? _servletName : _servlet.getClass().getName();
-                _servlet.init(new ServletUnitServletConfig(servletName, WebApplication.this, getInitParams()));
+            Servlet servlet = _servlet;
+            if (servlet != null) {
+                return servlet;
+            }
+            synchronized (this) {
+                if (_servlet == null) {
+                    Class servletClass = Class.forName(getClassName());
+                    servlet = (Servlet) servletClass.getDeclaredConstructor().newInstance();
+                    String servletName = _servletName != null ? _servletName : servlet.getClass().getName();
+                    servlet.init(new ServletUnitServletConfig(servletName, WebApplication.this, getInitParams()));
+                    _servlet = servlet;
+                }
+                return _servlet;
             }
-
-            return _servlet;
         }
 
         @Override
@@ -1001,8 +1014,8 @@ class WebApplication implements SessionListenerDispatcher {
      */
     class FilterConfiguration extends WebResourceConfiguration implements FilterMetaData {
 
-        /** The filter. */
-        private Filter _filter;
+        /** The filter, once it has been initialized. */
+        private volatile Filter _filter;
 
         /** The name. */
         private String _name;
@@ -1024,12 +1037,26 @@ class WebApplication implements SessionListenerDispatcher {
         }
 
         @Override
-        public synchronized Filter getFilter() throws ServletException {
+        public Filter getFilter() throws ServletException {
+            Filter filter = _filter;
+            return filter != null ? filter : initFilter();
+        }
+
+        /**
+         * Creates and initializes the filter, unless another thread has already done so.
+         *
+         * @return the filter
+         *
+         * @throws ServletException
+         *             if the filter cannot be created or initialized
+         */
+        private synchronized Filter initFilter() throws ServletException {
             try {
                 if (_filter == null) {
                     Class filterClass = Class.forName(getClassName());
-                    _filter = (Filter) filterClass.getDeclaredConstructor().newInstance();
-                    _filter.init(new FilterConfigImpl(_name, getServletContext(), getInitParams()));
+                    Filter filter = (Filter) filterClass.getDeclaredConstructor().newInstance();
+                    filter.init(new FilterConfigImpl(_name, getServletContext(), getInitParams()));
+                    _filter = filter;
                 }
 
                 return _filter;
@@ -1229,11 +1256,8 @@ class WebApplication implements SessionListenerDispatcher {
         /** The mapping. */
         private WebResourceMapping _mapping;
 
-        /** The filters per name. */
-        private java.util.Map _filtersPerName;
-
-        /** The filters per url. */
-        private FilterUrlMap _filtersPerUrl;
+        /** The filters to apply, in order. */
+        private FilterMetaData[] _filters;
 
         /**
          * Instantiates a new servlet request impl.
@@ -1242,20 +1266,14 @@ class WebApplication implements SessionListenerDispatcher {
          *            the url
          * @param servletPath
          *            the servlet path
-         * @param mapping
-         *            the mapping
-         * @param filtersPerName
-         *            the filters per name
-         * @param filtersPerUrl
-         *            the filters per url
+         * @param resolvedPath
+         *            the mapping and filters selected for the servlet path
          */
-        ServletRequestImpl(URL url, String servletPath, WebResourceMapping mapping, java.util.Map filtersPerName,
-                FilterUrlMap filtersPerUrl) {
+        ServletRequestImpl(URL url, String servletPath, ResolvedPath resolvedPath) {
             _url = url;
             _fullServletPath = servletPath;
-            _mapping = mapping;
-            _filtersPerName = filtersPerName;
-            _filtersPerUrl = filtersPerUrl;
+            _mapping = resolvedPath._mapping;
+            _filters = resolvedPath._filters;
         }
 
         /**
@@ -1302,55 +1320,41 @@ class WebApplication implements SessionListenerDispatcher {
 
         @Override
         public FilterMetaData[] getFilters() {
-            if (getConfiguration() == null) {
-                return NO_FILTERS;
-            }
-
-            List<FilterMetaData> filters = new ArrayList<>();
-            addFiltersForPath(filters, _fullServletPath);
-            addFiltersForServletWithName(filters, getConfiguration().getServletName());
-
-            return filters.toArray(new FilterMetaData[filters.size()]);
+            return _filters;
         }
 
         /**
-         * Adds the filters for path.
+         * Gets the configuration.
          *
-         * @param filters
-         *            the filters
-         * @param fullServletPath
-         *            the full servlet path
+         * @return the configuration
          */
-        private void addFiltersForPath(List<FilterMetaData> filters, String fullServletPath) {
-            FilterMetaData[] matches = _filtersPerUrl.getMatchingFilters(fullServletPath);
-            Collections.addAll(filters, matches);
+        private ServletConfiguration getConfiguration() {
+            return _mapping == null ? null : (ServletConfiguration) _mapping.getConfiguration();
         }
+    }
 
-        /**
-         * Adds the filters for servlet with name.
-         *
-         * @param filters
-         *            the filters
-         * @param servletName
-         *            the servlet name
-         */
-        private void addFiltersForServletWithName(List<FilterMetaData> filters, String servletName) {
-            if (servletName == null) {
-                return;
-            }
-            List<FilterMetaData> matches = (List<FilterMetaData>) _filtersPerName.get(servletName);
-            if (matches != null) {
-                filters.addAll(matches);
-            }
-        }
+    /**
+     * The servlet mapping and filter chain selected for a servlet path.
+     */
+    static class ResolvedPath {
+
+        /** The mapping, or null if no servlet is mapped to the path. */
+        private final WebResourceMapping _mapping;
+
+        /** The filters to apply, in order. */
+        private final FilterMetaData[] _filters;
 
         /**
-         * Gets the configuration.
+         * Instantiates a new resolved path.
          *
-         * @return the configuration
+         * @param mapping
+         *            the mapping, or null if no servlet is mapped to the path
+         * @param filters
+         *            the filters to apply, in order
          */
-        private ServletConfiguration getConfiguration() {
-            return _mapping == null ? null : (ServletConfiguration) _mapping.getConfiguration();
+        ResolvedPath(WebResourceMapping mapping, FilterMetaData[] filters) {
+            _mapping = mapping;
+            _filters = filters;
         }
     }
 
@@ -1456,6 +1460,9 @@ class WebApplication implements SessionListenerDispatcher {
      */
     class WebResourceMap {
 
+        /** The maximum number of servlet paths whose mappings and filter chains are cached. */
+        static final int MAX_RESOLVED_PATHS = 1024;
+
         /** The exact matches. */
         private final Map _exactMatches = new HashMap<>();
 
@@ -1468,6 +1475,9 @@ class WebApplication implements SessionListenerDispatcher {
         /** The default mapping. */
         private WebResourceMapping _defaultMapping;
 
+        /** The mappings and filter chains already selected for registered servlets, keyed by servlet path. */
+        private final Map<String, ResolvedPath> _resolvedPaths = new ConcurrentHashMap<>();
+
         /**
          * Put.
          *
@@ -1476,7 +1486,8 @@ class WebApplication implements SessionListenerDispatcher {
          * @param configuration
          *            the configuration
          */
-        void put(String mapping, WebResourceConfiguration configuration) {
+        synchronized void put(String mapping, WebResourceConfiguration configuration) {
+            clearResolvedPaths();
             if (mapping.equals("/")) {
                 _defaultMapping = new WebResourceMapping(configuration);
             } else if (mapping.startsWith("*.")) {
@@ -1517,10 +1528,86 @@ class WebApplication implements SessionListenerDispatcher {
             String servletPath = getServletPath(file.substring(_contextPath.length()));
 
             if (servletPath.endsWith("j_security_check")) {
-                return new ServletRequestImpl(url, servletPath, SECURITY_CHECK_MAPPING, _filterMapping,
-                        _filterUrlMapping);
+                return new ServletRequestImpl(url, servletPath,
+                        new ResolvedPath(SECURITY_CHECK_MAPPING, getFilters(servletPath, SECURITY_CHECK_MAPPING)));
+            }
+            return new ServletRequestImpl(url, servletPath, resolve(servletPath));
+        }
+
+        /**
+         * Discards the cached mappings and filter chains, so that they will be selected again.
+         */
+        void clearResolvedPaths() {
+            _resolvedPaths.clear();
+        }
+
+        /**
+         * Returns the mapping and filter chain for the specified servlet path. Those selected for registered servlets
+         * are cached, up to {@link #MAX_RESOLVED_PATHS} paths, until a servlet or filter is registered. Servlets
+         * loaded by class name, through the /servlet/ prefix, are looked up afresh each time.
+         *
+         * @param servletPath
+         *            the servlet path
+         *
+         * @return the resolved path
+         */
+        private ResolvedPath resolve(String servletPath) {
+            ResolvedPath resolved = _resolvedPaths.get(servletPath);
+            return resolved != null ? resolved : resolveAndCache(servletPath);
+        }
+
+        /**
+         * Selects the mapping and filter chain for the specified servlet path, caching them if they belong to a
+         * registered servlet. This holds the lock on this map, as do {@link #put} and the registration of filters, so
+         * that a result selected before a servlet or filter is registered is never cached after it.
+         *
+         * @param servletPath
+         *            the servlet path
+         *
+         * @return the resolved path
+         */
+        private synchronized ResolvedPath resolveAndCache(String servletPath) {
+            WebResourceMapping mapping = getRegisteredMapping(servletPath);
+            if (mapping == null) {
+                mapping = getInvokerMapping(servletPath);
+                return new ResolvedPath(mapping, getFilters(servletPath, mapping));
+            }
+            ResolvedPath resolved = new ResolvedPath(mapping, getFilters(servletPath, mapping));
+            if (_resolvedPaths.size() >= MAX_RESOLVED_PATHS) {
+                _resolvedPaths.clear();
+            }
+            _resolvedPaths.put(servletPath, resolved);
+            return resolved;
+        }
+
+        /**
+         * Returns the filters to apply to a request for the specified servlet path: first those mapped to the path,
+         * then those mapped to the servlet by name.
+         *
+         * @param servletPath
+         *            the servlet path
+         * @param mapping
+         *            the mapping selected for the path, or null if there is none
+         *
+         * @return the filters
+         */
+        private synchronized FilterMetaData[] getFilters(String servletPath, WebResourceMapping mapping) {
+            ServletConfiguration configuration = mapping == null ? null
+                    : (ServletConfiguration) mapping.getConfiguration();
+            if (configuration == null) {
+                return NO_FILTERS;
+            }
+
+            List<FilterMetaData> filters = new ArrayList<>();
+            Collections.addAll(filters, _filterUrlMapping.getMatchingFilters(servletPath));
+            if (configuration.getServletName() != null) {
+                List<FilterMetaData> matches = (List<FilterMetaData>) _filterMapping
+                        .get(configuration.getServletName());
+                if (matches != null) {
+                    filters.addAll(matches);
+                }
             }
-            return new ServletRequestImpl(url, servletPath, getMapping(servletPath), _filterMapping, _filterUrlMapping);
+            return filters.toArray(new FilterMetaData[filters.size()]);
         }
 
         /**
@@ -1621,14 +1708,14 @@ class WebApplication implements SessionListenerDispatcher {
         }
 
         /**
-         * Gets the mapping.
+         * Returns the mapping registered for the specified url.
          *
          * @param url
          *            the url
          *
-         * @return the mapping
+         * @return the mapping, or null if none matches
          */
-        private WebResourceMapping getMapping(String url) {
+        private WebResourceMapping getRegisteredMapping(String url) {
             if (_exactMatches.containsKey(url)) {
                 return (WebResourceMapping) _exactMatches.get(url);
             }
@@ -1646,10 +1733,18 @@ class WebApplication implements SessionListenerDispatcher {
                 return (WebResourceMapping) _urlTree.get("/");
             }
 
-            if (_defaultMapping != null) {
-                return _defaultMapping;
-            }
+            return _defaultMapping;
+        }
 
+        /**
+         * Returns a mapping for a servlet named by class in the specified url, which begins with /servlet/.
+         *
+         * @param url
+         *            the url
+         *
+         * @return the mapping, or null if the url does not name a servlet class
+         */
+        private WebResourceMapping getInvokerMapping(String url) {
             final String prefix = "/servlet/";
             if (!url.startsWith(prefix)) {
                 return null;
@@ -29,6 +29,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.StringReader;
+import java.net.HttpURLConnection;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -293,6 +294,76 @@ class FileUploadTest extends HttpUnitTest {
         assertEquals("text/plain:message.name=temp.txt&message.lines=2&update=age", encoding.getText().trim());
     }
 
+    /**
+     * verify that an upload whose length is known is sent with a content length, and any other upload is sent in
+     * chunks.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void streamedUploadFraming() throws Exception {
+        File file = createFile("temp.txt", "Not much text\nBut two lines\n".getBytes(StandardCharsets.UTF_8));
+        defineResource("Framing", new PseudoServlet() {
+            @Override
+            public WebResource getPostResponse() throws IOException {
+                return new WebResource(getHeader("Content-Length") + "/" + getHeader("Transfer-Encoding") + "/"
+                        + getBody().length, "text/plain");
+            }
+        });
+        WebConversation wc = new WebConversation();
+
+        PostMethodWebRequest request = new PostMethodWebRequest(getHostPath() + "/Framing", /* mime-encoded */ true);
+        request.setParameter("note", "hello");
+        request.selectFile("message", file);
+        String[] framing = wc.getResponse(request).getText().trim().split("/");
+        assertEquals(framing[2], framing[0], "Content length of file upload");
+        assertEquals("null", framing[1], "Transfer encoding of file upload");
+
+        request = new PostMethodWebRequest(getHostPath() + "/Framing", /* mime-encoded */ true);
+        request.selectFile("message", "temp.txt",
+                new ByteArrayInputStream("Not much text\n".getBytes(StandardCharsets.UTF_8)), "text/plain");
+        framing = wc.getResponse(request).getText().trim().split("/");
+        assertEquals("null", framing[0], "Content length of stream upload");
+        assertEquals("chunked", framing[1], "Transfer encoding of stream upload");
+        file.delete();
+    }
+
+    /**
+     * verify that an authentication challenge in reply to a mime-encoded post is returned as a response, whether or
+     * not the post was streamed.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void unauthorizedMimeEncodedPost() throws Exception {
+        File file = createFile("temp.txt", "Not much text\nBut two lines\n".getBytes(StandardCharsets.UTF_8));
+        defineResource("Protected", new PseudoServlet() {
+            @Override
+            public WebResource getPostResponse() {
+                WebResource webResource = new WebResource("unauthorized", HttpURLConnection.HTTP_UNAUTHORIZED);
+                webResource.addHeader("WWW-Authenticate: Basic realm=\"testrealm\"");
+                return webResource;
+            }
+        });
+        WebConversation wc = new WebConversation();
+        wc.setExceptionsThrownOnErrorStatus(false);
+
+        PostMethodWebRequest request = new PostMethodWebRequest(getHostPath() + "/Protected", /* mime-encoded */ true);
+        request.setParameter("note", "hello");
+        WebResponse response = wc.getResponse(request);
+        assertEquals(HttpURLConnection.HTTP_UNAUTHORIZED, response.getResponseCode(), "Status of plain post");
+        assertEquals("unauthorized", response.getText().trim(), "Body of plain post");
+
+        request = new PostMethodWebRequest(getHostPath() + "/Protected", /* mime-encoded */ true);
+        request.selectFile("message", file);
+        response = wc.getResponse(request);
+        assertEquals(HttpURLConnection.HTTP_UNAUTHORIZED, response.getResponseCode(), "Status of upload");
+        assertEquals("Basic realm=\"testrealm\"", response.getHeaderField("WWW-Authenticate"), "Challenge of upload");
+        file.delete();
+    }
+
     /**
      * File upload without form.
      *
@@ -0,0 +1,133 @@
+/*
+ * SPDX-License-Identifier: MIT
+ * See LICENSE file for details.
+ *
+ * Copyright 2000-2026 Russell Gold
+ * Copyright 2021-2026 hazendaz
+ */
+package com.meterware.httpunit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for requests sent through the HttpClient based transport.
+ */
+class HttpClientTransportTest extends HttpUnitTest {
+
+    /**
+     * verify that a page, its headers and its cookies are received as with the default transport.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void simpleGet() throws Exception {
+        defineWebPage("SimplePage", "This has a <a href='Other.html'>link</a>");
+        addResourceHeader("SimplePage.html", "Set-Cookie: HSBCLoginFailReason=; path=/");
+        addResourceHeader("SimplePage.html", "X-Sample: one");
+        WebConversation wc = new WebConversation();
+        wc.setTransport(new HttpClientTransport());
+
+        WebResponse response = wc.getResponse(getHostPath() + "/SimplePage.html");
+        assertEquals(HttpURLConnection.HTTP_OK, response.getResponseCode());
+        assertEquals("OK", response.getResponseMessage());
+        assertEquals("text/html", response.getContentType());
+        assertEquals("one", response.getHeaderField("x-sample"));
+        assertEquals(1, response.getLinks().length, "Number of links");
+        assertEquals("", wc.getCookieValue("HSBCLoginFailReason"), "Cookie value");
+    }
+
+    /**
+     * verify that a message body is sent.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void postWithBody() throws Exception {
+        defineResource("ReportData", new BodyEcho());
+        String sourceData = "This is an interesting test\nWith two lines";
+        WebConversation wc = new WebConversation();
+        wc.setTransport(new HttpClientTransport());
+
+        WebRequest request = new PostMethodWebRequest(getHostPath() + "/ReportData",
+                new ByteArrayInputStream(sourceData.getBytes(StandardCharsets.UTF_8)), "text/sample");
+        assertEquals("\nPOST\n" + sourceData, wc.getResponse(request).getText(), "Body response");
+    }
+
+    /**
+     * verify that error responses carry the standard reason phrase.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void notFound() throws Exception {
+        WebConversation wc = new WebConversation();
+        wc.setTransport(new HttpClientTransport());
+
+        HttpNotFoundException e = assertThrows(HttpNotFoundException.class,
+                () -> wc.getResponse(getHostPath() + "/nothing.htm"));
+        assertEquals(HttpURLConnection.HTTP_NOT_FOUND, e.getResponseCode(), "Response code");
+        assertEquals("Not Found", e.getResponseMessage(), "Response message");
+    }
+
+    /**
+     * verify that a per-conversation proxy server is used.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void proxyServerAccess() throws Exception {
+        defineResource("http://someserver.com/sample", "Get this", "text/plain");
+        WebConversation wc = new WebConversation();
+        wc.setTransport(new HttpClientTransport());
+        wc.setProxyServer("localhost", getHostPort());
+
+        assertEquals("Get this", wc.getResponse("http://someserver.com/sample").getText().trim(), "Expected text");
+    }
+
+    /**
+     * verify that several conversations may share a transport with a limited number of connections.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void sharedTransport() throws Exception {
+        defineResource("Count.html", "<html><body>counted</body></html>");
+        HttpTransport transport = new HttpClientTransport(2);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                results.add(executor.submit(() -> {
+                    WebConversation wc = new WebConversation();
+                    wc.setTransport(transport);
+                    assertSame(transport, wc.getTransport());
+                    return wc.getResponse(getHostPath() + "/Count.html").getText();
+                }));
+            }
+            for (Future<String> result : results) {
+                assertEquals("<html><body>counted</body></html>", result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
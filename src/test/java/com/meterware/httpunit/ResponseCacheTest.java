@@ -0,0 +1,241 @@
+/*
+ * SPDX-License-Identifier: MIT
+ * See LICENSE file for details.
+ *
+ * Copyright 2000-2026 Russell Gold
+ * Copyright 2021-2026 hazendaz
+ */
+package com.meterware.httpunit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.meterware.pseudoserver.PseudoServlet;
+import com.meterware.pseudoserver.WebResource;
+
+import java.net.HttpURLConnection;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for responses kept in a {@link ResponseCache}.
+ */
+class ResponseCacheTest extends HttpUnitTest {
+
+    /**
+     * verify that a fresh script is downloaded only once, even by separate conversations sharing the cache.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void freshScriptIsReused() throws Exception {
+        CountingServlet script = new CountingServlet("function answer() { return 42; }", "Cache-Control: max-age=600");
+        defineResource("lib.js", script);
+        defineResource("Page.html", "<html><head><script src='lib.js'></script></head>"
+                + "<body onLoad='alert(answer())'></body></html>");
+        ResponseCache cache = new ResponseCache();
+
+        for (int i = 0; i < 3; i++) {
+            WebConversation wc = new WebConversation();
+            wc.setResponseCache(cache);
+            wc.getResponse(getHostPath() + "/Page.html");
+            assertEquals("42", wc.popNextAlert(), "Alert message");
+        }
+        assertEquals(1, script._requests, "Requests for the script");
+        assertEquals(1, cache.getEntryCount(), "Cached responses");
+        assertEquals(2, cache.getHits(), "Cache hits");
+    }
+
+    /**
+     * verify that a stale response is revalidated with its entity tag and reused if not modified.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void staleResponseIsRevalidated() throws Exception {
+        CountingServlet servlet = new CountingServlet("tagged contents", "ETag: \"v1\"");
+        defineResource("Tagged.txt", servlet);
+        ResponseCache cache = new ResponseCache();
+        WebConversation wc = new WebConversation();
+        wc.setResponseCache(cache);
+
+        assertEquals("tagged contents", wc.getResponse(getHostPath() + "/Tagged.txt").getText());
+        WebResponse response = wc.getResponse(getHostPath() + "/Tagged.txt");
+        assertEquals(HttpURLConnection.HTTP_OK, response.getResponseCode(), "Response code");
+        assertEquals("tagged contents", response.getText(), "Revalidated contents");
+        assertEquals(2, servlet._requests, "Requests sent");
+        assertEquals(1, servlet._notModified, "Not modified responses");
+
+        assertEquals(1, cache.getHits(), "Cache hits after revalidation");
+
+        servlet._contents = "changed contents";
+        servlet._header = "ETag: \"v2\"";
+        assertEquals("changed contents", wc.getResponse(getHostPath() + "/Tagged.txt").getText());
+        assertEquals(1, cache.getHits(), "Cache hits after replacement");
+        assertEquals(2, cache.getMisses(), "Cache misses after replacement");
+    }
+
+    /**
+     * verify that a cookie sent with a not-modified response reaches the conversation, although it is not kept.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void cookieWithNotModifiedResponse() throws Exception {
+        CountingServlet servlet = new CountingServlet("tagged contents", "ETag: \"v1\"");
+        defineResource("Tagged.txt", servlet);
+        ResponseCache cache = new ResponseCache();
+        WebConversation wc = new WebConversation();
+        wc.setResponseCache(cache);
+
+        wc.getResponse(getHostPath() + "/Tagged.txt");
+        servlet._cookie = "Set-Cookie: session=rotated";
+        assertEquals("tagged contents", wc.getResponse(getHostPath() + "/Tagged.txt").getText());
+        assertEquals(1, servlet._notModified, "Not modified responses");
+        assertEquals("rotated", wc.getCookieValue("session"), "Cookie from not modified response");
+
+        WebConversation other = new WebConversation();
+        other.setResponseCache(cache);
+        servlet._cookie = null;
+        other.getResponse(getHostPath() + "/Tagged.txt");
+        assertEquals(null, other.getCookieValue("session"), "Cookie replayed to another conversation");
+    }
+
+    /**
+     * verify that responses which may not be stored are always downloaded, and that cookies are not replayed.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void uncacheableResponses() throws Exception {
+        CountingServlet noStore = new CountingServlet("secret", "Cache-Control: no-store, max-age=600");
+        defineResource("NoStore.txt", noStore);
+        CountingServlet plain = new CountingServlet("plain", null);
+        defineResource("Plain.txt", plain);
+        CountingServlet cookie = new CountingServlet("with cookie", "Cache-Control: max-age=600");
+        cookie._cookie = "Set-Cookie: visited=yes";
+        defineResource("Cookie.txt", cookie);
+        ResponseCache cache = new ResponseCache();
+
+        for (int i = 0; i < 2; i++) {
+            WebConversation wc = new WebConversation();
+            wc.setResponseCache(cache);
+            wc.getResponse(getHostPath() + "/NoStore.txt");
+            wc.getResponse(getHostPath() + "/Plain.txt");
+            wc.getResponse(getHostPath() + "/Cookie.txt");
+            assertEquals(i == 0 ? "yes" : null, wc.getCookieValue("visited"), "Cookie value");
+        }
+        assertEquals(2, noStore._requests, "Requests for no-store response");
+        assertEquals(2, plain._requests, "Requests for response without cache headers");
+        assertEquals(1, cookie._requests, "Requests for cacheable response");
+    }
+
+    /**
+     * verify that hosts which a DNS listener reroutes to the same address do not share cached responses.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void reroutedHostsAreCachedApart() throws Exception {
+        CountingServlet servlet = new CountingServlet("shared address", "Cache-Control: max-age=600");
+        defineResource("Host.txt", servlet);
+        ResponseCache cache = new ResponseCache();
+        WebConversation wc = new WebConversation();
+        wc.setResponseCache(cache);
+        wc.getClientProperties().setDnsListener(hostName -> "127.0.0.1");
+
+        wc.getResponse("http://one.example:" + getHostPort() + "/Host.txt");
+        wc.getResponse("http://two.example:" + getHostPort() + "/Host.txt");
+        wc.getResponse("http://one.example:" + getHostPort() + "/Host.txt");
+        assertEquals(2, servlet._requests, "Requests sent");
+        assertEquals(2, cache.getEntryCount(), "Cached responses");
+    }
+
+    /**
+     * verify that the least recently used responses are discarded when the cache is full.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void sizeLimit() throws Exception {
+        CountingServlet first = new CountingServlet("0123456789", "Cache-Control: max-age=600");
+        CountingServlet second = new CountingServlet("abcdefghij", "Cache-Control: max-age=600");
+        defineResource("First.txt", first);
+        defineResource("Second.txt", second);
+        ResponseCache cache = new ResponseCache(15);
+        WebConversation wc = new WebConversation();
+        wc.setResponseCache(cache);
+
+        wc.getResponse(getHostPath() + "/First.txt");
+        wc.getResponse(getHostPath() + "/Second.txt");
+        assertEquals(1, cache.getEntryCount(), "Cached responses");
+        assertEquals(10, cache.getSize(), "Cache size");
+        assertEquals("0123456789", wc.getResponse(getHostPath() + "/First.txt").getText());
+        assertEquals(2, first._requests, "Requests for evicted response");
+    }
+
+    // ============================= class CountingServlet ======================================
+
+    /**
+     * A servlet which counts the requests it receives, and honors If-None-Match.
+     */
+    static class CountingServlet extends PseudoServlet {
+
+        /** The contents to return. */
+        private String _contents;
+
+        /** A header to send with the contents, or null. */
+        private String _header;
+
+        /** A cookie header to send with the contents, or null. */
+        private String _cookie;
+
+        /** The number of requests received. */
+        private int _requests;
+
+        /** The number of times a not-modified status was returned. */
+        private int _notModified;
+
+        /**
+         * Instantiates a new counting servlet.
+         *
+         * @param contents
+         *            the contents
+         * @param header
+         *            the header to send, or null
+         */
+        CountingServlet(String contents, String header) {
+            _contents = contents;
+            _header = header;
+        }
+
+        @Override
+        public WebResource getGetResponse() {
+            _requests++;
+            String etag = _header != null && _header.startsWith("ETag: ") ? _header.substring(6) : null;
+            if (etag != null && etag.equals(getHeader("If-None-Match"))) {
+                _notModified++;
+                WebResource resource = new WebResource("", HttpURLConnection.HTTP_NOT_MODIFIED);
+                resource.addHeader(_header);
+                if (_cookie != null) {
+                    resource.addHeader(_cookie);
+                }
+                return resource;
+            }
+            WebResource resource = new WebResource(_contents, "text/plain");
+            if (_header != null) {
+                resource.addHeader(_header);
+            }
+            if (_cookie != null) {
+                resource.addHeader(_cookie);
+            }
+            return resource;
+        }
+    }
+
+}
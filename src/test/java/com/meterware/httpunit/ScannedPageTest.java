@@ -0,0 +1,80 @@
+/*
+ * SPDX-License-Identifier: MIT
+ * See LICENSE file for details.
+ *
+ * Copyright 2000-2026 Russell Gold
+ * Copyright 2021-2026 hazendaz
+ */
+package com.meterware.httpunit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for pages scanned without building a document.
+ */
+class ScannedPageTest extends HttpUnitTest {
+
+    /**
+     * verify that the title, links and forms of a page are found by a scan.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void scanLinksAndForms() throws Exception {
+        defineWebPage("Scanned", "<base target='main'>"
+                + "<a href='First.html#top' name='first'>the <b>first</b>&nbsp;link</a>"
+                + "<noscript><a href='Hidden.html'>hidden</a></noscript>"
+                + "<map name='m'><area href='Area.html' alt='an area'></map>"
+                + "<form name='search' action='Search' method='POST'>"
+                + "<input name='query'><select name='scope'><option>all</select><input name='query'>"
+                + "<input type='submit'></form>"
+                + "<a href='Other.html' target='_top'>another</a>");
+        WebConversation wc = new WebConversation();
+        ScannedPage page = wc.getResource(new GetMethodWebRequest(getHostPath() + "/Scanned.html")).getScannedPage();
+
+        assertEquals("Scanned", page.getTitle(), "Title");
+        ScannedLink[] links = page.getLinks();
+        assertEquals(3, links.length, "Number of links");
+        assertEquals("First.html", links[0].getURLString(), "First link destination");
+        assertEquals(getHostPath() + "/First.html", links[0].getURL().toExternalForm(), "First link URL");
+        assertEquals("the first link", links[0].getText(), "First link text");
+        assertEquals("first", links[0].getName(), "First link name");
+        assertEquals("main", links[0].getTarget(), "First link target");
+        assertEquals("an area", links[1].getText(), "Area text");
+        assertEquals("_top", links[2].getTarget(), "Last link target");
+
+        ScannedForm[] forms = page.getForms();
+        assertEquals(1, forms.length, "Number of forms");
+        assertEquals("Search", forms[0].getAction(), "Form action");
+        assertEquals("POST", forms[0].getMethod(), "Form method");
+        assertEquals("search", forms[0].getName(), "Form name");
+        assertArrayEquals(new String[] { "query", "scope" }, forms[0].getParameterNames(), "Parameter names");
+    }
+
+    /**
+     * verify that a scan runs no scripts, and that a scanned element finds its counterpart once the page is parsed.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void parseOnDemand() throws Exception {
+        defineWebPage("Scripted", "<script>document.write(\"<a href='Written.html'>written</a>\")</script>"
+                + "<a href='Same.html'>same</a><a href='Same.html'>same</a>"
+                + "<form id='f' action='Submit'><input name='a'></form>");
+        WebConversation wc = new WebConversation();
+        WebResponse response = wc.getResponse(getHostPath() + "/Scripted.html");
+        ScannedPage page = response.getScannedPage();
+        assertEquals(2, page.getLinks().length, "Number of scanned links");
+        assertEquals(3, response.getLinks().length, "Number of parsed links");
+
+        assertSame(response.getLinks()[2], page.getLinks()[1].getLink(), "Second scanned link");
+        assertSame(response.getFormWithID("f"), page.getForms()[0].getForm(), "Form");
+    }
+
+}
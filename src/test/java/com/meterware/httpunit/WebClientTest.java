@@ -8,11 +8,13 @@
 package com.meterware.httpunit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import com.meterware.httpunit.cookies.Cookie;
+import com.meterware.httpunit.cookies.CookieJar;
 import com.meterware.pseudoserver.PseudoServlet;
 import com.meterware.pseudoserver.WebResource;
 
@@ -27,8 +29,10 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.zip.GZIPOutputStream;
 
@@ -329,6 +333,44 @@ class WebClientTest extends HttpUnitTest {
         assertEquals("CUSTOMER=ROAD RUNNER", response.getText(), "Cookies sent");
     }
 
+    /**
+     * verify that conversations forked from a logged-in snapshot send its cookies, but keep their own cookies apart.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void sharedCookies() throws Exception {
+        defineResource("login", "logged in");
+        addResourceHeader("login", "Set-Cookie: SSO=ticket; path=/");
+        defineResource("visit", "visited");
+        addResourceHeader("visit", "Set-Cookie: VISIT=seen; path=/");
+        defineResource("bounce", new CookieEcho());
+
+        WebConversation login = new WebConversation();
+        login.getResponse(getHostPath() + "/login");
+        CookieJar baseline = login.snapshotCookies();
+
+        WebConversation first = new WebConversation();
+        first.shareCookies(baseline);
+        WebConversation second = new WebConversation();
+        second.shareCookies(baseline);
+        first.getResponse(getHostPath() + "/visit");
+        first.putCookie("USER", "first");
+
+        assertEquals("VISIT=seen; SSO=ticket; USER=first", first.getResponse(getHostPath() + "/bounce").getText(),
+                "Cookies sent by first user");
+        assertEquals("SSO=ticket", second.getResponse(getHostPath() + "/bounce").getText(),
+                "Cookies sent by second user");
+
+        CookieJar saved = first.snapshotCookies();
+        first.clearContents();
+        assertEquals("SSO=ticket", first.getResponse(getHostPath() + "/bounce").getText(), "Cookies after clear");
+        second.restoreCookies(saved);
+        assertEquals("VISIT=seen; SSO=ticket; USER=first", second.getResponse(getHostPath() + "/bounce").getText(),
+                "Cookies after restore");
+    }
+
     /**
      * test for 1799532 ] Patched CookieJar for dealing with empty cookies I had a problem testing a web app that sent
      * empty cookie values to the client.
@@ -1231,6 +1273,227 @@ class WebClientTest extends HttpUnitTest {
         }
     }
 
+    /**
+     * verify that a body is read with blocking reads, without polling the stream for available data.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void bodyIsReadWithoutPolling() throws Exception {
+        TrickleStream empty = new TrickleStream("");
+        TrickleStream unknownLength = new TrickleStream("delivered one byte at a time");
+        WebConversation wc = new WebConversation();
+        wc.setTransport(request -> new TrickleResponse(request.getURL().getPath().endsWith("Empty.txt") ? empty
+                : unknownLength));
+
+        assertEquals("", wc.getResponse(getHostPath() + "/Empty.txt").getText(), "Empty content");
+        assertFalse(empty._polled, "Polled the stream of an empty body");
+        assertEquals("delivered one byte at a time", wc.getResponse(getHostPath() + "/Trickle.txt").getText(),
+                "Trickled content");
+        assertFalse(unknownLength._polled, "Polled the stream of a body without a length");
+    }
+
+    /**
+     * A stream which returns at most one byte per read, and records whether it was polled: asked repeatedly how much
+     * data is available, without reading in between.
+     */
+    static class TrickleStream extends InputStream {
+
+        /** The contents. */
+        private final byte[] _contents;
+
+        /** The position of the next byte to read. */
+        private int _position;
+
+        /** True if available() was called since the last read. */
+        private boolean _asked;
+
+        /** True if available() was called twice without a read in between. */
+        private boolean _polled;
+
+        /**
+         * Instantiates a new trickle stream.
+         *
+         * @param contents
+         *            the contents
+         */
+        TrickleStream(String contents) {
+            _contents = contents.getBytes(StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public int read() {
+            _asked = false;
+            return _position < _contents.length ? _contents[_position++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            int next = read();
+            if (next < 0 || len == 0) {
+                return next < 0 ? -1 : 0;
+            }
+            b[off] = (byte) next;
+            return 1;
+        }
+
+        @Override
+        public int available() {
+            _polled |= _asked;
+            _asked = true;
+            return 0;
+        }
+    }
+
+    /**
+     * A transport response whose body is read from a {@link TrickleStream}. An empty body is sent with a zero content
+     * length, and any other body without one.
+     */
+    static class TrickleResponse implements HttpTransportResponse {
+
+        /** The body. */
+        private final TrickleStream _body;
+
+        /**
+         * Instantiates a new trickle response.
+         *
+         * @param body
+         *            the body
+         */
+        TrickleResponse(TrickleStream body) {
+            _body = body;
+        }
+
+        @Override
+        public int getResponseCode() {
+            return HttpURLConnection.HTTP_OK;
+        }
+
+        @Override
+        public String getResponseMessage() {
+            return "OK";
+        }
+
+        @Override
+        public Map<String, List<String>> getHeaderFields() {
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            headers.put("Content-Type", List.of("text/plain"));
+            if (_body._contents.length == 0) {
+                headers.put("Content-Length", List.of("0"));
+            }
+            return headers;
+        }
+
+        @Override
+        public String getContentType() {
+            return "text/plain";
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return _body;
+        }
+    }
+
+    /**
+     * verify that a body without a Content-Length header is read to the end of the stream.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void unknownLengthBody() throws Exception {
+        final byte[] contents = new byte[100 * 1024];
+        for (int i = 0; i < contents.length; i++) {
+            contents[i] = (byte) ('a' + i % 26);
+        }
+        defineResource("Streamed.txt", new PseudoServlet() {
+            @Override
+            public WebResource getGetResponse() {
+                return new WebResource(new ByteArrayInputStream(contents), "text/plain", HttpURLConnection.HTTP_OK);
+            }
+        });
+
+        WebConversation wc = new WebConversation();
+        WebResponse wr = wc.getResponse(getHostPath() + "/Streamed.txt");
+        assertEquals(-1, wr.getContentLength(), "Content-Length");
+        assertEquals(new String(contents, StandardCharsets.ISO_8859_1), wr.getText(), "Content");
+    }
+
+    /**
+     * verify that a body larger than the configured maximum is rejected.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void maxResponseBodySize() throws Exception {
+        defineResource("Large.txt", "This body is longer than twenty bytes", "text/plain");
+        WebConversation wc = new WebConversation();
+        wc.getClientProperties().setMaxResponseBodySize(20);
+        try {
+            wc.getResponse(getHostPath() + "/Large.txt");
+            fail("Should have rejected the response");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().indexOf("maximum size of 20 bytes") >= 0, "Message was: " + e.getMessage());
+        }
+
+        wc.getClientProperties().setMaxResponseBodySize(-1);
+        assertEquals("This body is longer than twenty bytes", wc.getResponse(getHostPath() + "/Large.txt").getText(),
+                "Content");
+    }
+
+    /**
+     * verify that a body read on demand is not touched until needed, so that headers may be checked even if reading
+     * the body would fail.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void readBodyOnDemand() throws Exception {
+        defineResource("Large.txt", "This body is longer than twenty bytes", "text/plain");
+        addResourceHeader("Large.txt", "X-Report: monthly");
+        WebConversation wc = new WebConversation();
+        wc.getClientProperties().setMaxResponseBodySize(20);
+        wc.getClientProperties().setReadBodyOnDemand(true);
+
+        WebResponse response = wc.getResponse(getHostPath() + "/Large.txt");
+        assertEquals(HttpURLConnection.HTTP_OK, response.getResponseCode(), "Response code");
+        assertEquals("text/plain", response.getContentType(), "Content type");
+        assertEquals("monthly", response.getHeaderField("X-Report"), "Header");
+        try {
+            response.getText();
+            fail("Should have rejected the body");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().indexOf("maximum size of 20 bytes") >= 0, "Message was: " + e.getMessage());
+        }
+    }
+
+    /**
+     * verify that meta tags are honored when a body is read on demand.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void metaTagsReadOnDemand() throws Exception {
+        String page = "<html><head><meta http-equiv='content-type' content='text/html; charset=ISO-8859-5'>"
+                + "<meta http-equiv='refresh' content='2;url=Other.html'></head>"
+                + "<body><a href='Other.html'>link</a></body></html>";
+        defineResource("Report.html", page);
+        WebConversation wc = new WebConversation();
+        wc.getClientProperties().setReadBodyOnDemand(true);
+
+        WebResponse response = wc.getResource(new GetMethodWebRequest(getHostPath() + "/Report.html"));
+        assertEquals(2, response.getRefreshDelay(), "Refresh delay");
+        assertEquals("ISO-8859-5", response.getCharacterSet(), "Character set");
+        assertEquals(page, response.getText(), "Text");
+        assertEquals(page, new String(response.getBytes(), StandardCharsets.ISO_8859_1), "Bytes");
+        assertEquals(1, response.getLinks().length, "Number of links");
+    }
+
     /**
      * Gzip undefined length handling.
      *
@@ -1443,6 +1706,24 @@ class WebClientTest extends HttpUnitTest {
         assertEquals("found cookies: type=short", wr.getText(), "Submitted cookie header");
     }
 
+    /**
+     * verify that the host header sent for a rerouted request is not kept with the client, where requests sent
+     * concurrently would share it.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void dnsOverrideLeavesClientHeaders() throws Exception {
+        WebConversation wc = new WebConversation();
+        wc.getClientProperties().setDnsListener(hostName -> "127.0.0.1");
+        defineResource("whereAmI", "here");
+
+        WebResponse wr = wc.getResponse("http://localhost:" + getHostPort() + "/whereAmI");
+        assertEquals("here", wr.getText().trim(), "Rerouted response");
+        assertNull(wc.getHeaderField("Host"), "Host header kept with the client");
+    }
+
     /**
      * test for Delete Response patch by Matthew M. Boedicker"
      *
@@ -12,7 +12,17 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.meterware.pseudoserver.PseudoServlet;
+import com.meterware.pseudoserver.WebResource;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -771,6 +781,53 @@ class WebFrameTest extends HttpUnitTest {
         assertNotNull(link, "No link found");
     }
 
+    /**
+     * Verifies that frames may be requested concurrently, and are still installed in document order.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void concurrentFrameRequests() throws Exception {
+        CountDownLatch allRequested = new CountDownLatch(3);
+        for (int i = 1; i <= 3; i++) {
+            String name = "Frame" + i;
+            defineResource(name + ".html", new PseudoServlet() {
+                @Override
+                public WebResource getGetResponse() throws IOException {
+                    allRequested.countDown();
+                    try {
+                        String status = allRequested.await(10, TimeUnit.SECONDS) ? "together" : "alone";
+                        return new WebResource(name + " " + status, "text/plain");
+                    } catch (InterruptedException e) {
+                        throw new InterruptedIOException();
+                    }
+                }
+            });
+        }
+        defineResource("Frames.html", "<html><frameset rows='*,*,*'><frame name='one' src='Frame1.html'>"
+                + "<frame name='two' src='Frame2.html'><frame name='three' src='Frame3.html'></frameset></html>");
+        List<String> received = new ArrayList<>();
+        _wc.addClientListener(new WebClientListener() {
+            @Override
+            public void requestSent(WebClient src, WebRequest req) {
+            }
+
+            @Override
+            public void responseReceived(WebClient src, WebResponse resp) {
+                received.add(resp.getURL().getPath());
+            }
+        });
+        _wc.getClientProperties().setMaxConcurrentFrameRequests(3);
+
+        _wc.getResponse(getHostPath() + "/Frames.html");
+        assertEquals("Frame1 together", _wc.getFrameContents("one").getText().trim(), "First frame");
+        assertEquals("Frame2 together", _wc.getFrameContents("two").getText().trim(), "Second frame");
+        assertEquals("Frame3 together", _wc.getFrameContents("three").getText().trim(), "Third frame");
+        assertEquals(Arrays.asList("/Frames.html", "/Frame1.html", "/Frame2.html", "/Frame3.html"), received,
+                "Responses received");
+    }
+
     /** The wc. */
     private WebConversation _wc;
 }
@@ -10,6 +10,7 @@ package com.meterware.httpunit;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -617,6 +618,33 @@ class WebLinkTest extends HttpUnitTest {
         assertTrue(html2.indexOf("test page2") > 0, "click should lead to page 2");
     }
 
+    /**
+     * verify that lookups by text and name follow changes to the page and to the case sensitivity setting.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void lookupsFollowChanges() throws Exception {
+        WebLink link = _simplePage.getLinkWith("some text");
+        assertNotNull(link, "Link with 'some text'");
+        assertEquals("myLink", _simplePage.getLinkWithName("myLink").getName(), "Link name");
+        assertEquals(2, _simplePage.getMatchingLinks(WebLink.MATCH_CONTAINED_TEXT, "link").length, "Matching links");
+        assertSame(link, _simplePage.getFirstMatchingLink(WebLink.MATCH_TEXT, "SOME TEXT"), "Link with 'SOME TEXT'");
+
+        link.getNode().getFirstChild().setNodeValue("other words");
+        link.getNode().getAttributes().getNamedItem("name").setNodeValue("yourLink");
+        assertNull(_simplePage.getLinkWith("some text"), "Link found after changing its text");
+        assertSame(link, _simplePage.getLinkWith("other"), "Link with 'other'");
+        assertNull(_simplePage.getLinkWithName("myLink"), "Link found after changing its name");
+        assertSame(link, _simplePage.getLinkWithName("yourLink"), "Renamed link");
+
+        HttpUnitOptions.setMatchesIgnoreCase(false);
+        assertNull(_simplePage.getLinkWith("OTHER"), "Link found with different case");
+        assertNull(_simplePage.getImageWithAltText("next -->"), "Image found with different case");
+        assertNotNull(_simplePage.getImageWithAltText("Next -->"), "Image with alt text");
+    }
+
     /** The simple page. */
     private WebResponse _simplePage;
 }
@@ -11,20 +11,29 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.SocketAddress;
+import java.net.URI;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.w3c.dom.html.HTMLDocument;
 import org.xml.sax.SAXException;
@@ -71,6 +80,53 @@ class WebPageTest extends HttpUnitTest {
         }
     }
 
+    /**
+     * verify that a proxy server applies only to the conversation for which it was set, and does not alter the system
+     * properties.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void proxyServerIsPerConversation() throws Exception {
+        defineResource("http://someserver.com/sample", "Get this", "text/plain");
+        defineResource("sample", "Direct", "text/plain");
+        WebConversation proxied = new WebConversation();
+        WebConversation direct = new WebConversation();
+        proxied.setProxyServer("localhost", getHostPort());
+
+        assertEquals("Get this", proxied.getResponse("http://someserver.com/sample").getText().trim(), "Proxied text");
+        assertEquals("Direct", direct.getResponse(getHostPath() + "/sample").getText().trim(), "Direct text");
+        assertNull(System.getProperty("proxyHost"), "System proxy host");
+        assertEquals("localhost", proxied.getProxyHost(), "Proxy host");
+        assertEquals(getHostPort(), proxied.getProxyPort(), "Proxy port");
+        assertNull(direct.getProxyHost(), "Proxy host for other conversation");
+    }
+
+    /**
+     * verify that a proxy selector chooses the proxy for each request.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void proxySelectorAccess() throws Exception {
+        defineResource("http://someserver.com/sample", "Get this", "text/plain");
+        final Proxy proxy = new Proxy(Proxy.Type.HTTP, new InetSocketAddress("localhost", getHostPort()));
+        WebConversation wc = new WebConversation();
+        wc.setProxySelector(new ProxySelector() {
+            @Override
+            public List<Proxy> select(URI uri) {
+                return Collections.singletonList(uri.getHost().equals("someserver.com") ? proxy : Proxy.NO_PROXY);
+            }
+
+            @Override
+            public void connectFailed(URI uri, SocketAddress sa, IOException ioe) {
+            }
+        });
+        assertEquals("Get this", wc.getResponse("http://someserver.com/sample").getText().trim(), "Expected text");
+    }
+
     /**
      * check the valid contentTypes modified for bug report [ 1281655 ] [patch] allow text/xml to be parsed as html by
      * fabrizio giustina.
@@ -678,6 +734,31 @@ class WebPageTest extends HttpUnitTest {
         assertTrue(resp.getText().indexOf("Success") >= 0);
     }
 
+    /**
+     * Verifies that elements can be selected by XPath, and that the matches follow changes to the document.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void getElementsByXPath() throws Exception {
+        defineResource("SimplePage.html", "<html><body><a id='a1' class='nav' href='one.html'>one</a>"
+                + "<a id='a2' href='two.html'>two</a><a id='a3' class='nav' href='three.html'>three</a></body></html>");
+        WebConversation wc = new WebConversation();
+        WebResponse resp = wc.getResponse(getHostPath() + "/SimplePage.html");
+
+        HTMLElement[] elements = resp.getElementsByXPath("//A[@class='nav']");
+        assertEquals(2, elements.length, "Number of matching elements");
+        assertSame(resp.getLinkWithID("a1"), elements[0], "First matching element");
+        assertSame(resp.getLinkWithID("a3"), elements[1], "Second matching element");
+        assertEquals(0, resp.getElementsByXPath("//A/@href").length, "Number of elements matching attributes");
+
+        XPathPredicate predicate = new XPathPredicate("//A[@class='nav']");
+        assertEquals(2, resp.getMatchingLinks(predicate, null).length, "Number of matching links");
+        ((Element) resp.getLinkWithID("a2").getNode()).setAttribute("class", "nav");
+        assertEquals(3, resp.getMatchingLinks(predicate, null).length, "Number of matching links after change");
+    }
+
     /**
      * test case for BR 2883515.
      *
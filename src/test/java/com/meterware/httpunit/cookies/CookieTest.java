@@ -11,14 +11,19 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.meterware.pseudoserver.HttpUserAgentTest;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -454,6 +459,143 @@ class CookieTest {
         checkHeader(1, jar, "first=ready; third=tomorrow", "www.meterware.com/servlets/standard");
     }
 
+    /**
+     * verify that a cookie set for a parent domain replaces one with the same name and path set for a host in that
+     * domain, and that only cookies for matching domains are sent.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void crossDomainReplacement() throws Exception {
+        CookieJar jar = new CookieJar();
+        for (int i = 0; i < 50; i++) {
+            jar.updateCookies(newJar("host" + i + ".example.org/", "id=" + i));
+        }
+        jar.updateCookies(newJar("www.meterware.com/", "session=old"));
+        jar.updateCookies(newJar("www.meterware.com/", "user=fred"));
+        jar.updateCookies(newJar("login.meterware.com/", "session=new; domain=.meterware.com"));
+
+        checkHeader(1, jar, "user=fred; session=new", "www.meterware.com/servlets");
+        checkHeader(2, jar, "session=new", "www.login.meterware.com/");
+        checkHeader(3, jar, "id=17", "host17.example.org/");
+        assertNull(jar.getCookieHeaderField(new URL("http://example.org/")), "header 4");
+        assertEquals(52, jar.getCookies().size(), "Number of cookies");
+    }
+
+    /**
+     * verify that expired cookies are not sent, and are discarded when requested.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void expiredCookieRemoval() throws Exception {
+        CookieJar jar = new CookieJar();
+        jar.updateCookies(newJar("www.meterware.com/", "first=ready, gone=expired;max-age=0"));
+
+        checkHeader(1, jar, "first=ready", "www.meterware.com/");
+        assertEquals("expired", jar.getCookieValue("gone"), "Expired cookie value");
+        jar.removeExpiredCookies();
+        assertNull(jar.getCookie("gone"), "Expired cookie was not removed");
+        assertEquals("ready", jar.getCookieValue("first"), "Remaining cookie value");
+    }
+
+    /**
+     * verify that a cookie jar may be updated and read by several threads at once.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void concurrentUpdates() throws Exception {
+        final CookieJar jar = new CookieJar();
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int thread = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 100; i++) {
+                        jar.updateCookies(newJar("site" + thread + ".meterware.com/", "count=" + i));
+                        jar.getCookieHeaderField(new URL("http://site" + thread + ".meterware.com/"));
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(failures.isEmpty(), "Failures: " + failures);
+        assertEquals(threads.length, jar.getCookies().size(), "Number of cookies");
+        for (int t = 0; t < threads.length; t++) {
+            checkHeader(t, jar, "count=99", "site" + t + ".meterware.com/");
+        }
+    }
+
+    /**
+     * verify that a layered jar inherits the cookies of its parent, and that changes to it do not affect the parent.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void layeredJar() throws Exception {
+        CookieJar shared = new CookieJar();
+        shared.putCookie("locale", "en");
+        shared.updateCookies(newJar("www.meterware.com/", "sso=token, theme=dark"));
+
+        CookieJar user = new CookieJar(shared);
+        assertSame(shared, user.getParent(), "Parent jar");
+        checkHeader(1, user, "theme=dark; sso=token; locale=en", "www.meterware.com/");
+
+        user.updateCookies(newJar("www.meterware.com/", "session=1, theme=light"));
+        user.putCookie("sso", "changed");
+        user.putCookie("locale", null);
+        checkHeader(2, user, "theme=light; session=1; sso=changed", "www.meterware.com/");
+        checkHeader(3, shared, "theme=dark; sso=token; locale=en", "www.meterware.com/");
+        assertNull(user.getCookie("locale"), "Removed inherited cookie");
+        assertEquals("token", shared.getCookieValue("sso"), "Shared cookie value");
+
+        user.clear();
+        checkHeader(4, user, "theme=dark; sso=token; locale=en", "www.meterware.com/");
+    }
+
+    /**
+     * verify that a restored snapshot is independent both of the jar from which it was taken and of the snapshot.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void snapshotAndRestore() throws Exception {
+        CookieJar shared = new CookieJar();
+        shared.updateCookies(newJar("www.meterware.com/", "sso=token"));
+        CookieJar jar = new CookieJar(shared);
+        jar.updateCookies(newJar("www.meterware.com/", "session=1"));
+
+        CookieJar snapshot = jar.snapshot();
+        assertSame(shared, snapshot.getParent(), "Snapshot parent");
+        jar.putCookie("session", "2");
+        checkHeader(1, snapshot, "session=1; sso=token", "www.meterware.com/");
+
+        CookieJar first = new CookieJar();
+        CookieJar second = new CookieJar();
+        first.restore(snapshot);
+        second.restore(snapshot);
+        first.putCookie("session", "first");
+        checkHeader(2, first, "session=first; sso=token", "www.meterware.com/");
+        checkHeader(3, second, "session=1; sso=token", "www.meterware.com/");
+
+        jar.restore(snapshot);
+        checkHeader(4, jar, "session=1; sso=token", "www.meterware.com/");
+        assertThrows(IllegalArgumentException.class, () -> shared.restore(new CookieJar(shared)));
+    }
+
     /**
      * New jar.
      *
@@ -12,6 +12,11 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.Test;
 import org.mozilla.javascript.Context;
@@ -128,6 +133,43 @@ class DomScriptingTest extends AbstractHTMLElementTest {
         assertEquals(6, anchor.getTabIndex(), "revised tab index");
     }
 
+    /**
+     * verify that the properties of elements may be read and written from several threads at once.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void concurrentPropertyAccess() throws Exception {
+        final int threadCount = 8;
+        List<HTMLAnchorElementImpl> anchors = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            anchors.add((HTMLAnchorElementImpl) createElement("a"));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                final HTMLAnchorElementImpl anchor = anchors.get(i);
+                final int index = i;
+                results.add(executor.submit(() -> {
+                    for (int j = 0; j < 200; j++) {
+                        anchor.put("tabindex", anchor, Integer.valueOf(index * 1000 + j));
+                        anchor.put("title", anchor, "title " + j);
+                        assertEquals(index * 1000 + j, anchor.get("tabindex", anchor), "tab index");
+                        assertEquals("title " + j, anchor.get("title", anchor), "title");
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     /**
      * Adds the body element.
      *
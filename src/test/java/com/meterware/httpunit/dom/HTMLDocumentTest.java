@@ -10,6 +10,7 @@ package com.meterware.httpunit.dom;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 
 import com.meterware.pseudoserver.HttpUserAgentTest;
@@ -170,6 +171,49 @@ class HTMLDocumentTest extends AbstractHTMLElementTest {
         assertSame(image1, _htmlDocument.getElementById("see"), "Image element");
     }
 
+    /**
+     * Verifies that lookups by id, tag, name and class follow changes to the document.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void lookupsFollowChanges() throws Exception {
+        HTMLElement body = (HTMLElement) createElement("body");
+        _htmlDocument.setBody(body);
+        HTMLElement first = (HTMLElement) createElement("div");
+        HTMLElement second = (HTMLElement) createElement("div");
+        first.setId("target");
+        first.setClassName("big red");
+        body.appendChild(first);
+        body.insertBefore(second, first);
+        assertSame(first, _htmlDocument.getElementById("target"), "Element with id");
+        assertEquals(2, _htmlDocument.getElementsByTagName("DIV").getLength(), "Number of divs");
+        assertSame(second, _htmlDocument.getElementsByTagName("div").item(0), "First div");
+        assertSame(first, ((DocumentImpl) _htmlDocument).getElementsByClassName("red").item(0), "Element with class");
+
+        second.setId("target");
+        assertSame(second, _htmlDocument.getElementById("target"), "First element with duplicate id");
+        second.getAttributeNode("id").setValue("other");
+        assertSame(first, _htmlDocument.getElementById("target"), "Element with id after change");
+        assertSame(second, _htmlDocument.getElementById("other"), "Element with changed id");
+
+        first.setClassName("small");
+        assertEquals(0, ((DocumentImpl) _htmlDocument).getElementsByClassName("red").getLength(), "Old class");
+        assertSame(first, ((DocumentImpl) _htmlDocument).getElementsByClassName("small").item(0), "New class");
+
+        body.removeChild(first);
+        assertNull(_htmlDocument.getElementById("target"), "Removed element found by id");
+        assertEquals(1, _htmlDocument.getElementsByTagName("div").getLength(), "Number of divs after removal");
+        first.setAttribute("name", "detached");
+        assertEquals(0, _htmlDocument.getElementsByName("detached").getLength(), "Detached element found by name");
+
+        body.appendChild(first);
+        assertSame(first, _htmlDocument.getElementById("target"), "Element with id after reinsertion");
+        assertSame(first, _htmlDocument.getElementsByName("detached").item(0), "Element with name after reinsertion");
+        assertSame(first, _htmlDocument.getElementsByTagName("div").item(1), "Last div after reinsertion");
+    }
+
     /**
      * Verifies retrieving elements by their name attribute.
      *
@@ -12,6 +12,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -1359,4 +1360,81 @@ class ScriptingTest extends AbstractJavaScriptTest {
 
     }
 
+    /**
+     * verify that globals set by one page are not seen by another, even though they share the standard objects.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void globalsStayWithTheirPage() throws Exception {
+        defineResource("First.html", "<html><head><script language='JavaScript'>"
+                + "function leak() { leaked = 'yes'; }</script></head>" + "<body onLoad='leak(); alert(leaked)'>"
+                + "</body></html>");
+        defineResource("Second.html",
+                "<html><body onLoad='alert(typeof leaked); alert(typeof leak)'></body></html>");
+        WebConversation wc = new WebConversation();
+        JavaScript.setShareStandardObjects(true);
+        try {
+            wc.getResponse(getHostPath() + "/First.html");
+            assertEquals("yes", wc.popNextAlert(), "Alert on first page");
+            wc.getResponse(getHostPath() + "/Second.html");
+            assertEquals("undefined", wc.popNextAlert(), "Implicit global on second page");
+            assertEquals("undefined", wc.popNextAlert(), "Function on second page");
+        } finally {
+            JavaScript.setShareStandardObjects(false);
+        }
+    }
+
+    /**
+     * verify that built-in prototypes may be extended by default, but not once pages share the standard objects.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void extendBuiltInPrototype() throws Exception {
+        defineResource("Extend.html", "<html><head><script language='JavaScript'>"
+                + "Array.prototype.last = function() { return this[this.length-1]; };"
+                + "</script></head><body onLoad='alert([1,2,3].last())'></body></html>");
+        WebConversation wc = new WebConversation();
+        wc.getResponse(getHostPath() + "/Extend.html");
+        assertEquals("3", wc.popNextAlert(), "Alert message");
+
+        JavaScript.setShareStandardObjects(true);
+        try {
+            assertThrows(ScriptException.class, () -> wc.getResponse(getHostPath() + "/Extend.html"));
+        } finally {
+            JavaScript.setShareStandardObjects(false);
+        }
+    }
+
+    /**
+     * verify that scripts and event handlers are compiled only once, even when used by several pages.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void compiledScriptsAreReused() throws Exception {
+        defineResource("Counter.html", "<html><head><script language='JavaScript'>"
+                + "var count = 0; function increment() { count++; }</script></head>"
+                + "<body><a href='#' onClick='increment(); alert(count); return false;'>go</a></body></html>");
+        ScriptingEngineImpl.clearScriptCache();
+        WebConversation wc = new WebConversation();
+        WebResponse response = wc.getResponse(getHostPath() + "/Counter.html");
+        response.getLinks()[0].click();
+        assertEquals("1", wc.popNextAlert(), "Alert on first page");
+        long misses = ScriptingEngineImpl.getScriptCacheMisses();
+        long hits = ScriptingEngineImpl.getScriptCacheHits();
+
+        response = wc.getResponse(getHostPath() + "/Counter.html");
+        response.getLinks()[0].click();
+        response.getLinks()[0].click();
+        assertEquals("1", wc.popNextAlert(), "First alert on second page");
+        assertEquals("2", wc.popNextAlert(), "Second alert on second page");
+        assertEquals(misses, ScriptingEngineImpl.getScriptCacheMisses(), "Scripts compiled for second page");
+        assertTrue(ScriptingEngineImpl.getScriptCacheHits() >= hits + 3, "Compiled scripts should be reused");
+    }
+
 }
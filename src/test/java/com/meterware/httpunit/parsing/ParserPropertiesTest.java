@@ -7,6 +7,7 @@
  */
 package com.meterware.httpunit.parsing;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
@@ -17,6 +18,11 @@ import com.meterware.httpunit.WebRequest;
 import com.meterware.httpunit.WebResponse;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Disabled;
@@ -153,6 +159,34 @@ public class ParserPropertiesTest extends HttpUnitTest {
         doTestKeepCase(false, new String[] { "active", "anchor" }, new String[] { "active", "anchor" });
     }
 
+    /**
+     * verify that pages parsed at the same time on several threads, each leaving a form unclosed, do not affect one
+     * another.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void concurrentParsing() throws Exception {
+        defineWebPage("Unclosed", "<b>bold</b><form name='f'><input name='a'><b>more</b>");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                results.add(executor.submit(() -> {
+                    WebResponse response = new WebConversation().getResponse(getHostPath() + "/Unclosed.html");
+                    return new int[] { response.getForms().length,
+                            response.getDOM().getElementsByTagName("b").getLength() };
+                }));
+            }
+            for (Future<int[]> result : results) {
+                assertArrayEquals(new int[] { 1, 2 }, result.get(), "Forms and bold elements");
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     /**
      * test for patch [ 1176688 ] Allow configuration of neko parser properties by james abley.
      *
@@ -9,24 +9,40 @@ package com.meterware.pseudoserver;
 
 import static java.lang.String.valueOf;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.Socket;
+import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * The Class PseudoServerTest.
@@ -84,6 +100,30 @@ class PseudoServerTest {
         assertEquals(HttpURLConnection.HTTP_NOT_FOUND, response.getResponseCode(), "Response code");
     }
 
+    /**
+     * verify that a resource defined after requests for it were not found is served, with or without parameters.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void resourceDefinedAfterNotFound() throws Exception {
+        SocketConnection conn = new SocketConnection("localhost", getHostPort());
+        assertEquals(HttpURLConnection.HTTP_NOT_FOUND, conn.getResponse("GET", "/later.htm").getResponseCode(),
+                "Response code before definition");
+        assertEquals(HttpURLConnection.HTTP_NOT_FOUND, conn.getResponse("GET", "/later.htm?id=1").getResponseCode(),
+                "Response code with parameters before definition");
+
+        support.defineResource("later.htm", "found it", "text/plain");
+        assertEquals("found it", new String(conn.getResponse("GET", "/later.htm").getBody()), "body");
+        assertEquals("found it", new String(conn.getResponse("GET", "/later.htm?id=1").getBody()),
+                "body with parameters");
+
+        support.defineResource("later.htm", "replaced it", "text/plain");
+        assertEquals("replaced it", new String(conn.getResponse("GET", "/later.htm?id=1").getBody()),
+                "replaced body");
+    }
+
     /**
      * Status specification.
      *
@@ -463,6 +503,218 @@ class PseudoServerTest {
         assertEquals("GET", resp3.getHeader("Allow"), "allow header");
     }
 
+    /**
+     * verify that many requests in turn on a persistent connection are each served in full.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void persistentConnectionThroughput() throws Exception {
+        support.defineResource("/simple", "some text", "text/plain");
+
+        SocketConnection conn = new SocketConnection("localhost", getHostPort());
+        for (int i = 0; i < 200; i++) {
+            SocketConnection.SocketResponse response = conn.getResponse("GET", "/simple");
+            assertEquals("some text", new String(response.getBody()), "retrieved body " + i);
+        }
+    }
+
+    /**
+     * verify that when the number of workers is limited, a waiting connection is served once an idle one times out.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void workerLimit() throws Exception {
+        PseudoServer server = new PseudoServer(PseudoServer.DEFAULT_SOCKET_TIMEOUT, 1);
+        try {
+            server.setResource("/simple", "some text", "text/plain");
+            server.setKeepAliveTimeout(100);
+            assertEquals(1, server.getMaxWorkers(), "max workers");
+
+            SocketConnection first = new SocketConnection("localhost", server.getConnectedPort());
+            assertEquals("some text", new String(first.getResponse("GET", "/simple").getBody()), "first body");
+
+            SocketConnection second = new SocketConnection("localhost", server.getConnectedPort());
+            assertEquals("some text", new String(second.getResponse("GET", "/simple").getBody()), "second body");
+        } finally {
+            server.shutDown();
+        }
+    }
+
+    /**
+     * verify that a handler may serve concurrent requests, each seeing its own parameters.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void concurrentHandler() throws Exception {
+        support.defineResource("/echo", request -> new WebResource(request.getParameter("id")[0], "text/plain"));
+        assertConcurrentEcho("/echo");
+    }
+
+    /**
+     * verify that servlets created by a factory may serve concurrent requests, each seeing its own parameters.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void servletFactory() throws Exception {
+        support.getServer().setResourceFactory("/echo", () -> new PseudoServlet() {
+            @Override
+            public WebResource getGetResponse() {
+                return new WebResource(getParameter("id")[0], "text/plain");
+            }
+        });
+        assertConcurrentEcho("/echo");
+    }
+
+    /**
+     * Sends requests to an echoing resource from several threads at once and verifies that each gets its own reply.
+     *
+     * @param path
+     *            the path of the resource
+     *
+     * @throws Exception
+     *             the exception
+     */
+    private void assertConcurrentEcho(String path) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                final int client = i;
+                results.add(executor.submit(() -> {
+                    SocketConnection conn = new SocketConnection("localhost", getHostPort());
+                    for (int j = 0; j < 25; j++) {
+                        String id = client + "-" + j;
+                        assertEquals(id, new String(conn.getResponse("GET", path + "?id=" + id).getBody()),
+                                "echoed id");
+                    }
+                    conn.close();
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * verify that files in a mapped directory are served, with validators which allow conditional requests.
+     *
+     * @param directory
+     *            a temporary directory
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void directoryMapping(@TempDir Path directory) throws Exception {
+        Path site = directory.resolve("site");
+        Files.createDirectories(site.resolve("scripts"));
+        Files.write(site.resolve("scripts/main.js"), "var x = 1;".getBytes(StandardCharsets.UTF_8));
+        Files.write(directory.resolve("secret"), new byte[] { 1 });
+        support.getServer().mapToDirectory("/site", site);
+
+        HttpURLConnection connection = openConnection("/site/scripts/main.js");
+        assertEquals(HttpURLConnection.HTTP_OK, connection.getResponseCode(), "Response code");
+        assertEquals(10, connection.getContentLength(), "Content length");
+        assertEquals("var x = 1;", new String(connection.getInputStream().readAllBytes(), StandardCharsets.UTF_8),
+                "body");
+        String eTag = connection.getHeaderField("ETag");
+        String lastModified = connection.getHeaderField("Last-Modified");
+        assertNotNull(eTag, "ETag");
+        assertNotNull(lastModified, "Last-Modified");
+
+        connection = openConnection("/site/scripts/main.js");
+        connection.setRequestProperty("If-None-Match", eTag);
+        assertEquals(HttpURLConnection.HTTP_NOT_MODIFIED, connection.getResponseCode(), "Response with ETag");
+
+        connection = openConnection("/site/scripts/main.js");
+        connection.setRequestProperty("If-Modified-Since", lastModified);
+        assertEquals(HttpURLConnection.HTTP_NOT_MODIFIED, connection.getResponseCode(), "Response with date");
+
+        assertEquals(HttpURLConnection.HTTP_NOT_FOUND, openConnection("/site/scripts/other.js").getResponseCode(),
+                "Response for missing file");
+        Files.write(site.resolve("scripts/other.js"), "var y = 2;".getBytes(StandardCharsets.UTF_8));
+        assertEquals(HttpURLConnection.HTTP_OK, openConnection("/site/scripts/other.js?v=1").getResponseCode(),
+                "Response for file created after a miss");
+        assertEquals(HttpURLConnection.HTTP_OK, openConnection("/site/scripts/other.js").getResponseCode(),
+                "Response for file created after a miss, with the missed URI");
+        assertEquals(HttpURLConnection.HTTP_NOT_FOUND, openConnection("/site/../secret").getResponseCode(),
+                "Response for file outside the directory");
+    }
+
+    /**
+     * verify that a single file may be served as a resource.
+     *
+     * @param directory
+     *            a temporary directory
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void fileResource(@TempDir Path directory) throws Exception {
+        byte[] contents = new byte[100000];
+        new Random(1).nextBytes(contents);
+        Path file = Files.write(directory.resolve("archive.zip"), contents);
+        support.getServer().setFileResource("/download/archive.zip", file, "application/zip");
+
+        HttpURLConnection connection = openConnection("/download/archive.zip");
+        assertEquals("application/zip", connection.getContentType(), "Content type");
+        assertArrayEquals(contents, connection.getInputStream().readAllBytes(), "body");
+    }
+
+    /**
+     * verify that a file which grows after its headers are prepared is sent only up to the advertised length.
+     *
+     * @param directory
+     *            a temporary directory
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void fileGrowingWhileSent(@TempDir Path directory) throws Exception {
+        Path file = Files.write(directory.resolve("log.txt"), "first line\n".getBytes(StandardCharsets.UTF_8));
+        WebResource resource = new WebResource(file, "text/plain").forSending();
+        assertTrue(List.of(resource.getHeaders()).contains("Content-Length: 11"), "Content-Length header");
+
+        Files.write(file, "second line\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (WritableByteChannel channel = Channels.newChannel(stream)) {
+            resource.writeTo(stream, channel);
+        }
+        assertEquals("first line\n", stream.toString(StandardCharsets.UTF_8), "body");
+    }
+
+    /**
+     * Opens a connection to the specified path on the server.
+     *
+     * @param path
+     *            the path
+     *
+     * @return the connection
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    private HttpURLConnection openConnection(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + getHostPort() + path)
+                .openConnection();
+        connection.setUseCaches(false);
+        return connection;
+    }
+
     /**
      * The Class TestMethodServlet.
      */
@@ -51,6 +51,7 @@ class SocketConnection {
     public SocketConnection(String host, int port) throws IOException, UnknownHostException {
         _host = host;
         _socket = new Socket(host, port);
+        _socket.setTcpNoDelay(true);
         _os = _socket.getOutputStream();
         _is = new BufferedInputStream(_socket.getInputStream());
     }
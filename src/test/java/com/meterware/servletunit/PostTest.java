@@ -7,11 +7,13 @@
  */
 package com.meterware.servletunit;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import com.meterware.httpunit.GetMethodWebRequest;
+import com.meterware.httpunit.PostMethodWebRequest;
 import com.meterware.httpunit.WebForm;
 import com.meterware.httpunit.WebRequest;
 import com.meterware.httpunit.WebResponse;
@@ -21,6 +23,7 @@ import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -124,6 +127,31 @@ public class PostTest {
         // check(response);
     }
 
+    /**
+     * verify that a large binary body reaches the servlet, and returns in the response, unchanged.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void binaryEcho() throws Exception {
+        TestServlet.location = "http://localhost/";
+        ServletRunner sr = new ServletRunner();
+        sr.registerServlet(resourceName, TestServlet.class.getName());
+
+        byte[] body = new byte[300000];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) (i * 31 + i / 7);
+        }
+        WebRequest request = new PostMethodWebRequest(TestServlet.location + resourceName,
+                new ByteArrayInputStream(body), "application/octet-stream");
+        WebResponse response = sr.getResponse(request);
+
+        try (InputStream is = response.getInputStream()) {
+            assertArrayEquals(body, is.readAllBytes(), "Echoed body");
+        }
+    }
+
     /**
      * a Servlet that counts the posts being done.
      */
@@ -19,7 +19,10 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.http.HttpSession;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -35,6 +38,9 @@ class SessionTest extends ServletUnitTest {
     /** The servlet context. */
     private ServletContext _servletContext = new ServletUnitServletContext(null);
 
+    /** The sessions reported destroyed. */
+    private List<HttpSession> _destroyedSessions = new ArrayList<>();
+
     /**
      * Sets the up.
      *
@@ -50,6 +56,7 @@ class SessionTest extends ServletUnitTest {
 
             @Override
             public void sendSessionDestroyed(HttpSession session) {
+                _destroyedSessions.add(session);
             }
 
             @Override
@@ -155,4 +162,33 @@ class SessionTest extends ServletUnitTest {
         assertSame(_servletContext, session.getServletContext(), "Owning context");
     }
 
+    /**
+     * verify that invalidated sessions are released, and that sessions unused for longer than their maximum inactive
+     * interval are expired.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void sessionExpiry() throws Exception {
+        ServletUnitHttpSession timed = _context.newSession();
+        timed.setMaxInactiveInterval(60);
+        String timedId = timed.getId();
+        ServletUnitHttpSession untimed = _context.newSession();
+        ServletUnitHttpSession invalidated = _context.newSession();
+        invalidated.invalidate();
+        assertEquals(2, _context.getSessionCount(), "Sessions after invalidation");
+
+        long later = timed.getLastAccessedTime() + 60 * 1000;
+        assertEquals(0, _context.expireSessions(later), "Sessions expired within the interval");
+        assertEquals(1, _context.expireSessions(later + 1), "Sessions expired after the interval");
+        assertTrue(timed.isInvalid(), "Expired session not invalidated");
+        timed.invalidate();
+        assertEquals(Arrays.asList(invalidated, timed), _destroyedSessions, "Destroyed sessions");
+        assertNull(_context.getSession(timedId), "Expired session still held");
+        assertSame(untimed, _context.getSession(untimed.getId()), "Session without timeout");
+        assertEquals(1, _context.getSessionCount(), "Sessions after expiry");
+        assertEquals(1, _context.getExpiredSessionCount(), "Expired session count");
+    }
+
 }
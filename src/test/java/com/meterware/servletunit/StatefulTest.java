@@ -27,7 +27,12 @@ import jakarta.servlet.http.HttpSession;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.Test;
 
@@ -246,6 +251,45 @@ class StatefulTest {
         assertEquals(0, response.getNewCookieNames().length, "Returned cookie count");
     }
 
+    /**
+     * verify that one servlet runner may be driven from several threads at once, each with its own client and session.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void concurrentClients() throws Exception {
+        final String resourceName = "something/shared";
+        final int threadCount = 8;
+
+        ServletRunner sr = new ServletRunner();
+        sr.registerServlet(resourceName, StatefulServlet.class.getName());
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                final String color = "color" + i;
+                results.add(executor.submit(() -> {
+                    ServletUnitClient client = sr.newClient();
+                    WebRequest request = new PostMethodWebRequest("http://localhost/" + resourceName);
+                    request.setParameter("color", color);
+                    client.getResponse(request);
+                    String text = null;
+                    for (int j = 0; j < 25; j++) {
+                        text = client.getResponse("http://localhost/" + resourceName).getText();
+                    }
+                    return text;
+                }));
+            }
+            for (int i = 0; i < threadCount; i++) {
+                assertEquals("You posted color" + i, results.get(i).get(), "Response in thread " + i);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(threadCount, sr.getSessionCount(), "Sessions created");
+    }
+
     /**
      * The Class StatefulServlet.
      */
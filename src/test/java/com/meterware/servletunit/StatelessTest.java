@@ -84,6 +84,25 @@ class StatelessTest {
         assertEquals(0, AccessCountServlet.getNumInstances(), "Instances of servlet class after shutdown");
     }
 
+    /**
+     * verify that registering a servlet takes effect for paths which have already been requested.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    void reregistration() throws Exception {
+        ServletRunner sr = new ServletRunner();
+        sr.registerServlet("/app/*", SimpleGetServlet.class.getName());
+
+        WebRequest request = new GetMethodWebRequest("http://localhost/app/page");
+        assertEquals(SimpleGetServlet.RESPONSE_TEXT, sr.getResponse(request).getText(), "Reply from prefix mapping");
+        assertEquals(SimpleGetServlet.RESPONSE_TEXT, sr.getResponse(request).getText(), "Repeated reply");
+
+        sr.registerServlet("/app/page", AccessCountServlet.class.getName());
+        assertEquals("1", sr.getResponse(request).getText().trim(), "Reply from exact mapping");
+    }
+
     /**
      * Servlet access by class name.
      *